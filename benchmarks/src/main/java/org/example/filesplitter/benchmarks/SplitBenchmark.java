@@ -0,0 +1,271 @@
+package org.example.filesplitter.benchmarks;
+
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.FileSplitterService;
+import org.example.filesplitter.service.impl.AsyncFileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.CompressingFileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.FileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.GzipCodec;
+import org.example.filesplitter.service.impl.MappedFileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.ParallelFileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.PipelinedFileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.TransferFileSplitterServiceImpl;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+/**
+ * Split throughput of every engine. Each invocation splits the whole source
+ * into an empty directory, and the chunks are deleted after it. Besides the
+ * splits per second, the "bytes" counter gives the throughput in bytes per
+ * second. Run with -prof gc for the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SplitBenchmark {
+
+    /**
+     * The size of the source, like 1MB or 10GB.
+     */
+    @Param({"1MB", "64MB", "1GB"})
+    public String fileSize;
+
+    /**
+     * The chunk size.
+     */
+    @Param({"1MB", "64MB"})
+    public String chunkSize;
+
+    /**
+     * The buffer, block or window size, depending on the engine.
+     */
+    @Param({"8KB", "64KB", "1MB"})
+    public String bufferSize;
+
+    /**
+     * The split engine, see SplitterServices.
+     */
+    @Param({"stream", "transfer", "parallel", "mapped", "pipelined",
+            "async", "gzip"})
+    public String engine;
+
+    /**
+     * Where the source and the chunks go: "tmpfs" for /dev/shm, "disk" for
+     * the benchmark.disk system property (the temp directory by default),
+     * or any directory.
+     */
+    @Param({"disk"})
+    public String filesystem;
+
+    /**
+     * The directory of this trial.
+     */
+    private Path dir;
+
+    /**
+     * The source file.
+     */
+    private Path src;
+
+    /**
+     * The directory the chunks go to.
+     */
+    private Path dest;
+
+    /**
+     * The engine under test.
+     */
+    private FileSplitterService service;
+
+    /**
+     * The parsed chunk size.
+     */
+    private long chunkBytes;
+
+    /**
+     * Create the source and the engine.
+     *
+     * @throws IOException If the source can't be written.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory(root(), "filesplitter-bench");
+        src = dir.resolve("source.bin");
+        dest = Files.createDirectory(dir.resolve("chunks"));
+        chunkBytes = bytes(chunkSize);
+        service = service((int) bytes(bufferSize));
+        write(src, bytes(fileSize));
+    }
+
+    /**
+     * Delete the chunks of the last split.
+     *
+     * @throws IOException If a chunk can't be deleted.
+     */
+    @TearDown(Level.Invocation)
+    public void deleteChunks() throws IOException {
+        try (Stream<Path> chunks = Files.list(dest)) {
+            for (Path chunk : (Iterable<Path>) chunks::iterator) {
+                Files.delete(chunk);
+            }
+        }
+    }
+
+    /**
+     * Delete the source and the directory of the trial.
+     *
+     * @throws IOException If a file can't be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files
+                    .sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Split the whole source once.
+     *
+     * @param counters Counts the bytes split.
+     * @throws SplitException If the split fails.
+     */
+    @Benchmark
+    public void split(final Counters counters) throws SplitException {
+        service.split(src, dest, chunkBytes, new AtomicBoolean(false));
+        counters.bytes += bytes(fileSize);
+    }
+
+    /**
+     * The bytes split, reported by JMH as a rate next to the split time.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+
+        /**
+         * The number of source bytes split.
+         */
+        public long bytes;
+
+        /**
+         * Reset the counter before every iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    /**
+     * @param size The buffer, block or window size.
+     * @return The engine under test.
+     */
+    private FileSplitterService service(final int size) {
+        final long maxTransferSize = 64L * 1024 * 1024;
+        final int parallelism = Runtime.getRuntime().availableProcessors();
+        switch (engine) {
+            case "stream":
+                return new FileSplitterServiceImpl(size);
+            case "transfer":
+                return new TransferFileSplitterServiceImpl(maxTransferSize);
+            case "parallel":
+                return new ParallelFileSplitterServiceImpl(parallelism,
+                        maxTransferSize);
+            case "mapped":
+                return new MappedFileSplitterServiceImpl(size);
+            case "pipelined":
+                return new PipelinedFileSplitterServiceImpl(size, 8, 2);
+            case "async":
+                return new AsyncFileSplitterServiceImpl(size, 32);
+            case "gzip":
+                return new CompressingFileSplitterServiceImpl(
+                        new GzipCodec(Deflater.BEST_SPEED), size, parallelism,
+                        CompressingFileSplitterServiceImpl.Sizing.INPUT);
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown split engine: " + engine);
+        }
+    }
+
+    /**
+     * @return The directory of {@link #filesystem}.
+     */
+    private Path root() {
+        switch (filesystem) {
+            case "tmpfs":
+                return Paths.get("/dev/shm");
+            case "disk":
+                return Paths.get(System.getProperty("benchmark.disk",
+                        System.getProperty("java.io.tmpdir")));
+            default:
+                return Paths.get(filesystem);
+        }
+    }
+
+    /**
+     * @param size A size like 512B, 64KB, 1MB or 10GB.
+     * @return The size in bytes.
+     */
+    static long bytes(final String size) {
+        String value = size.trim().toUpperCase(Locale.ROOT);
+        long unit = 1;
+        if (value.endsWith("KB")) {
+            unit = 1024;
+        } else if (value.endsWith("MB")) {
+            unit = 1024 * 1024;
+        } else if (value.endsWith("GB")) {
+            unit = 1024 * 1024 * 1024;
+        }
+        return Long.parseLong(value.replaceAll("[KMG]?B$", "")) * unit;
+    }
+
+    /**
+     * Write a source of random but reproducible content.
+     *
+     * @param file The file to write.
+     * @param size The size of the file.
+     * @throws IOException If the file can't be written.
+     */
+    private static void write(final Path file, final long size)
+            throws IOException {
+        byte[] block = new byte[1024 * 1024];
+        new Random(size).nextBytes(block);
+        try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+            for (long written = 0; written < size; written += block.length) {
+                out.write(block, 0, (int) Math.min(block.length,
+                        size - written));
+            }
+        }
+    }
+}
@@ -1,7 +1,14 @@
 module filesplitter {
-    requires javafx.controls;
-    requires javafx.fxml;
+    // only the GUI needs JavaFX, launched with --add-modules (see README)
+    requires static javafx.controls;
+    requires static javafx.fxml;
     requires java.logging;
+    requires java.management;
+    requires java.net.http;
+    requires jdk.unsupported;
     exports org.example.filesplitter;
+    exports org.example.filesplitter.cli;
+    exports org.example.filesplitter.exception;
+    exports org.example.filesplitter.service;
     opens org.example.filesplitter.gui to javafx.fxml;
 }
\ No newline at end of file
@@ -7,7 +7,6 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 import org.example.filesplitter.controller.impl.FileSplitterControllerImpl;
 import org.example.filesplitter.gui.FileSplitterGUIController;
-import org.example.filesplitter.service.impl.FileSplitterServiceImpl;
 import org.example.filesplitter.service.impl.FileValidationServiceImpl;
 
 import java.io.IOException;
@@ -24,12 +23,11 @@ public class App extends Application {
         stage.setTitle("File splitter");
         FXMLLoader loader = new FXMLLoader(getClass()
                 .getResource("/main.fxml"));
-        final int maxBufferSize = 4096;
         loader.setControllerFactory(clazz -> new FileSplitterGUIController(
                 stage,
                 new FileSplitterControllerImpl(
                         new FileValidationServiceImpl(),
-                        new FileSplitterServiceImpl(maxBufferSize))));
+                        SplitterServices.splitterService())));
         Parent root = loader.load();
         stage.setScene(new Scene(root));
         stage.setResizable(false);
@@ -0,0 +1,383 @@
+package org.example.filesplitter;
+
+import org.example.filesplitter.service.BufferSizeStrategy;
+import org.example.filesplitter.service.ChunkSink;
+import org.example.filesplitter.service.FileJoinService;
+import org.example.filesplitter.service.FileSplitterService;
+import org.example.filesplitter.service.LineSplitterService;
+import org.example.filesplitter.service.impl.AdaptiveBufferSizeStrategy;
+import org.example.filesplitter.service.impl.AsyncFileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.BufferCalibrator;
+import org.example.filesplitter.service.impl.CompressingFileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.DigestAlgorithm;
+import org.example.filesplitter.service.impl.FileJoinServiceImpl;
+import org.example.filesplitter.service.impl.FileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.FileSystemChunkSink;
+import org.example.filesplitter.service.impl.FixedBufferSizeStrategy;
+import org.example.filesplitter.service.impl.FollowFileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.GzipCodec;
+import org.example.filesplitter.service.impl.IncrementalFileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.LineSplitterServiceImpl;
+import org.example.filesplitter.service.impl.MappedFileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.PipelinedFileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.ParallelFileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.RecordFileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.S3ChunkSink;
+import org.example.filesplitter.service.impl.SinkFileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.SplitMetrics;
+import org.example.filesplitter.service.impl.TransferFileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.ZipChunkSink;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+
+/**
+ * Creates the services from the system properties, for the GUI and the
+ * command line alike. Nothing here depends on JavaFX.
+ */
+public final class SplitterServices {
+
+    /**
+     * The max number of bytes handed to a single kernel transfer.
+     */
+    private static final long MAX_TRANSFER_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * The buffer size used to scan for line and record boundaries.
+     */
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The system property selecting the split engine: "stream" (default),
+     * "transfer", "parallel", "mapped", "records", "gzip", "pipelined",
+     * "async", "incremental", "follow" or "sink".
+     */
+    public static final String ENGINE_PROPERTY = "filesplitter.engine";
+
+    /**
+     * The system property with the number of chunks the "parallel" engine
+     * writes, or blocks the "gzip" engine compresses, at the same time.
+     * Defaults to the number of processors.
+     */
+    public static final String PARALLELISM_PROPERTY =
+            "filesplitter.parallelism";
+
+    /**
+     * The system property with the record delimiter of the "records" engine.
+     * The escapes {@code \n}, {@code \r} and {@code \t} are supported.
+     * Defaults to a newline.
+     */
+    public static final String DELIMITER_PROPERTY = "filesplitter.delimiter";
+
+    /**
+     * The system property with what the chunk size of the "gzip" engine
+     * applies to: "input" (default) or "output".
+     */
+    public static final String SIZING_PROPERTY = "filesplitter.sizing";
+
+    /**
+     * The system property with the digest ("CRC32C", "XXH64" or "SHA-256")
+     * the "stream" engine uses to checksum the chunks into a manifest. No
+     * manifest is written without it. The "incremental" engine always
+     * writes one, with XXH64 by default.
+     */
+    public static final String CHECKSUM_PROPERTY = "filesplitter.checksum";
+
+    /**
+     * The system property enabling ("true") resumable splits for the
+     * "stream" engine: a journal records every complete chunk, and an
+     * unfinished split of the same source continues where it stopped.
+     */
+    public static final String RESUME_PROPERTY = "filesplitter.resume";
+
+    /**
+     * The system property with where the chunks of the "stream" engine end:
+     * "fixed" (default) or "content_defined", for chunks that stay the same
+     * when bytes are inserted or removed before them. A content-defined
+     * chunk is the chunk size on average, but from a quarter of it up to 8
+     * times it. A resumable split is only resumed with the same boundaries.
+     */
+    public static final String BOUNDARIES_PROPERTY = "filesplitter.boundaries";
+
+    /**
+     * The system property with a fixed buffer size in bytes for the "stream"
+     * engine. Without it the size adapts to the destination store.
+     */
+    public static final String BUFFER_SIZE_PROPERTY =
+            "filesplitter.bufferSize";
+
+    /**
+     * The system property enabling ("true") a calibration run that measures
+     * the best buffer size for each destination store.
+     */
+    public static final String CALIBRATE_PROPERTY = "filesplitter.calibrate";
+
+    /**
+     * The system property enabling ("true") the metrics of the "stream",
+     * "transfer", "parallel", "records" and "incremental" engines,
+     * registered as the {@value SplitMetrics#OBJECT_NAME} MBean. The other
+     * engines log a warning that they record none.
+     */
+    public static final String METRICS_PROPERTY = "filesplitter.metrics";
+
+    /**
+     * The system property with a file every split is appended to as a line
+     * of JSON. Enables the metrics too.
+     */
+    public static final String METRICS_FILE_PROPERTY =
+            "filesplitter.metrics.file";
+
+    /**
+     * The system property with where the "sink" engine writes the chunks:
+     * "file" (default) to the destination directory, "zip" to one archive
+     * in it, or s3://bucket/key-prefix to an S3-compatible store. The store
+     * is set with {@link #S3_ENDPOINT_PROPERTY} and
+     * {@link #S3_REGION_PROPERTY}, the credentials with the
+     * AWS_ACCESS_KEY_ID and AWS_SECRET_ACCESS_KEY environment variables.
+     */
+    public static final String SINK_PROPERTY = "filesplitter.sink";
+
+    /**
+     * The system property with the URL of the S3-compatible store, like
+     * http://localhost:9000. Defaults to AWS S3 in the region.
+     */
+    public static final String S3_ENDPOINT_PROPERTY =
+            "filesplitter.s3.endpoint";
+
+    /**
+     * The system property with the region of the store. Defaults to the
+     * AWS_REGION environment variable, then us-east-1.
+     */
+    public static final String S3_REGION_PROPERTY = "filesplitter.s3.region";
+
+    /**
+     * The engines that record no metrics.
+     */
+    private static final Set<String> ENGINES_WITHOUT_METRICS = Set.of(
+            "mapped", "gzip", "pipelined", "async", "follow", "sink");
+
+    /**
+     * Warns when metrics are asked of an engine without them.
+     */
+    private static final Logger LOGGER =
+            Logger.getLogger(SplitterServices.class.getName());
+
+    /**
+     * The metrics shared by every engine, created on first use.
+     */
+    private static SplitMetrics metrics;
+
+    private SplitterServices() {
+    }
+
+    /**
+     * Create the split engine selected with {@link #ENGINE_PROPERTY}.
+     *
+     * @return The file splitter service to wire into a controller.
+     */
+    public static FileSplitterService splitterService() {
+        final long maxTransferSize = MAX_TRANSFER_SIZE;
+        final int maxWindowSize = 256 * 1024 * 1024;
+        final int scanBufferSize = SCAN_BUFFER_SIZE;
+        final int compressionBlockSize = 1024 * 1024;
+        final int ringBufferSize = 1024 * 1024;
+        final int ringSize = 8;
+        final int writers = 2;
+        final int asyncBlockSize = 256 * 1024;
+        final int maxInFlight = 32;
+        final int checksumBufferSize = 1024 * 1024;
+        final int followBufferSize = 1024 * 1024;
+        final long followPollMillis = 1000;
+        final int sinkBufferSize = 1024 * 1024;
+        String engine = System.getProperty(ENGINE_PROPERTY, "stream");
+        if (ENGINES_WITHOUT_METRICS.contains(engine) && metricsEnabled()) {
+            LOGGER.warning("The " + engine + " engine records no metrics, "
+                    + "no " + SplitMetrics.OBJECT_NAME + " MBean is "
+                    + "registered");
+        }
+        switch (engine) {
+            case "stream":
+                return new FileSplitterServiceImpl(bufferSizeStrategy(),
+                        digests(), Boolean.getBoolean(RESUME_PROPERTY),
+                        metrics(), FileSplitterServiceImpl.Boundaries.valueOf(
+                                System.getProperty(BOUNDARIES_PROPERTY,
+                                        "fixed").toUpperCase(Locale.ROOT)));
+            case "transfer":
+                return new TransferFileSplitterServiceImpl(maxTransferSize,
+                        metrics());
+            case "parallel":
+                return new ParallelFileSplitterServiceImpl(parallelism(),
+                        maxTransferSize, metrics());
+            case "mapped":
+                return new MappedFileSplitterServiceImpl(maxWindowSize);
+            case "records":
+                return new RecordFileSplitterServiceImpl(delimiter(),
+                        scanBufferSize, maxTransferSize, metrics());
+            case "gzip":
+                return new CompressingFileSplitterServiceImpl(
+                        new GzipCodec(Deflater.DEFAULT_COMPRESSION),
+                        compressionBlockSize, parallelism(),
+                        CompressingFileSplitterServiceImpl.Sizing.valueOf(
+                                System.getProperty(SIZING_PROPERTY, "input")
+                                        .toUpperCase(Locale.ROOT)));
+            case "pipelined":
+                return new PipelinedFileSplitterServiceImpl(ringBufferSize,
+                        ringSize, writers);
+            case "async":
+                return new AsyncFileSplitterServiceImpl(asyncBlockSize,
+                        maxInFlight);
+            case "incremental":
+                DigestAlgorithm algorithm = digests();
+                return new IncrementalFileSplitterServiceImpl(
+                        algorithm == null ? DigestAlgorithm.XXH64 : algorithm,
+                        checksumBufferSize, maxTransferSize, metrics());
+            case "follow":
+                return new FollowFileSplitterServiceImpl(followBufferSize,
+                        followPollMillis);
+            case "sink":
+                return new SinkFileSplitterServiceImpl(sinks(), parallelism(),
+                        sinkBufferSize);
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown split engine: " + engine);
+        }
+    }
+
+    /**
+     * @return The parallelism set with {@link #PARALLELISM_PROPERTY}.
+     */
+    private static int parallelism() {
+        return Integer.getInteger(PARALLELISM_PROPERTY,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @return The sinks set with {@link #SINK_PROPERTY}.
+     */
+    private static ChunkSink.Factory sinks() {
+        final int partSize = 8 * 1024 * 1024;
+        String sink = System.getProperty(SINK_PROPERTY, "file");
+        if (sink.equals("file")) {
+            return (dest, prefix) -> new FileSystemChunkSink(dest);
+        }
+        if (sink.equals("zip")) {
+            return (dest, prefix) -> new ZipChunkSink(
+                    dest.resolve(prefix + ".zip"));
+        }
+        if (!sink.startsWith("s3://")) {
+            throw new IllegalArgumentException("Unknown sink: " + sink);
+        }
+        URI target = URI.create(sink);
+        String accessKey = System.getenv("AWS_ACCESS_KEY_ID");
+        String secretKey = System.getenv("AWS_SECRET_ACCESS_KEY");
+        if (accessKey == null || secretKey == null) {
+            throw new IllegalArgumentException("AWS_ACCESS_KEY_ID and "
+                    + "AWS_SECRET_ACCESS_KEY must be set for " + sink);
+        }
+        String region = System.getProperty(S3_REGION_PROPERTY,
+                System.getenv().getOrDefault("AWS_REGION", "us-east-1"));
+        URI endpoint = URI.create(System.getProperty(S3_ENDPOINT_PROPERTY,
+                "https://s3." + region + ".amazonaws.com"));
+        String path = target.getPath() == null ? "" : target.getPath();
+        String keyPrefix = path.startsWith("/") ? path.substring(1) : path;
+        S3ChunkSink s3 = new S3ChunkSink(endpoint, target.getHost(),
+                keyPrefix, region, accessKey, secretKey, partSize);
+        return (dest, prefix) -> s3;
+    }
+
+    /**
+     * Create the metrics and register them with the platform MBean server
+     * the first time they're enabled with {@link #METRICS_PROPERTY} or
+     * {@link #METRICS_FILE_PROPERTY}.
+     *
+     * @return The metrics, or null when they're disabled.
+     */
+    private static synchronized SplitMetrics metrics() {
+        String file = System.getProperty(METRICS_FILE_PROPERTY);
+        if (metrics == null && metricsEnabled()) {
+            Path jsonFile = file == null ? null : Paths.get(file);
+            metrics = new SplitMetrics(jsonFile);
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(
+                        metrics, new ObjectName(SplitMetrics.OBJECT_NAME));
+            } catch (JMException e) {
+                throw new IllegalStateException(
+                        "Metrics not registered: " + e.getMessage(), e);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * @return Whether {@link #METRICS_PROPERTY} or
+     * {@link #METRICS_FILE_PROPERTY} is set.
+     */
+    private static boolean metricsEnabled() {
+        return System.getProperty(METRICS_FILE_PROPERTY) != null
+                || Boolean.getBoolean(METRICS_PROPERTY);
+    }
+
+    /**
+     * @return The record delimiter set with {@link #DELIMITER_PROPERTY}.
+     */
+    private static byte[] delimiter() {
+        String delimiter = System.getProperty(DELIMITER_PROPERTY);
+        if (delimiter == null) {
+            return RecordFileSplitterServiceImpl.NEWLINE;
+        }
+        return delimiter.replace("\\n", "\n")
+                .replace("\\r", "\r")
+                .replace("\\t", "\t")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return The digest set with {@link #CHECKSUM_PROPERTY}, or null.
+     */
+    private static DigestAlgorithm digests() {
+        String checksum = System.getProperty(CHECKSUM_PROPERTY);
+        return checksum == null ? null : DigestAlgorithm.of(checksum);
+    }
+
+    /**
+     * Use the buffer size set with {@link #BUFFER_SIZE_PROPERTY}, otherwise
+     * adapt it to the destination store within a share of the heap.
+     *
+     * @return The buffer sizing for the "stream" engine.
+     */
+    private static BufferSizeStrategy bufferSizeStrategy() {
+        Integer bufferSize = Integer.getInteger(BUFFER_SIZE_PROPERTY);
+        if (bufferSize != null) {
+            return new FixedBufferSizeStrategy(bufferSize);
+        }
+        final long memoryBudget = Runtime.getRuntime().maxMemory() / 16;
+        return new AdaptiveBufferSizeStrategy(memoryBudget,
+                Boolean.getBoolean(CALIBRATE_PROPERTY)
+                        ? new BufferCalibrator() : null);
+    }
+
+    /**
+     * @return The service splitting text files by line count.
+     */
+    public static LineSplitterService lineSplitterService() {
+        return new LineSplitterServiceImpl(SCAN_BUFFER_SIZE,
+                MAX_TRANSFER_SIZE);
+    }
+
+    /**
+     * @return The service joining and verifying split runs, with the
+     * parallelism set with {@link #PARALLELISM_PROPERTY}.
+     */
+    public static FileJoinService joinService() {
+        return new FileJoinServiceImpl(parallelism(), MAX_TRANSFER_SIZE);
+    }
+}
@@ -0,0 +1,316 @@
+package org.example.filesplitter.cli;
+
+import org.example.filesplitter.SplitterServices;
+import org.example.filesplitter.controller.FileSplitterController;
+import org.example.filesplitter.controller.impl.BatchSplitterControllerImpl;
+import org.example.filesplitter.controller.impl.FileSplitterControllerImpl;
+import org.example.filesplitter.exception.JoinException;
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.FileValidationService;
+import org.example.filesplitter.service.ProgressListener;
+import org.example.filesplitter.service.impl.FileValidationServiceImpl;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.PrintStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The command line entry point. It doesn't load JavaFX, so it starts fast
+ * and runs without a display. The exit codes are the ones of
+ * {@link FileSplitterController}, or {@link #USAGE_ERROR}.
+ */
+public final class FileSplitterCli {
+
+    /**
+     * Exit code - the command line is not valid.
+     */
+    public static final int USAGE_ERROR = 64;
+
+    /**
+     * The source argument that stands for the standard input.
+     */
+    private static final String STDIN = "-";
+
+    /**
+     * How long the shutdown hook waits for a running command to stop.
+     */
+    private static final long SHUTDOWN_WAIT_SECONDS = 10;
+
+    /**
+     * The help text.
+     */
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage:",
+            "  split <src> <dest> <chunk size>   (- for the standard input)",
+            "  batch <dir> <glob> <dest> <chunk size>",
+            "  lines <src> <dest> <lines per part>",
+            "  join <dir> <prefix> <target>",
+            "  verify <dir> <prefix>",
+            "The split engine and its options are set with the"
+                    + " filesplitter.* system properties.");
+
+    private FileSplitterCli() {
+    }
+
+    /**
+     * Run a command and exit with its code. The progress of a split is drawn
+     * on the standard error when it's a terminal. On Ctrl-C or a kill the
+     * command is interrupted through its flag and given a few seconds to
+     * stop cleanly.
+     *
+     * @param args The command and its arguments.
+     */
+    public static void main(final String[] args) {
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+        CountDownLatch done = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            interrupted.set(true);
+            try {
+                done.await(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        // only draw progress for a person watching, not in cron jobs
+        boolean console = System.console() != null;
+        int code;
+        try {
+            code = run(args, System.out, System.err, interrupted, console
+                    ? progress -> System.err.print("\r" + progress) : null);
+        } finally {
+            done.countDown();
+        }
+        if (console) {
+            System.err.println();
+        }
+        System.exit(code);
+    }
+
+    /**
+     * Run a command.
+     *
+     * @param args        The command and its arguments.
+     * @param out         Where the results go.
+     * @param err         Where the errors go.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @param progress    Receives the progress of a split, may be null.
+     * @return The exit code.
+     */
+    static int run(final String[] args, final PrintStream out,
+                   final PrintStream err, final AtomicBoolean interrupted,
+                   final ProgressListener progress) {
+        if (args.length == 1 && ("-h".equals(args[0])
+                || "--help".equals(args[0]))) {
+            out.println(USAGE);
+            return FileSplitterController.SUCCESS;
+        }
+        try {
+            String command = args.length == 0 ? "" : args[0];
+            switch (command) {
+                case "split":
+                    checkArgs(args, 4);
+                    FileSplitterController controller =
+                            new FileSplitterControllerImpl(
+                                    new FileValidationServiceImpl(),
+                                    SplitterServices.splitterService());
+                    if (STDIN.equals(args[1])) {
+                        return controller.splitStream(stdin(),
+                                Paths.get(args[2]), size(args[3]),
+                                interrupted);
+                    }
+                    return controller.split(Paths.get(args[1]),
+                            Paths.get(args[2]), size(args[3]), interrupted,
+                            progress);
+                case "batch":
+                    checkArgs(args, 5);
+                    return batch(Paths.get(args[1]), args[2],
+                            Paths.get(args[3]), size(args[4]), out,
+                            interrupted);
+                case "lines":
+                    checkArgs(args, 4);
+                    return lines(Paths.get(args[1]), Paths.get(args[2]),
+                            size(args[3]), err, interrupted);
+                case "join":
+                    checkArgs(args, 4);
+                    return join(Paths.get(args[1]), args[2],
+                            Paths.get(args[3]), err, interrupted);
+                case "verify":
+                    checkArgs(args, 3);
+                    return verify(Paths.get(args[1]), args[2], out, err);
+                default:
+                    throw new IllegalArgumentException(
+                            "Unknown command: " + command);
+            }
+        } catch (NumberFormatException e) {
+            err.println("Not a number: " + e.getMessage());
+            return FileSplitterController.INVALID_CHUNK_SIZE;
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return USAGE_ERROR;
+        }
+    }
+
+    /**
+     * @param args     The command and its arguments.
+     * @param expected The expected number of arguments, with the command.
+     */
+    private static void checkArgs(final String[] args, final int expected) {
+        if (args.length != expected) {
+            throw new IllegalArgumentException("Wrong number of arguments"
+                    + " for " + args[0]);
+        }
+    }
+
+    /**
+     * @return The standard input, read straight from its file descriptor
+     * rather than through {@link System#in} and its small buffer.
+     */
+    private static ReadableByteChannel stdin() {
+        return new FileInputStream(FileDescriptor.in).getChannel();
+    }
+
+    /**
+     * @param value A size argument.
+     * @return The size.
+     */
+    private static long size(final String value) {
+        return Long.parseLong(value.trim());
+    }
+
+    /**
+     * Split every matching file, printing the code of each file.
+     *
+     * @param dir         The directory holding the source files.
+     * @param glob        The glob the filenames must match.
+     * @param dest        The destination directory.
+     * @param chunkSize   The size of each chunk.
+     * @param out         Where the results go.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @return The first code that isn't a success, in filename order.
+     */
+    private static int batch(final Path dir, final String glob,
+                             final Path dest, final long chunkSize,
+                             final PrintStream out,
+                             final AtomicBoolean interrupted) {
+        final int parallelism = Integer.getInteger(
+                SplitterServices.PARALLELISM_PROPERTY,
+                Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            Map<Path, Integer> results = new BatchSplitterControllerImpl(
+                    new FileSplitterControllerImpl(
+                            new FileValidationServiceImpl(),
+                            SplitterServices.splitterService()),
+                    executor, parallelism)
+                    .split(dir, glob, dest, chunkSize, interrupted);
+            int code = FileSplitterController.SUCCESS;
+            for (Map.Entry<Path, Integer> result : results.entrySet()) {
+                out.println(result.getValue() + "\t" + result.getKey());
+                if (code == FileSplitterController.SUCCESS) {
+                    code = result.getValue();
+                }
+            }
+            return code;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Split a text file by line count, validated like a split.
+     *
+     * @param src          The source file.
+     * @param dest         The destination directory.
+     * @param linesPerPart The number of lines of each part.
+     * @param err          Where the errors go.
+     * @param interrupted  A flag for interrupting from outside the method.
+     * @return The exit code.
+     */
+    private static int lines(final Path src, final Path dest,
+                             final long linesPerPart, final PrintStream err,
+                             final AtomicBoolean interrupted) {
+        FileValidationService validation = new FileValidationServiceImpl();
+        if (!validation.validSrc(src)) {
+            err.println("Source file not valid: " + src);
+            return FileSplitterController.INVALID_SOURCE_FILE;
+        }
+        if (!validation.validDest(dest)) {
+            err.println("Destination directory not valid: " + dest);
+            return FileSplitterController.INVALID_DESTINATION_DIR;
+        }
+        if (!validation.validChunkSize(linesPerPart)) {
+            err.println("Lines per part not valid: " + linesPerPart);
+            return FileSplitterController.INVALID_CHUNK_SIZE;
+        }
+        try {
+            SplitterServices.lineSplitterService()
+                    .splitLines(src, dest, linesPerPart, interrupted);
+        } catch (SplitException e) {
+            err.println("Split failed: " + e.getCause());
+            return FileSplitterController.IO_ERROR;
+        }
+        return FileSplitterController.SUCCESS;
+    }
+
+    /**
+     * Join the parts of a split run.
+     *
+     * @param dir         The directory holding the parts.
+     * @param prefix      The prefix shared by the parts of the run.
+     * @param target      The file to create.
+     * @param err         Where the errors go.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @return The exit code.
+     */
+    private static int join(final Path dir, final String prefix,
+                            final Path target, final PrintStream err,
+                            final AtomicBoolean interrupted) {
+        if (!new FileValidationServiceImpl().validDest(dir)) {
+            err.println("Parts directory not valid: " + dir);
+            return FileSplitterController.INVALID_SOURCE_FILE;
+        }
+        try {
+            SplitterServices.joinService()
+                    .join(dir, prefix, target, interrupted);
+        } catch (JoinException e) {
+            err.println("Join failed: " + e.getCause());
+            return FileSplitterController.IO_ERROR;
+        }
+        return FileSplitterController.SUCCESS;
+    }
+
+    /**
+     * Check the parts of a split run against its manifest.
+     *
+     * @param dir    The directory holding the parts.
+     * @param prefix The prefix shared by the parts of the run.
+     * @param out    Where the results go.
+     * @param err    Where the errors go.
+     * @return The exit code.
+     */
+    private static int verify(final Path dir, final String prefix,
+                              final PrintStream out, final PrintStream err) {
+        if (!new FileValidationServiceImpl().validDest(dir)) {
+            err.println("Parts directory not valid: " + dir);
+            return FileSplitterController.INVALID_SOURCE_FILE;
+        }
+        try {
+            SplitterServices.joinService().verify(dir, prefix);
+        } catch (JoinException e) {
+            err.println("Verify failed: " + e.getCause());
+            return FileSplitterController.IO_ERROR;
+        }
+        out.println("OK");
+        return FileSplitterController.SUCCESS;
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.filesplitter.controller;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public interface BatchSplitterController {
+
+    /**
+     * Split every source file into chunks of the specified size, saving the
+     * chunks in the destination folder.
+     *
+     * @param sources     The source files.
+     * @param dest        The destination directory.
+     * @param chunkSize   The size of each chunk.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @return The result of each split, in the order of the sources, with
+     * the codes of {@link FileSplitterController}.
+     */
+    Map<Path, Integer> split(List<Path> sources, Path dest, long chunkSize,
+                             AtomicBoolean interrupted);
+
+    /**
+     * Split every file of a directory matching a glob, like "*.dump".
+     *
+     * @param dir         The directory holding the source files.
+     * @param glob        The glob the filenames must match.
+     * @param dest        The destination directory.
+     * @param chunkSize   The size of each chunk.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @return The result of each split, with the codes of
+     * {@link FileSplitterController}. If the directory can't be listed, the
+     * directory with {@link FileSplitterController#INVALID_SOURCE_FILE}.
+     */
+    Map<Path, Integer> split(Path dir, String glob, Path dest, long chunkSize,
+                             AtomicBoolean interrupted);
+
+}
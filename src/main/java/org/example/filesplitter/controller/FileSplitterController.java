@@ -1,5 +1,8 @@
 package org.example.filesplitter.controller;
 
+import org.example.filesplitter.service.ProgressListener;
+
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Path;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -41,6 +44,39 @@ public interface FileSplitterController {
      * @param interrupted A flag for interrupting from outside the method.
      * @return the result of the operation. Exit code 0 is no error.
      */
-    int split(Path src, Path dest, int chunkSize, AtomicBoolean interrupted);
+    int split(Path src, Path dest, long chunkSize, AtomicBoolean interrupted);
+
+    /**
+     * Split like {@link #split(Path, Path, long, AtomicBoolean)}, reporting
+     * the progress of the split to a listener. By default the progress isn't
+     * reported.
+     *
+     * @param src         The source file.
+     * @param dest        The destination directory.
+     * @param chunkSize   The size of each chunk.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @param listener    Receives the progress, may be null.
+     * @return the result of the operation. Exit code 0 is no error.
+     */
+    default int split(Path src, Path dest, long chunkSize,
+                      AtomicBoolean interrupted, ProgressListener listener) {
+        return split(src, dest, chunkSize, interrupted);
+    }
+
+    /**
+     * Split a stream of unknown length, like a pipe or the standard input,
+     * saving each chunk in the destination folder. By default streams
+     * aren't supported and the source is reported as not valid.
+     *
+     * @param src         The stream, in blocking mode. It isn't closed.
+     * @param dest        The destination directory.
+     * @param chunkSize   The size of each chunk.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @return the result of the operation. Exit code 0 is no error.
+     */
+    default int splitStream(ReadableByteChannel src, Path dest,
+                            long chunkSize, AtomicBoolean interrupted) {
+        return INVALID_SOURCE_FILE;
+    }
 
 }
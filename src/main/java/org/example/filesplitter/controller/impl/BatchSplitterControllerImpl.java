@@ -0,0 +1,175 @@
+package org.example.filesplitter.controller.impl;
+
+import org.example.filesplitter.controller.BatchSplitterController;
+import org.example.filesplitter.controller.FileSplitterController;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class BatchSplitterControllerImpl implements BatchSplitterController {
+
+    /**
+     * A simple text logger, nothing fancy.
+     */
+    private static final Logger LOGGER =
+            Logger.getLogger(BatchSplitterControllerImpl.class.getName());
+
+    /**
+     * Splits each file.
+     */
+    private final FileSplitterController controller;
+
+    /**
+     * Runs the splits, shared with other batches.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * One permit per split that may read and write at the same time, across
+     * all the batches of this controller.
+     */
+    private final Semaphore ioPermits;
+
+    /**
+     * Instantiate a new batch controller.
+     *
+     * @param controller      Splits each file.
+     * @param executor        Runs the splits. It's not shut down by the
+     *                        controller, so it can be shared.
+     * @param maxConcurrentIo The max number of files split at the same time
+     *                        across all the batches of this controller.
+     */
+    public BatchSplitterControllerImpl(final FileSplitterController controller,
+                                       final ExecutorService executor,
+                                       final int maxConcurrentIo) {
+        if (maxConcurrentIo <= 0) {
+            throw new IllegalStateException(
+                    "Max concurrent I/O not valid: " + maxConcurrentIo);
+        }
+        this.controller = controller;
+        this.executor = executor;
+        this.ioPermits = new Semaphore(maxConcurrentIo, true);
+    }
+
+    /**
+     * The files are submitted largest first, so a big file doesn't start
+     * last and keep the batch running alone. Every split waits for an I/O
+     * permit before it starts. Only regular files are split: a named pipe
+     * would hold its thread and permit until written to, so it's
+     * {@link FileSplitterController#INVALID_SOURCE_FILE} like a directory.
+     *
+     * @param sources     The source files.
+     * @param dest        The destination directory.
+     * @param chunkSize   The size of each chunk.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @return The result of each split, in the order of the sources.
+     */
+    @Override
+    public Map<Path, Integer> split(final List<Path> sources, final Path dest,
+                                    final long chunkSize,
+                                    final AtomicBoolean interrupted) {
+        List<Path> bySize = new ArrayList<>(new LinkedHashSet<>(sources));
+        bySize.sort(Comparator.comparingLong(
+                BatchSplitterControllerImpl::size).reversed());
+        Map<Path, Future<Integer>> splits = new LinkedHashMap<>();
+        for (Path src : bySize) {
+            if (!Files.isRegularFile(src)) {
+                LOGGER.log(Level.SEVERE, "[abort] source file not valid: "
+                        + src);
+                splits.put(src, CompletableFuture.completedFuture(
+                        FileSplitterController.INVALID_SOURCE_FILE));
+                continue;
+            }
+            splits.put(src, executor.submit(() -> {
+                ioPermits.acquire();
+                try {
+                    return controller.split(src, dest, chunkSize,
+                            interrupted);
+                } finally {
+                    ioPermits.release();
+                }
+            }));
+        }
+        Map<Path, Integer> results = new LinkedHashMap<>();
+        for (Path src : sources) {
+            results.put(src, result(src, splits.get(src)));
+        }
+        return results;
+    }
+
+    /**
+     * @param dir         The directory holding the source files.
+     * @param glob        The glob the filenames must match.
+     * @param dest        The destination directory.
+     * @param chunkSize   The size of each chunk.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @return The result of each split, ordered by filename.
+     */
+    @Override
+    public Map<Path, Integer> split(final Path dir, final String glob,
+                                    final Path dest, final long chunkSize,
+                                    final AtomicBoolean interrupted) {
+        List<Path> sources = new ArrayList<>();
+        try (DirectoryStream<Path> files =
+                     Files.newDirectoryStream(dir, glob)) {
+            files.forEach(sources::add);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "[abort] source directory not valid: "
+                    + dir, e);
+            Map<Path, Integer> results = new LinkedHashMap<>();
+            results.put(dir, FileSplitterController.INVALID_SOURCE_FILE);
+            return results;
+        }
+        sources.sort(Comparator.naturalOrder());
+        return split(sources, dest, chunkSize, interrupted);
+    }
+
+    /**
+     * @param src   The source file.
+     * @param split The split of the file.
+     * @return The result of the split, or
+     * {@link FileSplitterController#IO_ERROR} if it failed unexpectedly.
+     */
+    private static int result(final Path src, final Future<Integer> split) {
+        try {
+            return split.get();
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.SEVERE, "[error] file split error: " + src,
+                    e.getCause());
+            return FileSplitterController.IO_ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            split.cancel(true);
+            return FileSplitterController.IO_ERROR;
+        }
+    }
+
+    /**
+     * @param src The source file.
+     * @return The size of the file, or -1 if it can't be read, so it's
+     * validated (and rejected) last.
+     */
+    private static long size(final Path src) {
+        try {
+            return Files.size(src);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -4,8 +4,13 @@ import org.example.filesplitter.controller.FileSplitterController;
 import org.example.filesplitter.exception.SplitException;
 import org.example.filesplitter.service.FileSplitterService;
 import org.example.filesplitter.service.FileValidationService;
+import org.example.filesplitter.service.ProgressListener;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -51,9 +56,28 @@ public class FileSplitterControllerImpl implements FileSplitterController {
      * @return
      */
     @Override
-    public int split(final Path src, final Path dest, final int chunkSize,
+    public int split(final Path src, final Path dest, final long chunkSize,
                      final AtomicBoolean interrupted) {
-        if (!fileValidationService.validSrc(src)) {
+        return split(src, dest, chunkSize, interrupted, null);
+    }
+
+    /**
+     * The listener is passed directly to the service, like the flag. A
+     * stream source, like a named pipe, is split with
+     * {@link FileSplitterService#splitStream} instead, without progress.
+     * @param src         The source file.
+     * @param dest        The destination directory.
+     * @param chunkSize   The size of each chunk.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @param listener    Receives the progress, may be null.
+     * @return
+     */
+    @Override
+    public int split(final Path src, final Path dest, final long chunkSize,
+                     final AtomicBoolean interrupted,
+                     final ProgressListener listener) {
+        final boolean stream = fileValidationService.streamSrc(src);
+        if (!stream && !fileValidationService.validSrc(src)) {
             LOGGER.log(Level.SEVERE, "[abort] source file not valid: " + src);
             return INVALID_SOURCE_FILE;
         }
@@ -67,12 +91,59 @@ public class FileSplitterControllerImpl implements FileSplitterController {
                     "[abort] chunk size (bytes) not valid: " + chunkSize);
             return INVALID_CHUNK_SIZE;
         }
+        if (stream) {
+            try (FileChannel in = FileChannel.open(src,
+                    StandardOpenOption.READ)) {
+                return splitStream(in, dest, chunkSize, interrupted);
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "[error] file split error: ", e);
+                return IO_ERROR;
+            }
+        }
         try {
-            fileSplitterService.split(src, dest, chunkSize, interrupted);
+            if (listener == null) {
+                fileSplitterService.split(src, dest, chunkSize, interrupted);
+            } else {
+                fileSplitterService.split(src, dest, chunkSize, interrupted,
+                        listener);
+            }
         } catch (SplitException e) {
             LOGGER.log(Level.SEVERE, "[error] file split error: ", e);
             return IO_ERROR;
         }
         return SUCCESS;
     }
+
+    /**
+     * The stream is passed directly to the service, which must support
+     * streams, like the flag.
+     * @param src         The stream, in blocking mode. It isn't closed.
+     * @param dest        The destination directory.
+     * @param chunkSize   The size of each chunk.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @return
+     */
+    @Override
+    public int splitStream(final ReadableByteChannel src, final Path dest,
+                           final long chunkSize,
+                           final AtomicBoolean interrupted) {
+        if (!fileValidationService.validDest(dest)) {
+            LOGGER.log(Level.SEVERE,
+                    "[abort] destination directory not valid: " + dest);
+            return INVALID_DESTINATION_DIR;
+        }
+        if (!fileValidationService.validChunkSize(chunkSize)) {
+            LOGGER.log(Level.SEVERE,
+                    "[abort] chunk size (bytes) not valid: " + chunkSize);
+            return INVALID_CHUNK_SIZE;
+        }
+        try {
+            fileSplitterService.splitStream(src, dest, chunkSize,
+                    interrupted);
+        } catch (SplitException e) {
+            LOGGER.log(Level.SEVERE, "[error] stream split error: ", e);
+            return IO_ERROR;
+        }
+        return SUCCESS;
+    }
 }
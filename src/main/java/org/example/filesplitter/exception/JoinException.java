@@ -0,0 +1,14 @@
+package org.example.filesplitter.exception;
+
+public class JoinException extends Exception {
+
+    /**
+     * A wrapper for exceptions raised during joining.
+     *
+     * @param e The base exception.
+     */
+    public JoinException(final Exception e) {
+        super(e);
+    }
+
+}
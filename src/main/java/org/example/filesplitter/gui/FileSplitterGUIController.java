@@ -7,7 +7,10 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextField;
+import javafx.scene.layout.VBox;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
@@ -28,9 +31,19 @@ public class FileSplitterGUIController implements FileSplitterController {
      */
     public static final int SPLIT_TASK_STARTED = -1;
 
+    /**
+     * The width of the progress bar in the split dialog.
+     */
+    private static final double PROGRESS_WIDTH = 400;
+
+    /**
+     * The space between the progress bar and its text.
+     */
+    private static final double PROGRESS_SPACING = 10;
+
     /**
      * Decorator pattern: invoke this controller inside the
-     * {@link #split(Path, Path, int, AtomicBoolean)} method of
+     * {@link #split(Path, Path, long, AtomicBoolean)} method of
      * this class.
      */
     private final FileSplitterController controller;
@@ -111,19 +124,31 @@ public class FileSplitterGUIController implements FileSplitterController {
      * @return Always return {@link #SPLIT_TASK_STARTED} (async call).
      */
     @Override
-    public int split(final Path src, final Path dest, final int chunkSize,
+    public int split(final Path src, final Path dest, final long chunkSize,
                      final AtomicBoolean interrupted) {
         Task<Integer> splitTask = new Task<>() {
             @Override
             protected Integer call() {
-                return controller.split(src, dest, chunkSize, interrupted);
+                return controller.split(src, dest, chunkSize, interrupted,
+                        progress -> {
+                            updateProgress(progress.bytesDone(),
+                                    progress.totalBytes());
+                            updateMessage(progress.toString());
+                        });
             }
         };
 
         Dialog<Void> interrupt = new Dialog<>();
         interrupt.setTitle("Splitting...");
         interrupt.setHeaderText("Splitting...");
-        interrupt.setContentText("Press cancel to interrupt");
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(PROGRESS_WIDTH);
+        progressBar.progressProperty().bind(splitTask.progressProperty());
+        Label progressText = new Label("Press cancel to interrupt");
+        splitTask.messageProperty().addListener((observable, old, message) ->
+                progressText.setText(message));
+        interrupt.getDialogPane().setContent(
+                new VBox(PROGRESS_SPACING, progressBar, progressText));
         interrupt.getDialogPane().getButtonTypes().add(ButtonType.CANCEL);
         interrupt.setResultConverter(buttonType -> {
             interrupted.set(true);
@@ -220,9 +245,9 @@ public class FileSplitterGUIController implements FileSplitterController {
      * @param actionEvent The action event received from the UI.
      */
     public void splitSrc(final ActionEvent actionEvent) {
-        final int bytes;
+        final long bytes;
         try {
-            bytes = Integer.parseInt(chunkSize.getText());
+            bytes = Long.parseLong(chunkSize.getText());
         } catch (NumberFormatException e) {
             Alert alert = new Alert(Alert.AlertType.ERROR);
             alert.setTitle("Error");
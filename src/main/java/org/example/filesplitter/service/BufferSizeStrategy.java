@@ -0,0 +1,16 @@
+package org.example.filesplitter.service;
+
+import java.nio.file.Path;
+
+public interface BufferSizeStrategy {
+
+    /**
+     * Pick the size of the I/O buffer for a split.
+     *
+     * @param dest      The destination directory.
+     * @param chunkSize The chunk size in bytes (size of each split).
+     * @return The buffer size in bytes, greater than 0.
+     */
+    int bufferSize(Path dest, long chunkSize);
+
+}
@@ -0,0 +1,65 @@
+package org.example.filesplitter.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * Where the chunks of one split go: a directory, memory, an archive or an
+ * object store. Each chunk is streamed to its own {@link OutputStream} and is
+ * complete once that stream is closed. The streams of different chunks may
+ * be written from different threads at the same time; a sink that can only
+ * take one chunk at a time makes {@link #open} wait.
+ * <p>
+ * A chunk that a failed or interrupted split doesn't finish is passed to
+ * {@link #abandon} instead of being closed.
+ */
+public interface ChunkSink extends Closeable {
+
+    /**
+     * Start a chunk.
+     *
+     * @param name The name of the chunk, like 20240101T120000000000000_split_1.
+     * @return The stream to write the chunk to, closed to complete it.
+     * @throws IOException If the chunk can't be started.
+     */
+    OutputStream open(String name) throws IOException;
+
+    /**
+     * Give up a chunk that won't be finished, releasing its stream. By
+     * default it is closed, keeping what was written like a truncated chunk
+     * file; a sink that can discard it does.
+     *
+     * @param chunk A stream returned by {@link #open}, not closed yet or
+     *              whose close failed.
+     * @throws IOException If the chunk can't be released.
+     */
+    default void abandon(OutputStream chunk) throws IOException {
+        chunk.close();
+    }
+
+    /**
+     * End the split, once every chunk is closed or abandoned.
+     *
+     * @throws IOException If the target can't be finished.
+     */
+    @Override
+    void close() throws IOException;
+
+    /**
+     * Creates the sink of every split.
+     */
+    @FunctionalInterface
+    interface Factory {
+
+        /**
+         * @param dest   The destination of the split, which the sink may
+         *               ignore.
+         * @param prefix The prefix shared by all the chunks of the split.
+         * @return The sink of the split.
+         * @throws IOException If the sink can't be created.
+         */
+        ChunkSink create(Path dest, String prefix) throws IOException;
+    }
+}
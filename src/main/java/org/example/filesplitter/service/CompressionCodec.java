@@ -0,0 +1,25 @@
+package org.example.filesplitter.service;
+
+import java.io.IOException;
+
+public interface CompressionCodec {
+
+    /**
+     * @return The extension of the compressed chunk files, like ".gz".
+     */
+    String extension();
+
+    /**
+     * Compress a block into a self-contained frame. Frames must decompress
+     * to the concatenation of their blocks when they're concatenated, so a
+     * chunk made of several frames is a valid compressed file on its own.
+     * Called from several threads at the same time.
+     *
+     * @param block  The buffer holding the block.
+     * @param length The length of the block.
+     * @return The compressed frame.
+     * @throws IOException If the block can't be compressed.
+     */
+    byte[] compress(byte[] block, int length) throws IOException;
+
+}
@@ -0,0 +1,26 @@
+package org.example.filesplitter.service;
+
+public interface Digest {
+
+    /**
+     * @return The name of the algorithm, as written in manifests.
+     */
+    String algorithm();
+
+    /**
+     * Feed bytes to the digest.
+     *
+     * @param buffer The buffer holding the bytes.
+     * @param offset The index of the first byte.
+     * @param length The number of bytes.
+     */
+    void update(byte[] buffer, int offset, int length);
+
+    /**
+     * Finish the digest and reset it for the next input.
+     *
+     * @return The digest of everything fed so far, in lowercase hex.
+     */
+    String digest();
+
+}
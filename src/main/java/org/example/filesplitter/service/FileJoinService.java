@@ -0,0 +1,43 @@
+package org.example.filesplitter.service;
+
+import org.example.filesplitter.exception.JoinException;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public interface FileJoinService {
+
+    /**
+     * Find the parts of a split run.
+     *
+     * @param dir    The directory holding the parts.
+     * @param prefix The prefix shared by the parts of the run, like
+     *               uuuuMMdd'T'HHmmssSSSSSSSSS.
+     * @return The parts, ordered by part number.
+     */
+    List<Path> parts(Path dir, String prefix) throws JoinException;
+
+    /**
+     * Join the parts of a split run back into one file.
+     *
+     * @param dir         The directory holding the parts.
+     * @param prefix      The prefix shared by the parts of the run.
+     * @param target      The file to create, replaced if it exists. It's
+     *                    deleted if the join fails or is interrupted.
+     * @param interrupted A flag for interrupting from outside the method.
+     */
+    void join(Path dir, String prefix, Path target, AtomicBoolean interrupted)
+            throws JoinException;
+
+    /**
+     * Check the parts of a split run against the checksums in its manifest.
+     *
+     * @param dir    The directory holding the parts.
+     * @param prefix The prefix shared by the parts of the run.
+     * @throws JoinException If there's no manifest, or a part or the whole
+     *                       file doesn't match it.
+     */
+    void verify(Path dir, String prefix) throws JoinException;
+
+}
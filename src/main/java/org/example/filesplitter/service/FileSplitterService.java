@@ -2,6 +2,12 @@ package org.example.filesplitter.service;
 
 import org.example.filesplitter.exception.SplitException;
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -13,7 +19,80 @@ public interface FileSplitterService {
      * @param chunkSize   The chunk size in bytes (size of each split).
      * @param interrupted A flag for interrupting from outside the method.
      */
-    void split(Path src, Path dest, int chunkSize, AtomicBoolean interrupted)
+    void split(Path src, Path dest, long chunkSize, AtomicBoolean interrupted)
             throws SplitException;
 
+    /**
+     * Split like {@link #split(Path, Path, long, AtomicBoolean)}, reporting
+     * the progress to a listener. Engines that don't track their progress
+     * report once, when the split is complete, with the chunk number of the
+     * last fixed-size chunk.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @param listener    Receives the progress, may be null.
+     */
+    default void split(Path src, Path dest, long chunkSize,
+                       AtomicBoolean interrupted, ProgressListener listener)
+            throws SplitException {
+        final long start = System.nanoTime();
+        split(src, dest, chunkSize, interrupted);
+        if (listener == null || interrupted.get()) {
+            return;
+        }
+        final long size;
+        try {
+            size = Files.size(src);
+        } catch (IOException e) {
+            throw new SplitException(e);
+        }
+        double rate = size * 1e9 / Math.max(1, System.nanoTime() - start);
+        listener.progress(new SplitProgress(size, size,
+                Math.max(1, (size + chunkSize - 1) / chunkSize), rate, rate));
+    }
+
+    /**
+     * Split a stream of unknown length, like the output of a command, a
+     * named pipe or the standard input, read once from start to end with
+     * bounded memory. By default the engine needs a regular file and this
+     * fails.
+     *
+     * @param src         The stream to split, in blocking mode. It isn't
+     *                    closed.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @throws SplitException
+     */
+    default void splitStream(ReadableByteChannel src, Path dest,
+                             long chunkSize, AtomicBoolean interrupted)
+            throws SplitException {
+        throw new SplitException(new UnsupportedOperationException(
+                getClass().getSimpleName() + " needs a regular file"));
+    }
+
+    /**
+     * Split a stream like
+     * {@link #splitStream(ReadableByteChannel, Path, long, AtomicBoolean)}.
+     * The
+     * channel of a {@link FileInputStream} is read directly; other streams
+     * are read through a channel that copies a few KiB at a time.
+     *
+     * @param src         The stream to split. It isn't closed.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @throws SplitException
+     */
+    default void splitStream(InputStream src, Path dest, long chunkSize,
+                             AtomicBoolean interrupted)
+            throws SplitException {
+        splitStream(src instanceof FileInputStream
+                        ? ((FileInputStream) src).getChannel()
+                        : Channels.newChannel(src),
+                dest, chunkSize, interrupted);
+    }
+
 }
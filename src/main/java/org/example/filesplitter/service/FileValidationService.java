@@ -8,10 +8,21 @@ public interface FileValidationService {
      * Is this path a valid source file?
      *
      * @param path The path to check.
-     * @return true if the source is a file and exists, false otherwise.
+     * @return true if the source is a regular file and exists, false
+     * otherwise, for a stream too; see {@link #streamSrc(Path)}.
      */
     boolean validSrc(Path path);
 
+    /**
+     * Is this source a stream, read once from start to end, rather than a
+     * regular file?
+     *
+     * @param path The path to check.
+     * @return true if the source is a readable named pipe or device, like
+     * /dev/stdin, false otherwise.
+     */
+    boolean streamSrc(Path path);
+
     /**
      * Is this path a valid destination directory?
      *
@@ -26,5 +37,5 @@ public interface FileValidationService {
      * @param chunkSize The chunk size to check.
      * @return true if it's greater than 0, false otherwise.
      */
-    boolean validChunkSize(int chunkSize);
+    boolean validChunkSize(long chunkSize);
 }
@@ -0,0 +1,22 @@
+package org.example.filesplitter.service;
+
+import org.example.filesplitter.exception.SplitException;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public interface LineSplitterService {
+
+    /**
+     * Split a file into parts with the same number of lines, like split -l.
+     *
+     * @param src          The path, corresponding to a file to split.
+     * @param dest         The destination directory.
+     * @param linesPerPart The number of lines in each part. The last part
+     *                     may have fewer.
+     * @param interrupted  A flag for interrupting from outside the method.
+     */
+    void splitLines(Path src, Path dest, long linesPerPart,
+                    AtomicBoolean interrupted) throws SplitException;
+
+}
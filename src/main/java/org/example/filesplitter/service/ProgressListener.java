@@ -0,0 +1,13 @@
+package org.example.filesplitter.service;
+
+public interface ProgressListener {
+
+    /**
+     * Receive the progress of a split. Called from the splitting thread, or
+     * one of them, a few times per second at most and once at the end.
+     *
+     * @param progress The progress so far.
+     */
+    void progress(SplitProgress progress);
+
+}
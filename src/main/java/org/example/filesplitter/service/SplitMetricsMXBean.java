@@ -0,0 +1,62 @@
+package org.example.filesplitter.service;
+
+public interface SplitMetricsMXBean {
+
+    /**
+     * @return The number of completed splits.
+     */
+    long getRuns();
+
+    /**
+     * @return The number of bytes read from the sources.
+     */
+    long getBytesRead();
+
+    /**
+     * @return The number of bytes written to the chunks.
+     */
+    long getBytesWritten();
+
+    /**
+     * @return The number of chunks written.
+     */
+    long getChunks();
+
+    /**
+     * @return The time spent reading, in nanoseconds.
+     */
+    long getReadNanos();
+
+    /**
+     * @return The time spent writing, in nanoseconds.
+     */
+    long getWriteNanos();
+
+    /**
+     * @return The time spent opening and closing chunk files, in
+     * nanoseconds.
+     */
+    long getOpenCloseNanos();
+
+    /**
+     * @return The number of reads, writes, opens and closes by latency: the
+     * count at index k took from 2^k to 2^(k+1) - 1 nanoseconds.
+     */
+    long[] getLatencyHistogram();
+
+    /**
+     * @return The metrics of the last completed split, as JSON.
+     */
+    String getLastRun();
+
+    /**
+     * @return All the metrics, as JSON.
+     */
+    String toJson();
+
+    /**
+     * Set every metric back to zero.
+     */
+    void reset();
+
+}
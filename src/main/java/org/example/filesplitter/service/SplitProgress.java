@@ -0,0 +1,125 @@
+package org.example.filesplitter.service;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * A snapshot of the progress of a split.
+ */
+public final class SplitProgress {
+
+    /**
+     * The number of bytes in a megabyte, for the rates.
+     */
+    private static final double MEGABYTE = 1_000_000d;
+
+    /**
+     * The number of bytes split so far.
+     */
+    private final long bytesDone;
+
+    /**
+     * The size of the source.
+     */
+    private final long totalBytes;
+
+    /**
+     * The number of the chunk being written.
+     */
+    private final long chunk;
+
+    /**
+     * The rate since the previous snapshot, in bytes per second.
+     */
+    private final double instantRate;
+
+    /**
+     * The rate since the start, in bytes per second.
+     */
+    private final double averageRate;
+
+    /**
+     * Create a snapshot.
+     *
+     * @param bytesDone   The number of bytes split so far.
+     * @param totalBytes  The size of the source.
+     * @param chunk       The number of the chunk being written.
+     * @param instantRate The rate since the previous snapshot, in bytes per
+     *                    second.
+     * @param averageRate The rate since the start, in bytes per second.
+     */
+    public SplitProgress(final long bytesDone, final long totalBytes,
+                         final long chunk, final double instantRate,
+                         final double averageRate) {
+        this.bytesDone = bytesDone;
+        this.totalBytes = totalBytes;
+        this.chunk = chunk;
+        this.instantRate = instantRate;
+        this.averageRate = averageRate;
+    }
+
+    /**
+     * @return The number of bytes split so far.
+     */
+    public long bytesDone() {
+        return bytesDone;
+    }
+
+    /**
+     * @return The size of the source.
+     */
+    public long totalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return The number of the chunk being written, starting from 1.
+     */
+    public long chunk() {
+        return chunk;
+    }
+
+    /**
+     * @return The rate since the previous snapshot, in MB/s.
+     */
+    public double instantMegabytesPerSecond() {
+        return instantRate / MEGABYTE;
+    }
+
+    /**
+     * @return The rate since the start, in MB/s.
+     */
+    public double averageMegabytesPerSecond() {
+        return averageRate / MEGABYTE;
+    }
+
+    /**
+     * @return The time left at the average rate, or null before anything
+     * has been split.
+     */
+    public Duration eta() {
+        if (averageRate <= 0) {
+            return bytesDone >= totalBytes ? Duration.ZERO : null;
+        }
+        return Duration.ofMillis(
+                (long) ((totalBytes - bytesDone) * 1000 / averageRate));
+    }
+
+    /**
+     * @return The progress, like "42% 1260.0 of 3000.0 MB, chunk 5,
+     * 812.3 MB/s (avg 790.1 MB/s), ETA 0:00:02".
+     */
+    @Override
+    public String toString() {
+        Duration eta = eta();
+        return String.format(Locale.ROOT,
+                "%d%% %.1f of %.1f MB, chunk %d, %.1f MB/s (avg %.1f MB/s),"
+                        + " ETA %s",
+                totalBytes == 0 ? 100 : bytesDone * 100 / totalBytes,
+                bytesDone / MEGABYTE, totalBytes / MEGABYTE, chunk,
+                instantMegabytesPerSecond(), averageMegabytesPerSecond(),
+                eta == null ? "-" : String.format(Locale.ROOT, "%d:%02d:%02d",
+                        eta.toHours(), eta.toMinutesPart(),
+                        eta.toSecondsPart()));
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.service.BufferSizeStrategy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class AdaptiveBufferSizeStrategy implements BufferSizeStrategy {
+
+    /**
+     * The buffer size aimed for when there's no calibration: large enough to
+     * amortize the cost of each read and write on SSDs and network file
+     * systems.
+     */
+    public static final int DEFAULT_TARGET_SIZE = 1024 * 1024;
+
+    /**
+     * The block size assumed when the file store doesn't report one.
+     */
+    private static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    /**
+     * A simple text logger, nothing fancy.
+     */
+    private static final Logger LOGGER =
+            Logger.getLogger(AdaptiveBufferSizeStrategy.class.getName());
+
+    /**
+     * The max number of bytes a buffer may take.
+     */
+    private final long memoryBudget;
+
+    /**
+     * Measures the best size per destination store, null to always aim for
+     * {@link #DEFAULT_TARGET_SIZE}.
+     */
+    private final BufferCalibrator calibrator;
+
+    /**
+     * Create the strategy with the specified memory budget and no calibration.
+     *
+     * @param memoryBudget The max number of bytes a buffer may take.
+     */
+    public AdaptiveBufferSizeStrategy(final long memoryBudget) {
+        this(memoryBudget, null);
+    }
+
+    /**
+     * Create the strategy with the specified memory budget, calibrating the
+     * size for each destination store.
+     *
+     * @param memoryBudget The max number of bytes a buffer may take.
+     * @param calibrator   Measures the best size for a store, may be null.
+     */
+    public AdaptiveBufferSizeStrategy(final long memoryBudget,
+                                      final BufferCalibrator calibrator) {
+        if (memoryBudget <= 0) {
+            throw new IllegalStateException(
+                    "Memory budget not valid: " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+        this.calibrator = calibrator;
+    }
+
+    /**
+     * Aim for the calibrated (or default) size, rounded to a multiple of the
+     * block size of the destination store and kept within the memory budget.
+     * A buffer is never larger than a chunk.
+     *
+     * @param dest      The destination directory.
+     * @param chunkSize The chunk size in bytes (size of each split).
+     * @return The buffer size in bytes.
+     */
+    @Override
+    public int bufferSize(final Path dest, final long chunkSize) {
+        long blockSize = blockSize(dest);
+        long target = calibrator == null
+                ? DEFAULT_TARGET_SIZE : calibrator.calibrate(dest);
+        long size = Math.max(blockSize, target / blockSize * blockSize);
+        if (size > memoryBudget) {
+            size = Math.max(blockSize, memoryBudget / blockSize * blockSize);
+        }
+        size = Math.min(size, Math.min(chunkSize, Integer.MAX_VALUE - 8));
+        return (int) Math.max(1, size);
+    }
+
+    /**
+     * @param dest The destination directory.
+     * @return The block size of the store holding the directory.
+     */
+    static long blockSize(final Path dest) {
+        try {
+            long blockSize = Files.getFileStore(dest).getBlockSize();
+            if (blockSize > 0) {
+                return blockSize;
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            LOGGER.log(Level.FINE, "[buffer] no block size for " + dest, e);
+        }
+        return DEFAULT_BLOCK_SIZE;
+    }
+}
@@ -0,0 +1,332 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.FileSplitterService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class AsyncFileSplitterServiceImpl implements FileSplitterService {
+
+    /**
+     * The number of bytes moved by each read and write.
+     */
+    private final int blockSize;
+
+    /**
+     * The max number of blocks being read or written at the same time.
+     */
+    private final int maxInFlight;
+
+    /**
+     * Create the service with the specified block size and queue depth.
+     *
+     * @param blockSize   The number of bytes moved by each read and write.
+     * @param maxInFlight The max number of blocks being read or written at
+     *                    the same time.
+     */
+    public AsyncFileSplitterServiceImpl(final int blockSize,
+                                        final int maxInFlight) {
+        if (blockSize <= 0) {
+            throw new IllegalStateException(
+                    "Block size not valid: " + blockSize);
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalStateException(
+                    "Max in flight not valid: " + maxInFlight);
+        }
+        this.blockSize = blockSize;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Split the file with asynchronous positional reads and writes. This
+     * thread only issues the blocks, in order, each one a read from the
+     * source followed by a write to its chunk file, both completing through
+     * a handler. Up to {@link #maxInFlight} blocks are in flight, each with
+     * its own direct buffer allocated once per split, so the devices see a
+     * deep queue without a thread per operation. When the interrupted flag
+     * is set no more blocks are issued, and the split returns once the
+     * blocks in flight complete. The chunks are named like
+     * {@link FileSplitterServiceImpl} names them.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @throws SplitException
+     */
+    @Override
+    public void split(final Path src, final Path dest, final long chunkSize,
+                      final AtomicBoolean interrupted) throws SplitException {
+        Run run = new Run();
+        try (AsynchronousFileChannel in = AsynchronousFileChannel.open(src,
+                StandardOpenOption.READ)) {
+            try {
+                String start = ChunkNames.prefix();
+                for (ChunkRange range : ChunkRange.of(in.size(), chunkSize)) {
+                    if (interrupted.get() || run.error.get() != null) {
+                        break;
+                    }
+                    issue(in, dest, start, range, run, interrupted);
+                }
+            } finally {
+                // the blocks in flight still use the channels
+                run.permits.acquireUninterruptibly(maxInFlight);
+                run.closeAll();
+            }
+            Throwable error = run.error.get();
+            if (error != null) {
+                throw error instanceof Exception
+                        ? (Exception) error : new IOException(error);
+            }
+        } catch (Exception e) {
+            throw new SplitException(e);
+        }
+    }
+
+    /**
+     * Open a chunk file and issue the blocks of the chunk.
+     *
+     * @param in          The source channel.
+     * @param dest        The destination directory.
+     * @param prefix      The prefix shared by all the chunks of the split.
+     * @param range       The chunk to issue.
+     * @param run         The state of the split.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @throws IOException          If the chunk file can't be created.
+     * @throws InterruptedException If the thread is interrupted while
+     *                              waiting for a block to complete.
+     */
+    private void issue(final AsynchronousFileChannel in, final Path dest,
+                       final String prefix, final ChunkRange range,
+                       final Run run, final AtomicBoolean interrupted)
+            throws IOException, InterruptedException {
+        ChunkFile file = new ChunkFile(AsynchronousFileChannel.open(
+                dest.resolve(ChunkNames.name(prefix, range.count())),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE), range.length());
+        run.open.add(file);
+        for (long done = 0; done < range.length(); done += blockSize) {
+            if (interrupted.get() || run.error.get() != null) {
+                return;
+            }
+            run.permits.acquire();
+            Block block = run.free.poll();
+            if (block == null) {
+                block = new Block(run, ByteBuffer.allocateDirect(blockSize));
+            }
+            block.start(in, file, range.offset() + done, done,
+                    (int) Math.min(blockSize, range.length() - done));
+        }
+    }
+
+    /**
+     * The state of a split, shared with the completion handlers.
+     */
+    private final class Run {
+
+        /**
+         * One permit per block that may be in flight.
+         */
+        private final Semaphore permits = new Semaphore(maxInFlight);
+
+        /**
+         * The blocks that completed, with their buffers, ready for reuse.
+         */
+        private final Queue<Block> free = new ConcurrentLinkedQueue<>();
+
+        /**
+         * The chunk files not closed yet.
+         */
+        private final Set<ChunkFile> open = ConcurrentHashMap.newKeySet();
+
+        /**
+         * The first failure, which stops issuing blocks.
+         */
+        private final AtomicReference<Throwable> error =
+                new AtomicReference<>();
+
+        /**
+         * Close the chunk files left open by a failure or an interruption.
+         */
+        void closeAll() {
+            for (ChunkFile file : open) {
+                try {
+                    file.channel.close();
+                } catch (IOException e) {
+                    error.compareAndSet(null, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * A block being read from the source and then written to its chunk
+     * file. It's its own completion handler, and reused for the next block
+     * once complete.
+     */
+    private static final class Block
+            implements CompletionHandler<Integer, Void> {
+
+        /**
+         * The state of the split.
+         */
+        private final Run run;
+
+        /**
+         * The buffer of the block.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * The source channel.
+         */
+        private AsynchronousFileChannel in;
+
+        /**
+         * The chunk file of the block.
+         */
+        private ChunkFile file;
+
+        /**
+         * The position of the block in the source.
+         */
+        private long srcPosition;
+
+        /**
+         * The position of the block in the chunk file.
+         */
+        private long destPosition;
+
+        /**
+         * Whether the block is being written, so it's been read.
+         */
+        private boolean writing;
+
+        Block(final Run run, final ByteBuffer buffer) {
+            this.run = run;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Start reading the block.
+         *
+         * @param source     The source channel.
+         * @param chunk      The chunk file of the block.
+         * @param srcOffset  The position of the block in the source.
+         * @param destOffset The position of the block in the chunk file.
+         * @param length     The length of the block.
+         */
+        void start(final AsynchronousFileChannel source,
+                   final ChunkFile chunk, final long srcOffset,
+                   final long destOffset, final int length) {
+            this.in = source;
+            this.file = chunk;
+            this.srcPosition = srcOffset;
+            this.destPosition = destOffset;
+            this.writing = false;
+            buffer.clear();
+            buffer.limit(length);
+            try {
+                in.read(buffer, srcPosition, null, this);
+            } catch (RuntimeException e) {
+                failed(e, null);
+            }
+        }
+
+        /**
+         * Continue a short read or write, start the write once read, and
+         * close the chunk file after its last block is written.
+         *
+         * @param result     The number of bytes read or written.
+         * @param attachment Not used.
+         */
+        @Override
+        public void completed(final Integer result, final Void attachment) {
+            try {
+                if (!writing) {
+                    if (result < 0) {
+                        throw new IOException("Source truncated at offset "
+                                + (srcPosition + buffer.position()));
+                    }
+                    if (buffer.hasRemaining()) {
+                        in.read(buffer, srcPosition + buffer.position(),
+                                null, this);
+                        return;
+                    }
+                    buffer.flip();
+                    writing = true;
+                }
+                if (buffer.hasRemaining()) {
+                    file.channel.write(buffer,
+                            destPosition + buffer.position(), null, this);
+                    return;
+                }
+                if (file.left.addAndGet(-buffer.limit()) == 0) {
+                    run.open.remove(file);
+                    file.channel.close();
+                }
+                done();
+            } catch (IOException | RuntimeException e) {
+                failed(e, null);
+            }
+        }
+
+        /**
+         * Record the failure and complete the block.
+         *
+         * @param e          The failure.
+         * @param attachment Not used.
+         */
+        @Override
+        public void failed(final Throwable e, final Void attachment) {
+            run.error.compareAndSet(null, e);
+            done();
+        }
+
+        /**
+         * Hand the block back for reuse and let the next one be issued.
+         */
+        private void done() {
+            in = null;
+            file = null;
+            run.free.add(this);
+            run.permits.release();
+        }
+    }
+
+    /**
+     * A chunk file shared by its blocks until all of them are written.
+     */
+    private static final class ChunkFile {
+
+        /**
+         * The chunk file channel.
+         */
+        private final AsynchronousFileChannel channel;
+
+        /**
+         * The number of bytes of the chunk not written yet.
+         */
+        private final AtomicLong left;
+
+        ChunkFile(final AsynchronousFileChannel channel, final long length) {
+            this.channel = channel;
+            this.left = new AtomicLong(length);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package org.example.filesplitter.service.impl;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Signs requests with AWS Signature Version 4, which S3 and the
+ * S3-compatible stores (MinIO, Ceph, R2...) accept. The signed headers are
+ * host, x-amz-content-sha256 and x-amz-date; the query parameters of the URI
+ * must already be encoded with {@link #encode}.
+ */
+final class AwsSigner {
+
+    /**
+     * The signing algorithm.
+     */
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+
+    /**
+     * The headers covered by the signature, sorted.
+     */
+    private static final String SIGNED_HEADERS =
+            "host;x-amz-content-sha256;x-amz-date";
+
+    /**
+     * The time of a request, like 20130524T000000Z.
+     */
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter
+            .ofPattern("uuuuMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    /**
+     * The hexadecimal digits.
+     */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * The access key id.
+     */
+    private final String accessKey;
+
+    /**
+     * The secret access key.
+     */
+    private final String secretKey;
+
+    /**
+     * The region, like us-east-1.
+     */
+    private final String region;
+
+    /**
+     * The service, like s3.
+     */
+    private final String service;
+
+    /**
+     * @param accessKey The access key id.
+     * @param secretKey The secret access key.
+     * @param region    The region, like us-east-1.
+     * @param service   The service, like s3.
+     */
+    AwsSigner(final String accessKey, final String secretKey,
+              final String region, final String service) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+        this.service = service;
+    }
+
+    /**
+     * Sign a request.
+     *
+     * @param method      The HTTP method.
+     * @param uri         The URI of the request, already encoded.
+     * @param payloadHash The SHA-256 of the body, see {@link #sha256}.
+     * @param time        The time of the request.
+     * @return The headers to send: x-amz-date, x-amz-content-sha256 and
+     * Authorization.
+     */
+    Map<String, String> sign(final String method, final URI uri,
+                             final String payloadHash, final Instant time) {
+        String amzDate = TIME_FORMAT.format(time);
+        String scope = amzDate.substring(0, 8) + "/" + region + "/"
+                + service + "/aws4_request";
+        String canonical = method + "\n"
+                + (uri.getRawPath().isEmpty() ? "/" : uri.getRawPath()) + "\n"
+                + canonicalQuery(uri.getRawQuery()) + "\n"
+                + "host:" + host(uri) + "\n"
+                + "x-amz-content-sha256:" + payloadHash + "\n"
+                + "x-amz-date:" + amzDate + "\n"
+                + "\n"
+                + SIGNED_HEADERS + "\n"
+                + payloadHash;
+        String toSign = ALGORITHM + "\n" + amzDate + "\n" + scope + "\n"
+                + sha256(canonical.getBytes(StandardCharsets.UTF_8));
+        byte[] key = signingKey(amzDate.substring(0, 8));
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("x-amz-date", amzDate);
+        headers.put("x-amz-content-sha256", payloadHash);
+        headers.put("Authorization", ALGORITHM
+                + " Credential=" + accessKey + "/" + scope
+                + ", SignedHeaders=" + SIGNED_HEADERS
+                + ", Signature=" + hex(hmac(key, toSign)));
+        return headers;
+    }
+
+    /**
+     * Derive the key that signs the requests of a day.
+     *
+     * @param date The day, like 20130524.
+     * @return The signing key.
+     */
+    byte[] signingKey(final String date) {
+        byte[] key = hmac(("AWS4" + secretKey)
+                .getBytes(StandardCharsets.UTF_8), date);
+        key = hmac(key, region);
+        key = hmac(key, service);
+        return hmac(key, "aws4_request");
+    }
+
+    /**
+     * The query parameters sorted by name then value, each with an equals
+     * sign even when its value is empty.
+     *
+     * @param query The encoded query, may be null.
+     * @return The canonical query.
+     */
+    private static String canonicalQuery(final String query) {
+        if (query == null || query.isEmpty()) {
+            return "";
+        }
+        String[] params = query.split("&");
+        for (int i = 0; i < params.length; i++) {
+            if (params[i].indexOf('=') < 0) {
+                params[i] += "=";
+            }
+        }
+        Arrays.sort(params);
+        return String.join("&", params);
+    }
+
+    /**
+     * The Host header sent by the HTTP client, with the port unless it's the
+     * default one of the scheme.
+     *
+     * @param uri The URI of the request.
+     * @return The host.
+     */
+    private static String host(final URI uri) {
+        int port = uri.getPort();
+        boolean defaultPort = port == -1
+                || port == 80 && "http".equalsIgnoreCase(uri.getScheme())
+                || port == 443 && "https".equalsIgnoreCase(uri.getScheme());
+        return defaultPort ? uri.getHost() : uri.getHost() + ":" + port;
+    }
+
+    /**
+     * Encode a path segment or a query parameter the way the signature
+     * expects: everything but letters, digits and -._~ is percent-encoded.
+     *
+     * @param value The value to encode.
+     * @param slash Whether to keep the slashes, for a key.
+     * @return The encoded value.
+     */
+    static String encode(final String value, final boolean slash) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if (c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z'
+                    || c >= '0' && c <= '9' || c == '-' || c == '.'
+                    || c == '_' || c == '~' || c == '/' && slash) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(Character.toUpperCase(HEX[c >> 4]))
+                        .append(Character.toUpperCase(HEX[c & 0xf]));
+            }
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * @param bytes The bytes to hash.
+     * @return The SHA-256 of the bytes, in hexadecimal.
+     */
+    static String sha256(final byte[] bytes) {
+        return sha256(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @param bytes  The buffer of the bytes to hash.
+     * @param offset The position of the first byte.
+     * @param length The number of bytes.
+     * @return The SHA-256 of the bytes, in hexadecimal.
+     */
+    static String sha256(final byte[] bytes, final int offset,
+                         final int length) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(bytes, offset, length);
+            return hex(digest.digest());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e); // every JDK has SHA-256
+        }
+    }
+
+    /**
+     * @param key  The key.
+     * @param data The data to sign.
+     * @return The HMAC-SHA256 of the data.
+     */
+    private static byte[] hmac(final byte[] key, final String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e); // every JDK has HmacSHA256
+        }
+    }
+
+    /**
+     * @param bytes The bytes.
+     * @return The bytes in lowercase hexadecimal.
+     */
+    static String hex(final byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX[(bytes[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.filesplitter.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures the write throughput of a destination store with a few candidate
+ * buffer sizes and remembers the fastest one for each store.
+ */
+public class BufferCalibrator {
+
+    /**
+     * The candidate sizes used by {@link #BufferCalibrator()}.
+     */
+    public static final List<Integer> DEFAULT_CANDIDATES = List.of(
+            64 * 1024, 256 * 1024, 1024 * 1024, 4 * 1024 * 1024);
+
+    /**
+     * The bytes written per candidate by {@link #BufferCalibrator()}.
+     */
+    public static final long DEFAULT_SAMPLE_SIZE = 32L * 1024 * 1024;
+
+    /**
+     * A simple text logger, nothing fancy.
+     */
+    private static final Logger LOGGER =
+            Logger.getLogger(BufferCalibrator.class.getName());
+
+    /**
+     * The buffer sizes to measure.
+     */
+    private final List<Integer> candidates;
+
+    /**
+     * The bytes written with each candidate.
+     */
+    private final long sampleSize;
+
+    /**
+     * The best size found so far for each store.
+     */
+    private final Map<FileStore, Integer> best = new ConcurrentHashMap<>();
+
+    /**
+     * Create a calibrator with the default candidates and sample size.
+     */
+    public BufferCalibrator() {
+        this(DEFAULT_CANDIDATES, DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * Create a calibrator with the specified candidates and sample size.
+     *
+     * @param candidates The buffer sizes to measure.
+     * @param sampleSize The bytes written with each candidate.
+     */
+    public BufferCalibrator(final List<Integer> candidates,
+                            final long sampleSize) {
+        if (candidates.isEmpty() || sampleSize <= 0) {
+            throw new IllegalStateException("Calibration not valid: "
+                    + candidates + ", sample size " + sampleSize);
+        }
+        this.candidates = List.copyOf(candidates);
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Get the fastest buffer size for the store holding the directory,
+     * measuring it the first time the store is seen. If the measurement
+     * fails the first candidate is returned, without remembering it.
+     *
+     * @param dest The destination directory.
+     * @return The fastest of the candidate sizes.
+     */
+    public int calibrate(final Path dest) {
+        FileStore store;
+        try {
+            store = Files.getFileStore(dest);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "[calibrate] no store for " + dest, e);
+            return candidates.get(0);
+        }
+        return best.computeIfAbsent(store, s -> measure(dest));
+    }
+
+    /**
+     * Write a sample with each candidate size and keep the fastest.
+     *
+     * @param dest The destination directory.
+     * @return The fastest candidate size.
+     */
+    private int measure(final Path dest) {
+        int fastest = candidates.get(0);
+        long fastestNanos = Long.MAX_VALUE;
+        Path sample = null;
+        try {
+            sample = Files.createTempFile(dest, ".calibrate", ".tmp");
+            for (int candidate : candidates) {
+                long nanos = write(sample, candidate);
+                LOGGER.log(Level.FINE, "[calibrate] " + candidate
+                        + " bytes: " + nanos + " ns");
+                if (nanos < fastestNanos) {
+                    fastest = candidate;
+                    fastestNanos = nanos;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "[calibrate] failed for " + dest, e);
+        } finally {
+            deleteQuietly(sample);
+        }
+        return fastest;
+    }
+
+    /**
+     * Write {@link #sampleSize} bytes to the file, including the flush to
+     * the device.
+     *
+     * @param sample     The file to write.
+     * @param bufferSize The size of each write.
+     * @return The time it took in nanoseconds.
+     * @throws IOException If the write fails.
+     */
+    private long write(final Path sample, final int bufferSize)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        long start = System.nanoTime();
+        try (FileChannel out = FileChannel.open(sample,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long written = 0; written < sampleSize;) {
+                buffer.clear();
+                buffer.limit((int) Math.min(bufferSize, sampleSize - written));
+                written += out.write(buffer);
+            }
+            out.force(false);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * @param sample The sample file to delete, may be null.
+     */
+    private void deleteQuietly(final Path sample) {
+        if (sample == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(sample);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "[calibrate] can't delete " + sample, e);
+        }
+    }
+}
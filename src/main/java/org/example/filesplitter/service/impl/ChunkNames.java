@@ -0,0 +1,94 @@
+package org.example.filesplitter.service.impl;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The naming scheme of the chunk files, shared by all the split engines so
+ * they produce the same output.
+ */
+final class ChunkNames {
+
+    /**
+     * The format of the prefix shared by all the chunks of a split.
+     */
+    private static final DateTimeFormatter PREFIX_FORMAT =
+            DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmssSSSSSSSSS");
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * The time of the last prefix, in nanoseconds since the epoch.
+     */
+    private static final AtomicLong LAST_PREFIX = new AtomicLong();
+
+    /**
+     * Between the prefix and the chunk number.
+     */
+    private static final String SEPARATOR = "_split_";
+
+    private ChunkNames() {
+    }
+
+    /**
+     * The prefixes are unique within the JVM: a split starting within the
+     * clock resolution of the previous one gets the previous time plus one
+     * nanosecond, so concurrent splits into the same directory never share
+     * chunk names.
+     *
+     * @return A new prefix, like uuuuMMdd'T'HHmmssSSSSSSSSS, for the chunks of
+     * a split starting now.
+     */
+    static String prefix() {
+        Instant now = Instant.now();
+        long nanos = LAST_PREFIX.accumulateAndGet(
+                now.getEpochSecond() * NANOS_PER_SECOND + now.getNano(),
+                (last, time) -> Math.max(last + 1, time));
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(0, nanos),
+                ZoneId.systemDefault()).format(PREFIX_FORMAT);
+    }
+
+    /**
+     * @param prefix The prefix shared by all the chunks of the split.
+     * @param count  The chunk number, starting from 1.
+     * @return The chunk filename, like prefix_split_N.
+     */
+    static String name(final String prefix, final long count) {
+        return String.format("%s%s%d", prefix, SEPARATOR, count);
+    }
+
+    /**
+     * Get the chunk number from a chunk filename. The number may be followed
+     * by an extension, like prefix_split_N.gz.
+     *
+     * @param prefix   The prefix shared by all the chunks of the split.
+     * @param filename The filename to parse.
+     * @return The chunk number, or -1 if the file isn't a chunk of the split.
+     */
+    static long count(final String prefix, final String filename) {
+        String start = prefix + SEPARATOR;
+        if (!filename.startsWith(start)) {
+            return -1;
+        }
+        int end = start.length();
+        while (end < filename.length()
+                && Character.isDigit(filename.charAt(end))) {
+            end++;
+        }
+        if (end == start.length()
+                || (end < filename.length() && filename.charAt(end) != '.')) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(filename.substring(start.length(), end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
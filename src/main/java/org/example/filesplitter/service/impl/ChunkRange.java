@@ -0,0 +1,76 @@
+package org.example.filesplitter.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The position of one chunk in the source file. The contents of a chunk only
+ * depend on its range, so the ranges can be computed up front.
+ */
+final class ChunkRange {
+
+    /**
+     * The chunk number, starting from 1.
+     */
+    private final long count;
+
+    /**
+     * The position of the first byte of the chunk in the source.
+     */
+    private final long offset;
+
+    /**
+     * The number of bytes in the chunk.
+     */
+    private final long length;
+
+    /**
+     * @param count  The chunk number, starting from 1.
+     * @param offset The position of the chunk in the source.
+     * @param length The number of bytes in the chunk.
+     */
+    ChunkRange(final long count, final long offset, final long length) {
+        this.count = count;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Compute the ranges of all the chunks of a source. Every chunk is
+     * chunkSize bytes long, except the last one which may be shorter.
+     *
+     * @param size      The size of the source in bytes.
+     * @param chunkSize The chunk size in bytes.
+     * @return The ranges, ordered by chunk number.
+     */
+    static List<ChunkRange> of(final long size, final long chunkSize) {
+        List<ChunkRange> ranges = new ArrayList<>();
+        long count = 1;
+        for (long offset = 0; offset < size; offset += chunkSize, count++) {
+            ranges.add(new ChunkRange(count, offset,
+                    Math.min(chunkSize, size - offset)));
+        }
+        return ranges;
+    }
+
+    /**
+     * @return The chunk number, starting from 1.
+     */
+    long count() {
+        return count;
+    }
+
+    /**
+     * @return The position of the first byte of the chunk in the source.
+     */
+    long offset() {
+        return offset;
+    }
+
+    /**
+     * @return The number of bytes in the chunk.
+     */
+    long length() {
+        return length;
+    }
+}
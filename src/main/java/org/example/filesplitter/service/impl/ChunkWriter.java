@@ -0,0 +1,183 @@
+package org.example.filesplitter.service.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Writes the contents of a single chunk. The chunk file is opened once, when
+ * the writer is created, and stays open until the writer is closed at the
+ * chunk boundary.
+ * <p>
+ * Blocks of zeros, like the holes of a sparse VM image, are skipped rather
+ * than written, so they stay holes in the chunk. Nothing is preallocated:
+ * Java has no fallocate, and reserving the whole chunk would fill those
+ * holes. The file only grows as bytes are written, so a chunk cut short by
+ * a crash or a kill is shorter than a complete one, apart from the zeros it
+ * ends with.
+ */
+class ChunkWriter implements Closeable {
+
+    /**
+     * The size of the blocks checked for zeros, the usual filesystem block
+     * size. The blocks are aligned in the chunk file, and the zeros of a
+     * block are skipped even when the block spans several writes, so an
+     * all-zero block stays a hole whatever the buffer size.
+     */
+    static final int BLOCK_SIZE = 4096;
+
+    /**
+     * A block of zeros to compare with.
+     */
+    private static final byte[] ZEROS = new byte[BLOCK_SIZE];
+
+    /**
+     * The chunk file.
+     */
+    private final Path file;
+
+    /**
+     * The position of the chunk in the source.
+     */
+    private final long offset;
+
+    /**
+     * The chunk file, open for writing.
+     */
+    private final RandomAccessFile out;
+
+    /**
+     * The channel of {@link #out}, written at absolute positions.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The number of bytes written to the chunk so far, skipped zeros
+     * included.
+     */
+    private long written;
+
+    /**
+     * Open (or truncate) the chunk file for writing.
+     *
+     * @param file   The chunk file.
+     * @param offset The position of the chunk in the source.
+     * @throws IOException If the file can't be opened.
+     */
+    ChunkWriter(final Path file, final long offset) throws IOException {
+        this.file = file;
+        this.offset = offset;
+        this.out = new RandomAccessFile(file.toFile(), "rw");
+        this.channel = out.getChannel();
+        try {
+            out.setLength(0);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append the first bytes of the buffer to the chunk, skipping the blocks
+     * of zeros.
+     *
+     * @param buffer The buffer to write from.
+     * @param length The number of bytes to write.
+     * @throws IOException If the write fails.
+     */
+    void write(final byte[] buffer, final int length) throws IOException {
+        write(buffer, 0, length);
+    }
+
+    /**
+     * Append a part of the buffer to the chunk, skipping the parts of blocks
+     * that are all zeros. The file was empty, so what's skipped reads back as
+     * zeros.
+     *
+     * @param buffer The buffer to write from.
+     * @param start  The start of the part.
+     * @param length The number of bytes to write.
+     * @throws IOException If the write fails.
+     */
+    void write(final byte[] buffer, final int start, final int length)
+            throws IOException {
+        final int end = start + length;
+        // the position in the chunk of buffer[i] is base + i
+        final long base = written - start;
+        int pending = start; // the start of the bytes not written yet
+        int position = start;
+        while (position < end) {
+            int blockEnd = (int) Math.min(end, position + BLOCK_SIZE
+                    - (base + position) % BLOCK_SIZE);
+            if (Arrays.mismatch(buffer, position, blockEnd,
+                    ZEROS, 0, blockEnd - position) < 0) {
+                writeAt(buffer, pending, position - pending, base);
+                pending = blockEnd;
+            }
+            position = blockEnd;
+        }
+        writeAt(buffer, pending, end - pending, base);
+        written += length;
+    }
+
+    /**
+     * Write a part of the buffer at its position in the chunk file.
+     *
+     * @param buffer The buffer being written.
+     * @param start  The start of the part.
+     * @param length The length of the part.
+     * @param base   The position in the chunk of the start of the buffer.
+     * @throws IOException If the write fails.
+     */
+    private void writeAt(final byte[] buffer, final int start,
+                         final int length, final long base)
+            throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(buffer, start, length);
+        long position = base + start;
+        while (bytes.hasRemaining()) {
+            position += channel.write(bytes, position);
+        }
+    }
+
+    /**
+     * @return The chunk file.
+     */
+    Path file() {
+        return file;
+    }
+
+    /**
+     * @return The position of the chunk in the source.
+     */
+    long offset() {
+        return offset;
+    }
+
+    /**
+     * @return The number of bytes written to the chunk so far.
+     */
+    long written() {
+        return written;
+    }
+
+    /**
+     * Close the chunk file, first extending it over the zeros skipped at its
+     * end.
+     *
+     * @throws IOException If the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (out.length() != written) {
+                out.setLength(written);
+            }
+        } finally {
+            out.close();
+        }
+    }
+}
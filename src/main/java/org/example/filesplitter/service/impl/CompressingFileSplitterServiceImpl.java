@@ -0,0 +1,287 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.CompressionCodec;
+import org.example.filesplitter.service.FileSplitterService;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class CompressingFileSplitterServiceImpl
+        implements FileSplitterService {
+
+    /**
+     * What the chunk size applies to.
+     */
+    public enum Sizing {
+
+        /**
+         * Every chunk holds chunk size bytes of the source, compressed.
+         */
+        INPUT,
+
+        /**
+         * Every chunk is at most chunk size bytes once compressed. A single
+         * block that compresses to more than the chunk size gets a chunk of
+         * its own.
+         */
+        OUTPUT
+    }
+
+    /**
+     * Compresses the blocks.
+     */
+    private final CompressionCodec codec;
+
+    /**
+     * The max number of source bytes compressed as one block.
+     */
+    private final int blockSize;
+
+    /**
+     * The number of blocks compressed at the same time.
+     */
+    private final int parallelism;
+
+    /**
+     * What the chunk size applies to.
+     */
+    private final Sizing sizing;
+
+    /**
+     * Create the service with the specified codec and degree of parallelism.
+     *
+     * @param codec       Compresses the blocks.
+     * @param blockSize   The max number of source bytes compressed as one
+     *                    block.
+     * @param parallelism The number of blocks compressed at the same time.
+     * @param sizing      What the chunk size applies to.
+     */
+    public CompressingFileSplitterServiceImpl(final CompressionCodec codec,
+                                              final int blockSize,
+                                              final int parallelism,
+                                              final Sizing sizing) {
+        if (blockSize <= 0) {
+            throw new IllegalStateException(
+                    "Block size not valid: " + blockSize);
+        }
+        if (parallelism <= 0) {
+            throw new IllegalStateException(
+                    "Parallelism not valid: " + parallelism);
+        }
+        this.codec = codec;
+        this.blockSize = blockSize;
+        this.parallelism = parallelism;
+        this.sizing = sizing;
+    }
+
+    /**
+     * Split the file as a pipeline: this thread reads the source one block
+     * at a time, a pool of {@link #parallelism} threads compresses the
+     * blocks, and this thread writes the compressed blocks in source order
+     * to files named like uuuuMMdd'T'HHmmssSSSSSSSSS_split_N plus the codec
+     * extension. At most twice {@link #parallelism} blocks are in flight, so
+     * memory stays bounded and the reader waits for the writer. Every chunk
+     * is made of whole compressed blocks, so it decompresses on its own and
+     * the joined chunks decompress to the source.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes, see {@link Sizing}.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @throws SplitException
+     */
+    @Override
+    public void split(final Path src, final Path dest, final long chunkSize,
+                      final AtomicBoolean interrupted) throws SplitException {
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        final int maxPending = 2 * parallelism;
+        Deque<Future<Block>> pending = new ArrayDeque<>(maxPending);
+        Deque<byte[]> free = new ArrayDeque<>(maxPending);
+        try (InputStream is = new FileInputStream(src.toFile());
+             Output output = new Output(dest, ChunkNames.prefix(),
+                     codec.extension())) {
+            long chunkBytesLeft = chunkSize;
+            while (!interrupted.get()) {
+                int max = sizing == Sizing.INPUT
+                        ? (int) Math.min(blockSize, chunkBytesLeft)
+                        : blockSize;
+                byte[] input = free.isEmpty() ? new byte[blockSize]
+                        : free.poll();
+                int length = is.readNBytes(input, 0, max);
+                if (length <= 0) {
+                    break;
+                }
+                chunkBytesLeft -= length;
+                boolean endsChunk = sizing == Sizing.INPUT
+                        && chunkBytesLeft == 0;
+                if (endsChunk) {
+                    chunkBytesLeft = chunkSize;
+                }
+                pending.add(pool.submit(() -> new Block(input,
+                        codec.compress(input, length), endsChunk)));
+                if (pending.size() == maxPending) {
+                    write(pending.poll().get(), output, chunkSize, free);
+                }
+            }
+            while (!pending.isEmpty() && !interrupted.get()) {
+                write(pending.poll().get(), output, chunkSize, free);
+            }
+        } catch (ExecutionException e) {
+            throw new SplitException(e.getCause() instanceof Exception
+                    ? (Exception) e.getCause() : e);
+        } catch (Exception e) {
+            throw new SplitException(e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Append a compressed block to the current chunk, starting a new chunk
+     * first when sizing on the output and the block doesn't fit.
+     *
+     * @param block     The compressed block.
+     * @param output    The chunk files.
+     * @param chunkSize The chunk size in bytes.
+     * @param free      The buffers ready for reuse by the reader.
+     * @throws IOException If the block can't be written.
+     */
+    private void write(final Block block, final Output output,
+                       final long chunkSize, final Deque<byte[]> free)
+            throws IOException {
+        if (sizing == Sizing.OUTPUT && output.written() > 0
+                && output.written() + block.frame.length > chunkSize) {
+            output.endChunk();
+        }
+        output.write(block.frame);
+        if (block.endsChunk) {
+            output.endChunk();
+        }
+        free.push(block.input);
+    }
+
+    /**
+     * A compressed block on its way to the writer.
+     */
+    private static final class Block {
+
+        /**
+         * The source buffer, reused once the block is written.
+         */
+        private final byte[] input;
+
+        /**
+         * The compressed block.
+         */
+        private final byte[] frame;
+
+        /**
+         * Whether the block is the last of its chunk.
+         */
+        private final boolean endsChunk;
+
+        Block(final byte[] input, final byte[] frame,
+              final boolean endsChunk) {
+            this.input = input;
+            this.frame = frame;
+            this.endsChunk = endsChunk;
+        }
+    }
+
+    /**
+     * The chunk files of a split, opened one after the other.
+     */
+    private static final class Output implements Closeable {
+
+        /**
+         * The destination directory.
+         */
+        private final Path dest;
+
+        /**
+         * The prefix shared by all the chunks of the split.
+         */
+        private final String prefix;
+
+        /**
+         * The extension of the chunk files.
+         */
+        private final String extension;
+
+        /**
+         * The number of the current chunk.
+         */
+        private long count;
+
+        /**
+         * The stream to the current chunk, null between chunks.
+         */
+        private OutputStream out;
+
+        /**
+         * The number of bytes written to the current chunk.
+         */
+        private long written;
+
+        Output(final Path dest, final String prefix,
+               final String extension) {
+            this.dest = dest;
+            this.prefix = prefix;
+            this.extension = extension;
+        }
+
+        /**
+         * Append to the current chunk, opening the next chunk if needed.
+         *
+         * @param frame The bytes to write.
+         * @throws IOException If the write fails.
+         */
+        void write(final byte[] frame) throws IOException {
+            if (out == null) {
+                count++;
+                out = new FileOutputStream(dest.resolve(
+                        ChunkNames.name(prefix, count) + extension).toFile());
+                written = 0;
+            }
+            out.write(frame);
+            written += frame.length;
+        }
+
+        /**
+         * @return The number of bytes written to the current chunk.
+         */
+        long written() {
+            return out == null ? 0 : written;
+        }
+
+        /**
+         * Close the current chunk, if there is one.
+         *
+         * @throws IOException If the chunk can't be closed.
+         */
+        void endChunk() throws IOException {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            endChunk();
+        }
+    }
+}
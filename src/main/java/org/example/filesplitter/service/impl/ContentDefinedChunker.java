@@ -0,0 +1,195 @@
+package org.example.filesplitter.service.impl;
+
+/**
+ * Finds content-defined chunk boundaries with a FastCDC-style gear hash, so
+ * inserting or removing bytes only changes the chunks around the edit and
+ * the boundaries after it fall at the same content as before. The hash
+ * starts over at every boundary and isn't computed for the first
+ * {@link #min} bytes of a chunk. Up to {@link #avg} bytes a boundary needs
+ * more zero bits than after it (normalized chunking), which keeps most
+ * chunks near the average; a chunk is cut at {@link #max} bytes regardless.
+ * <p>
+ * A chunker keeps the hash across calls, so a source can be fed in buffers
+ * of any size with the same result. It isn't thread safe.
+ */
+public final class ContentDefinedChunker {
+
+    /**
+     * The ratio of the average chunk size to the min size, for
+     * {@link #of(long)}.
+     */
+    private static final int MIN_RATIO = 4;
+
+    /**
+     * The ratio of the max chunk size to the average size, for
+     * {@link #of(long)}.
+     */
+    private static final int MAX_RATIO = 8;
+
+    /**
+     * The number of extra, or fewer, zero bits needed for a boundary before,
+     * or after, the average size.
+     */
+    private static final int NORMALIZATION = 2;
+
+    /**
+     * A random value for every byte, the same on every run so the
+     * boundaries are too.
+     */
+    private static final long[] GEAR = gear(0x9E3779B97F4A7C15L);
+
+    /**
+     * The min chunk size.
+     */
+    private final long min;
+
+    /**
+     * The average chunk size.
+     */
+    private final long avg;
+
+    /**
+     * The max chunk size.
+     */
+    private final long max;
+
+    /**
+     * The bits of the hash that must be zero for a boundary before
+     * {@link #avg}.
+     */
+    private final long smallMask;
+
+    /**
+     * The bits of the hash that must be zero for a boundary after
+     * {@link #avg}.
+     */
+    private final long largeMask;
+
+    /**
+     * The hash of the current chunk.
+     */
+    private long hash;
+
+    /**
+     * The number of bytes of the current chunk seen so far.
+     */
+    private long position;
+
+    /**
+     * Create a chunker with the specified chunk sizes.
+     *
+     * @param min The min chunk size, except for the last chunk.
+     * @param avg The average chunk size.
+     * @param max The max chunk size.
+     */
+    public ContentDefinedChunker(final long min, final long avg,
+                                 final long max) {
+        if (min <= 0 || avg < min || max < avg) {
+            throw new IllegalStateException("Chunk sizes not valid: "
+                    + min + "/" + avg + "/" + max);
+        }
+        this.min = min;
+        this.avg = avg;
+        this.max = max;
+        // the boundaries after min come every 2^bits bytes on average
+        int bits = Long.SIZE - 1 - Long.numberOfLeadingZeros(
+                Math.max(1, avg - min));
+        this.smallMask = mask(Math.min(Long.SIZE - 1, bits + NORMALIZATION));
+        this.largeMask = mask(Math.max(1, bits - NORMALIZATION));
+    }
+
+    /**
+     * Create a chunker with min and max sizes in the usual FastCDC ratios.
+     *
+     * @param avg The average chunk size.
+     * @return The chunker, with a min size of avg / 4 and a max size of
+     * avg * 8.
+     */
+    public static ContentDefinedChunker of(final long avg) {
+        return new ContentDefinedChunker(Math.max(1, avg / MIN_RATIO), avg,
+                avg > Long.MAX_VALUE / MAX_RATIO
+                        ? Long.MAX_VALUE : avg * MAX_RATIO);
+    }
+
+    /**
+     * Find the next boundary in a part of a buffer, continuing the current
+     * chunk.
+     *
+     * @param buffer The buffer with the next bytes of the source.
+     * @param from   The start of the part, inclusive.
+     * @param to     The end of the part, exclusive.
+     * @return The end of the current chunk in the buffer, exclusive, after
+     * which a new chunk starts; or -1 if the chunk doesn't end in the part.
+     */
+    public int next(final byte[] buffer, final int from, final int to) {
+        // the position in the chunk of buffer[i] is base + i
+        final long base = position - from;
+        long h = hash;
+        int i = (int) Math.min(to, Math.max(from, min - base));
+        int end = (int) Math.min(to, Math.max(i, avg - base));
+        for (; i < end; i++) {
+            h = (h << 1) + GEAR[buffer[i] & 0xFF];
+            if ((h & smallMask) == 0) {
+                return cut(i + 1);
+            }
+        }
+        end = (int) Math.min(to, max - base);
+        for (; i < end; i++) {
+            h = (h << 1) + GEAR[buffer[i] & 0xFF];
+            if ((h & largeMask) == 0) {
+                return cut(i + 1);
+            }
+        }
+        if (base + i == max) {
+            return cut(i);
+        }
+        hash = h;
+        position = base + to;
+        return -1;
+    }
+
+    /**
+     * Start a new chunk, at the start of a source.
+     */
+    public void reset() {
+        hash = 0;
+        position = 0;
+    }
+
+    /**
+     * @param end The end of the current chunk in the buffer.
+     * @return The end.
+     */
+    private int cut(final int end) {
+        reset();
+        return end;
+    }
+
+    /**
+     * @param bits The number of bits.
+     * @return A mask of the highest bits, which depend on the last 64 bytes.
+     */
+    private static long mask(final int bits) {
+        return -1L << (Long.SIZE - bits);
+    }
+
+    /**
+     * Fill the gear table with SplitMix64, spelled out so the table doesn't
+     * depend on the JDK.
+     *
+     * @param seed The seed.
+     * @return A value for every byte.
+     */
+    private static long[] gear(final long seed) {
+        long[] gear = new long[256];
+        long state = seed;
+        for (int i = 0; i < gear.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            long z = state;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            gear[i] = z ^ (z >>> 31);
+        }
+        return gear;
+    }
+}
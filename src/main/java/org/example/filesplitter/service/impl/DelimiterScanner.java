@@ -0,0 +1,129 @@
+package org.example.filesplitter.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Finds record boundaries, the positions right after a delimiter, in a file
+ * channel. The scan reuses one direct buffer and compares bytes in place, so
+ * it doesn't allocate per record.
+ */
+final class DelimiterScanner {
+
+    /**
+     * The byte sequence ending each record.
+     */
+    private final byte[] delimiter;
+
+    /**
+     * The buffer holding the part of the file being scanned.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * @param delimiter  The byte sequence ending each record, not empty.
+     * @param bufferSize The number of bytes read at a time, at least the
+     *                   length of the delimiter.
+     */
+    DelimiterScanner(final byte[] delimiter, final int bufferSize) {
+        this.delimiter = delimiter.clone();
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Find the first boundary after a position.
+     *
+     * @param in    The channel to scan.
+     * @param start The start of the record area: delimiters can't begin
+     *              before it.
+     * @param from  The boundary must be after this position.
+     * @param limit The boundary must be at or before this position.
+     * @return The boundary, or -1 if there is none in (from, limit].
+     * @throws IOException If the channel can't be read.
+     */
+    long next(final FileChannel in, final long start, final long from,
+              final long limit) throws IOException {
+        final int d = delimiter.length;
+        long position = Math.max(start, from - d + 1);
+        while (position + d <= limit) {
+            int length = read(in, position,
+                    (int) Math.min(buffer.capacity(), limit - position));
+            for (int i = 0; i + d <= length; i++) {
+                if (matches(i)) {
+                    return position + i + d;
+                }
+            }
+            if (length < buffer.capacity()) {
+                return -1;
+            }
+            position += length - d + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Find the last boundary up to a position.
+     *
+     * @param in    The channel to scan.
+     * @param start The boundary must be after this position, and delimiters
+     *              can't begin before it.
+     * @param to    The boundary must be at or before this position.
+     * @return The boundary, or -1 if there is none in (start, to].
+     * @throws IOException If the channel can't be read.
+     */
+    long previous(final FileChannel in, final long start, final long to)
+            throws IOException {
+        final int d = delimiter.length;
+        long end = to;
+        while (end - start >= d) {
+            long position = Math.max(start, end - buffer.capacity());
+            int length = read(in, position, (int) (end - position));
+            for (int i = length - d; i >= 0; i--) {
+                if (matches(i)) {
+                    return position + i + d;
+                }
+            }
+            if (position == start) {
+                return -1;
+            }
+            end = position + d - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Fill the buffer from a position of the channel.
+     *
+     * @param in       The channel to read.
+     * @param position The position of the first byte.
+     * @param length   The number of bytes wanted.
+     * @return The number of bytes read, less than wanted at the end of the
+     * channel.
+     * @throws IOException If the channel can't be read.
+     */
+    private int read(final FileChannel in, final long position,
+                     final int length) throws IOException {
+        buffer.clear();
+        buffer.limit(length);
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.position();
+    }
+
+    /**
+     * @param index The index in the buffer.
+     * @return Whether the delimiter starts at that index.
+     */
+    private boolean matches(final int index) {
+        for (int k = 0; k < delimiter.length; k++) {
+            if (buffer.get(index + k) != delimiter[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.service.Digest;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+/**
+ * The digests available for checksumming chunks, by the name written in
+ * manifests.
+ */
+public enum DigestAlgorithm implements Supplier<Digest> {
+
+    /**
+     * CRC-32C, hardware accelerated on most CPUs.
+     */
+    CRC32C("CRC32C") {
+        @Override
+        public Digest get() {
+            return new ChecksumDigest(label(), new CRC32C());
+        }
+    },
+
+    /**
+     * xxHash64, a fast non-cryptographic 64-bit hash.
+     */
+    XXH64("XXH64") {
+        @Override
+        public Digest get() {
+            return new XxHash64();
+        }
+    },
+
+    /**
+     * SHA-256, when the checksum must also resist tampering.
+     */
+    SHA256("SHA-256") {
+        @Override
+        public Digest get() {
+            try {
+                return new MessageDigestDigest(
+                        MessageDigest.getInstance(label()));
+            } catch (NoSuchAlgorithmException e) {
+                // every JDK must provide SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    /**
+     * The name written in manifests.
+     */
+    private final String label;
+
+    DigestAlgorithm(final String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return The name written in manifests.
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Find an algorithm by the name written in manifests.
+     *
+     * @param label The name, like "SHA-256".
+     * @return The algorithm.
+     * @throws IllegalArgumentException If there's no such algorithm.
+     */
+    public static DigestAlgorithm of(final String label) {
+        for (DigestAlgorithm algorithm : values()) {
+            if (algorithm.label.equalsIgnoreCase(label)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unknown digest: " + label);
+    }
+
+    /**
+     * A digest backed by a {@link Checksum}.
+     */
+    private static final class ChecksumDigest implements Digest {
+
+        private final String algorithm;
+
+        private final Checksum checksum;
+
+        ChecksumDigest(final String algorithm, final Checksum checksum) {
+            this.algorithm = algorithm;
+            this.checksum = checksum;
+        }
+
+        @Override
+        public String algorithm() {
+            return algorithm;
+        }
+
+        @Override
+        public void update(final byte[] buffer, final int offset,
+                           final int length) {
+            checksum.update(buffer, offset, length);
+        }
+
+        @Override
+        public String digest() {
+            String hex = String.format("%08x", checksum.getValue());
+            checksum.reset();
+            return hex;
+        }
+    }
+
+    /**
+     * A digest backed by a {@link MessageDigest}.
+     */
+    private static final class MessageDigestDigest implements Digest {
+
+        private final MessageDigest digest;
+
+        MessageDigestDigest(final MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public String algorithm() {
+            return digest.getAlgorithm();
+        }
+
+        @Override
+        public void update(final byte[] buffer, final int offset,
+                           final int length) {
+            digest.update(buffer, offset, length);
+        }
+
+        @Override
+        public String digest() {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.exception.JoinException;
+import org.example.filesplitter.service.Digest;
+import org.example.filesplitter.service.FileJoinService;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+public class FileJoinServiceImpl implements FileJoinService {
+
+    /**
+     * The buffer size used when the parts are read to check them.
+     */
+    private static final int VERIFY_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * The max number of parts copied at the same time.
+     */
+    private final int parallelism;
+
+    /**
+     * The max number of bytes handed to a single transfer, so the interrupted
+     * flag is checked regularly even for very large parts.
+     */
+    private final long maxTransferSize;
+
+    /**
+     * Create the service with the specified degree of parallelism.
+     *
+     * @param parallelism     The max number of parts copied at the same time.
+     * @param maxTransferSize The max number of bytes copied by the kernel
+     *                        before checking for an interruption.
+     */
+    public FileJoinServiceImpl(final int parallelism,
+                               final long maxTransferSize) {
+        if (parallelism <= 0) {
+            throw new IllegalStateException(
+                    "Parallelism not valid: " + parallelism);
+        }
+        if (maxTransferSize <= 0) {
+            throw new IllegalStateException(
+                    "Max transfer size not valid: " + maxTransferSize);
+        }
+        this.parallelism = parallelism;
+        this.maxTransferSize = maxTransferSize;
+    }
+
+    /**
+     * The parts are ordered by number, not by name, so _split_10 comes after
+     * _split_9. The numbers must run from 1 without gaps.
+     *
+     * @param dir    The directory holding the parts.
+     * @param prefix The prefix shared by the parts of the run.
+     * @return The parts, ordered by part number.
+     * @throws JoinException If the directory can't be listed, or a part is
+     *                       missing or appears twice, like with and without
+     *                       an extension.
+     */
+    @Override
+    public List<Path> parts(final Path dir, final String prefix)
+            throws JoinException {
+        Map<Long, Path> parts = new TreeMap<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                long count = ChunkNames.count(prefix,
+                        file.getFileName().toString());
+                Path other = count > 0 ? parts.put(count, file) : null;
+                if (other != null) {
+                    throw new JoinException(new IOException("Part "
+                            + count + " is both " + other.getFileName()
+                            + " and " + file.getFileName()));
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new JoinException(e);
+        }
+        long expected = 1;
+        for (long count : parts.keySet()) {
+            if (count != expected) {
+                throw new JoinException(new IOException(
+                        "Missing part: " + ChunkNames.name(prefix, expected)));
+            }
+            expected++;
+        }
+        return new ArrayList<>(parts.values());
+    }
+
+    /**
+     * Create the target at its final size, then copy every part to its
+     * offset with positional transfers, {@link #parallelism} parts at a time.
+     * If the run has a manifest, each part is checked against its checksum
+     * while it's copied instead, so the parts are still only read once. The
+     * first failure stops the remaining parts. A failed or interrupted join
+     * deletes the target, which would otherwise have its full size with
+     * holes and look complete.
+     *
+     * @param dir         The directory holding the parts.
+     * @param prefix      The prefix shared by the parts of the run.
+     * @param target      The file to create, replaced if it exists.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @throws JoinException
+     */
+    @Override
+    public void join(final Path dir, final String prefix, final Path target,
+                     final AtomicBoolean interrupted) throws JoinException {
+        List<Path> parts = parts(dir, prefix);
+        if (parts.isEmpty()) {
+            throw new JoinException(new IOException(
+                    "No parts with prefix " + prefix + " in " + dir));
+        }
+        final Manifest manifest = manifest(dir, prefix, parts);
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        boolean complete = false;
+        try (RandomAccessFile file = new RandomAccessFile(
+                target.toFile(), "rw")) {
+            List<Long> offsets = new ArrayList<>();
+            long size = 0;
+            for (Path part : parts) {
+                offsets.add(size);
+                size += Files.size(part);
+            }
+            final DigestAlgorithm algorithm = manifest == null
+                    ? null : DigestAlgorithm.of(manifest.algorithm());
+            file.setLength(size);
+            FileChannel out = file.getChannel();
+            List<Future<Void>> copies = new ArrayList<>();
+            for (int i = 0; i < parts.size(); i++) {
+                Path part = parts.get(i);
+                long offset = offsets.get(i);
+                String checksum = manifest == null
+                        ? null : manifest.parts().get(i).checksum();
+                copies.add(pool.submit(() -> {
+                    if (interrupted.get() || failed.get()) {
+                        return null;
+                    }
+                    if (checksum == null) {
+                        copy(part, out, offset, interrupted, failed);
+                    } else {
+                        copyVerified(part, out, offset, checksum, algorithm,
+                                interrupted, failed);
+                    }
+                    return null;
+                }));
+            }
+            try {
+                for (Future<Void> copy : copies) {
+                    copy.get();
+                }
+                complete = !interrupted.get();
+            } catch (ExecutionException | InterruptedException e) {
+                failed.set(true);
+                throw e;
+            } finally {
+                // let the workers finish before the target is closed
+                pool.shutdown();
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        } catch (ExecutionException e) {
+            throw new JoinException(e.getCause() instanceof Exception
+                    ? (Exception) e.getCause() : e);
+        } catch (Exception e) {
+            throw new JoinException(e);
+        } finally {
+            pool.shutdownNow();
+            if (!complete) {
+                deleteTarget(target);
+            }
+        }
+    }
+
+    /**
+     * Delete the target of a join that didn't complete, best effort: the
+     * join already failed or was interrupted.
+     *
+     * @param target The file being joined.
+     */
+    private static void deleteTarget(final Path target) {
+        try {
+            Files.deleteIfExists(target);
+        } catch (IOException e) {
+            // nothing more to do, the caller knows the join didn't complete
+        }
+    }
+
+    /**
+     * Copy a part into the target at its offset.
+     *
+     * @param part        The part file.
+     * @param out         The target channel.
+     * @param offset      The position of the part in the target.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @param failed      Set when another part failed.
+     * @throws IOException If the copy fails.
+     */
+    private void copy(final Path part, final FileChannel out,
+                      final long offset, final AtomicBoolean interrupted,
+                      final AtomicBoolean failed) throws IOException {
+        try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+            final long length = in.size();
+            long done = 0;
+            while (done < length && !interrupted.get() && !failed.get()) {
+                long transferred = out.transferFrom(in, offset + done,
+                        Math.min(maxTransferSize, length - done));
+                if (transferred <= 0) {
+                    throw new IOException("Part truncated: " + part);
+                }
+                done += transferred;
+            }
+        }
+    }
+
+    /**
+     * Copy a part into the target at its offset through a buffer, checking it
+     * against its checksum on the way.
+     *
+     * @param part        The part file.
+     * @param out         The target channel.
+     * @param offset      The position of the part in the target.
+     * @param checksum    The expected checksum of the part.
+     * @param algorithm   The digest of the checksum.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @param failed      Set when another part failed.
+     * @throws IOException If the copy fails or the part doesn't match.
+     */
+    private void copyVerified(final Path part, final FileChannel out,
+                              final long offset, final String checksum,
+                              final DigestAlgorithm algorithm,
+                              final AtomicBoolean interrupted,
+                              final AtomicBoolean failed) throws IOException {
+        Digest digest = algorithm.get();
+        byte[] buffer = new byte[VERIFY_BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(part.toFile())) {
+            long position = offset;
+            int bytesRead;
+            while (!interrupted.get() && !failed.get()
+                    && (bytesRead = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, bytesRead);
+                ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, bytesRead);
+                while (bytes.hasRemaining()) {
+                    position += out.write(bytes, position);
+                }
+            }
+        }
+        if (!interrupted.get() && !failed.get()
+                && !checksum.equals(digest.digest())) {
+            throw new IOException("Checksum mismatch: " + part);
+        }
+    }
+
+    /**
+     * Read every part once, in order, and compare each part and the whole
+     * file with the manifest.
+     *
+     * @param dir    The directory holding the parts.
+     * @param prefix The prefix shared by the parts of the run.
+     * @throws JoinException If there's no manifest, or a part or the whole
+     *                       file doesn't match it.
+     */
+    @Override
+    public void verify(final Path dir, final String prefix)
+            throws JoinException {
+        List<Path> parts = parts(dir, prefix);
+        Manifest manifest = manifest(dir, prefix, parts);
+        if (manifest == null) {
+            throw new JoinException(new IOException(
+                    "No manifest for prefix " + prefix + " in " + dir));
+        }
+        try {
+            DigestAlgorithm algorithm =
+                    DigestAlgorithm.of(manifest.algorithm());
+            Digest partDigest = algorithm.get();
+            Digest fileDigest = algorithm.get();
+            byte[] buffer = new byte[VERIFY_BUFFER_SIZE];
+            for (int i = 0; i < parts.size(); i++) {
+                try (InputStream in = new FileInputStream(
+                        parts.get(i).toFile())) {
+                    int bytesRead;
+                    while ((bytesRead = in.read(buffer)) > 0) {
+                        partDigest.update(buffer, 0, bytesRead);
+                        fileDigest.update(buffer, 0, bytesRead);
+                    }
+                }
+                if (!manifest.parts().get(i).checksum()
+                        .equals(partDigest.digest())) {
+                    throw new IOException(
+                            "Checksum mismatch: " + parts.get(i));
+                }
+            }
+            if (!manifest.checksum().equals(fileDigest.digest())) {
+                throw new IOException("Checksum mismatch: whole file");
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new JoinException(e);
+        }
+    }
+
+    /**
+     * Read the manifest of a run, if there is one, and check that it lists
+     * the same parts, with the same lengths, as the directory.
+     *
+     * @param dir    The directory holding the parts.
+     * @param prefix The prefix shared by the parts of the run.
+     * @param parts  The parts found in the directory, in order.
+     * @return The manifest, or null if the run has none.
+     * @throws JoinException If the manifest can't be read or doesn't match
+     *                       the parts.
+     */
+    private Manifest manifest(final Path dir, final String prefix,
+                              final List<Path> parts) throws JoinException {
+        try {
+            Manifest manifest = Manifest.read(Manifest.file(dir, prefix));
+            if (manifest == null) {
+                return null;
+            }
+            if (manifest.parts().size() != parts.size()) {
+                throw new IOException("The manifest lists "
+                        + manifest.parts().size() + " parts, found "
+                        + parts.size());
+            }
+            for (int i = 0; i < parts.size(); i++) {
+                Manifest.Part expected = manifest.parts().get(i);
+                Path part = parts.get(i);
+                if (!expected.name().equals(part.getFileName().toString())
+                        || expected.length() != Files.size(part)) {
+                    throw new IOException("Part doesn't match the manifest: "
+                            + part);
+                }
+            }
+            return manifest;
+        } catch (IOException e) {
+            throw new JoinException(e);
+        }
+    }
+}
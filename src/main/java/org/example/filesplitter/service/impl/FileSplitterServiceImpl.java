@@ -1,25 +1,71 @@
 package org.example.filesplitter.service.impl;
 
 import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.BufferSizeStrategy;
+import org.example.filesplitter.service.Digest;
 import org.example.filesplitter.service.FileSplitterService;
+import org.example.filesplitter.service.ProgressListener;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Path;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 public class FileSplitterServiceImpl implements FileSplitterService {
 
     /**
-     * The max buffer size allowed.
+     * The source in the manifest of a stream.
      */
-    private final int maxBufferSize;
+    private static final String STREAM_SOURCE = "-";
+
+    /**
+     * Where the chunks end.
+     */
+    public enum Boundaries {
+
+        /**
+         * Every chunk but the last is chunk size bytes.
+         */
+        FIXED,
+
+        /**
+         * The chunks end where the content says, see
+         * {@link ContentDefinedChunker#of(long)}, with chunk size bytes on
+         * average. The same content gives the same chunks at any offset.
+         */
+        CONTENT_DEFINED
+    }
+
+    /**
+     * Picks the buffer size of each split.
+     */
+    private final BufferSizeStrategy bufferSizeStrategy;
+
+    /**
+     * Creates the digests for the manifest, null for no manifest.
+     */
+    private final Supplier<Digest> digests;
+
+    /**
+     * Whether a journal is kept so an unfinished split can be resumed.
+     */
+    private final boolean resumable;
+
+    /**
+     * Records the reads, writes, opens and closes, null for none.
+     */
+    private final SplitMetrics metrics;
+
+    /**
+     * Where the chunks end.
+     */
+    private final Boundaries boundaries;
 
     /**
      * Create the service with the specified max buffer size in bytes.
@@ -28,17 +74,110 @@ public class FileSplitterServiceImpl implements FileSplitterService {
      *                      service.
      */
     public FileSplitterServiceImpl(final int maxBufferSize) {
-        if (maxBufferSize <= 0) {
-            throw new IllegalStateException(
-                    "Max buffer size not valid: " + maxBufferSize);
-        }
-        this.maxBufferSize = maxBufferSize;
+        this(new FixedBufferSizeStrategy(maxBufferSize));
+    }
+
+    /**
+     * Create the service with the specified buffer sizing.
+     *
+     * @param bufferSizeStrategy Picks the buffer size of each split.
+     */
+    public FileSplitterServiceImpl(
+            final BufferSizeStrategy bufferSizeStrategy) {
+        this(bufferSizeStrategy, null);
+    }
+
+    /**
+     * Create the service with the specified buffer sizing, checksumming
+     * every chunk while it's written.
+     *
+     * @param bufferSizeStrategy Picks the buffer size of each split.
+     * @param digests            Creates the digests for the manifest, for
+     *                           example a {@link DigestAlgorithm}. May be
+     *                           null for no manifest.
+     */
+    public FileSplitterServiceImpl(
+            final BufferSizeStrategy bufferSizeStrategy,
+            final Supplier<Digest> digests) {
+        this(bufferSizeStrategy, digests, false);
+    }
+
+    /**
+     * Create the service with the specified buffer sizing and checksums,
+     * optionally keeping a journal so an unfinished split can be resumed.
+     *
+     * @param bufferSizeStrategy Picks the buffer size of each split.
+     * @param digests            Creates the digests for the manifest, may be
+     *                           null for no manifest. The journal falls back
+     *                           to {@link DigestAlgorithm#CRC32C}.
+     * @param resumable          Whether to keep a journal and resume from it.
+     */
+    public FileSplitterServiceImpl(
+            final BufferSizeStrategy bufferSizeStrategy,
+            final Supplier<Digest> digests, final boolean resumable) {
+        this(bufferSizeStrategy, digests, resumable, null);
+    }
+
+    /**
+     * Create the service with the specified buffer sizing, checksums and
+     * journal, timing every read, write, open and close of a split.
+     *
+     * @param bufferSizeStrategy Picks the buffer size of each split.
+     * @param digests            Creates the digests for the manifest, may be
+     *                           null for no manifest.
+     * @param resumable          Whether to keep a journal and resume from it.
+     * @param metrics            Records the splits, may be null to skip the
+     *                           timing altogether.
+     */
+    public FileSplitterServiceImpl(
+            final BufferSizeStrategy bufferSizeStrategy,
+            final Supplier<Digest> digests, final boolean resumable,
+            final SplitMetrics metrics) {
+        this(bufferSizeStrategy, digests, resumable, metrics,
+                Boundaries.FIXED);
+    }
+
+    /**
+     * Create the service with the specified buffer sizing, checksums,
+     * journal, metrics and chunk boundaries.
+     *
+     * @param bufferSizeStrategy Picks the buffer size of each split.
+     * @param digests            Creates the digests for the manifest, may be
+     *                           null for no manifest.
+     * @param resumable          Whether to keep a journal and resume from it.
+     * @param metrics            Records the splits, may be null.
+     * @param boundaries         Where the chunks end.
+     */
+    public FileSplitterServiceImpl(
+            final BufferSizeStrategy bufferSizeStrategy,
+            final Supplier<Digest> digests, final boolean resumable,
+            final SplitMetrics metrics, final Boundaries boundaries) {
+        this.bufferSizeStrategy = bufferSizeStrategy;
+        this.digests = digests;
+        this.resumable = resumable;
+        this.metrics = metrics;
+        this.boundaries = boundaries;
     }
 
     /**
      * Split the file, reading in one "chunk" of bytes at a time and writing it
      * with a filename like uuuuMMdd'T'HHmmssSSSSSSSSS_split_N, where N is the
-     * chunk number, starting from 1.
+     * chunk number, starting from 1. Each chunk file is opened once and kept
+     * open until the chunk is complete. With
+     * {@link Boundaries#CONTENT_DEFINED} boundaries, the chunks end where
+     * {@link ContentDefinedChunker} finds a boundary instead, in the same
+     * pass. Blocks of zeros are skipped, so holes in a sparse source stay
+     * holes in the chunks. With digests, every
+     * buffer is also fed to the chunk and whole-file digests, and a complete
+     * split ends with a uuuuMMdd'T'HHmmssSSSSSSSSS_split.manifest listing
+     * each chunk's name, offset, length and checksum.
+     * <p>
+     * When resumable, every complete chunk is committed to a
+     * uuuuMMdd'T'HHmmssSSSSSSSSS_split.journal, deleted once the split is
+     * complete. If the destination already has the journal of an unfinished
+     * split of the same, unchanged source with the same chunk size, the split
+     * reuses its prefix and continues after the last committed chunk whose
+     * file still has its checksum, rewriting the next chunk from its start.
      *
      * @param src         The path, corresponding to a file to split.
      * @param dest        The destination directory.
@@ -47,55 +186,297 @@ public class FileSplitterServiceImpl implements FileSplitterService {
      * @throws SplitException
      */
     @Override
-    public void split(final Path src, final Path dest, final int chunkSize,
+    public void split(final Path src, final Path dest, final long chunkSize,
                       final AtomicBoolean interrupted) throws SplitException {
-        final byte[] buffer = buffer(chunkSize);
-        try (InputStream is = new FileInputStream(src.toFile())) {
-            int bytesRead;
-            long chunkBytesRead = 0;
+        split(src, dest, chunkSize, interrupted, null);
+    }
+
+    /**
+     * Split the file like {@link #split(Path, Path, long, AtomicBoolean)},
+     * counting every buffer written. With metrics, every read, write, open
+     * and close is timed, and the split is recorded once it ends, complete
+     * or interrupted.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @param listener    Receives the progress, may be null.
+     * @throws SplitException
+     */
+    @Override
+    public void split(final Path src, final Path dest, final long chunkSize,
+                      final AtomicBoolean interrupted,
+                      final ProgressListener listener) throws SplitException {
+        try (FileChannel in = FileChannel.open(src, StandardOpenOption.READ)) {
+            split(in, src, in.size(), dest, chunkSize, interrupted, listener);
+        } catch (SplitException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SplitException(e);
+        }
+    }
+
+    /**
+     * Split a stream of unknown length, read once from start to end, like
+     * {@link #split(Path, Path, long, AtomicBoolean)} splits a file, with a
+     * single buffer whatever the length. There's no journal to resume from,
+     * and the source of the manifest is "-".
+     *
+     * @param src         The stream to split, in blocking mode.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method,
+     *                    checked between reads.
+     * @throws SplitException
+     */
+    @Override
+    public void splitStream(final ReadableByteChannel src, final Path dest,
+                            final long chunkSize,
+                            final AtomicBoolean interrupted)
+            throws SplitException {
+        split(src, null, -1, dest, chunkSize, interrupted, null);
+    }
+
+    /**
+     * Split a file or a stream.
+     *
+     * @param in          The source, at its start.
+     * @param src         The source file, null for a stream.
+     * @param size        The size of the source file, -1 for a stream.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @param listener    Receives the progress, ignored for a stream.
+     * @throws SplitException
+     */
+    private void split(final ReadableByteChannel in, final Path src,
+                       final long size, final Path dest, final long chunkSize,
+                       final AtomicBoolean interrupted,
+                       final ProgressListener listener) throws SplitException {
+        final byte[] buffer = new byte[
+                bufferSizeStrategy.bufferSize(dest, chunkSize)];
+        final ByteBuffer bytes = ByteBuffer.wrap(buffer);
+        final SplitMetrics run = metrics == null ? null : metrics.newRun();
+        final boolean journaled = resumable && src != null;
+        ChunkWriter writer = null;
+        SplitJournal journal = null;
+        try {
+            final Digest chunkDigest = digests != null ? digests.get()
+                    : journaled ? DigestAlgorithm.CRC32C.get() : null;
+            final Digest fileDigest = digests == null ? null : digests.get();
+            final Manifest manifest = digests == null ? null : new Manifest(
+                    chunkDigest.algorithm(), src == null ? STREAM_SOURCE
+                    : src.getFileName().toString(), chunkSize, boundaries);
+            final ProgressTracker progress = src == null ? null
+                    : ProgressTracker.of(listener, size);
             long count = 1;
-            String start = LocalDateTime.now().format(
-                    DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmssSSSSSSSSS"));
-            while (!interrupted.get() && (bytesRead = is.read(buffer)) > 0) {
-                chunkBytesRead += bytesRead;
-                writeBytes(dest,
-                        String.format("%s_split_%d", start, count),
-                        buffer,
-                        bytesRead);
-                if (chunkBytesRead % chunkSize == 0) { // finished this chunk
-                    count++;
-                    chunkBytesRead = 0;
+            long offset = 0;
+            String start;
+            if (journaled) {
+                journal = SplitJournal.resume(dest, src, chunkSize,
+                        chunkDigest, boundaries);
+            }
+            if (journal != null) {
+                start = journal.prefix();
+                count = journal.nextCount();
+                offset = journal.nextOffset();
+                if (manifest != null) {
+                    replay(journal, manifest, (FileChannel) in, bytes,
+                            fileDigest);
+                }
+                ((FileChannel) in).position(offset);
+                if (progress != null) {
+                    progress.skip(offset);
+                }
+            } else {
+                start = ChunkNames.prefix();
+                if (journaled) {
+                    journal = SplitJournal.create(dest, start, src, chunkSize,
+                            chunkDigest.algorithm(), boundaries);
+                }
+            }
+            final ContentDefinedChunker chunker =
+                    boundaries == Boundaries.CONTENT_DEFINED
+                            ? ContentDefinedChunker.of(chunkSize) : null;
+            int bytesRead;
+            long chunkBytesLeft = chunkSize;
+            while (!interrupted.get()) {
+                long started = clock(run);
+                bytes.clear().limit(chunker != null ? buffer.length
+                        : (int) Math.min(buffer.length, chunkBytesLeft));
+                bytesRead = in.read(bytes);
+                if (run != null) {
+                    run.read(Math.max(0, bytesRead),
+                            System.nanoTime() - started);
+                }
+                if (bytesRead <= 0) {
+                    break;
+                }
+                // a content-defined buffer may end several chunks
+                for (int from = 0, to; from < bytesRead; from = to) {
+                    boolean boundary;
+                    if (chunker == null) {
+                        to = bytesRead;
+                        chunkBytesLeft -= bytesRead;
+                        boundary = chunkBytesLeft == 0;
+                    } else {
+                        to = chunker.next(buffer, from, bytesRead);
+                        boundary = to >= 0;
+                        to = boundary ? to : bytesRead;
+                    }
+                    int length = to - from;
+                    if (writer == null) {
+                        started = clock(run);
+                        writer = new ChunkWriter(
+                                dest.resolve(ChunkNames.name(start, count)),
+                                offset);
+                        if (run != null) {
+                            run.openClose(System.nanoTime() - started);
+                        }
+                    }
+                    started = clock(run);
+                    writer.write(buffer, from, length);
+                    if (run != null) {
+                        run.write(length, System.nanoTime() - started);
+                    }
+                    if (progress != null) {
+                        progress.add(length, count);
+                    }
+                    if (chunkDigest != null) {
+                        chunkDigest.update(buffer, from, length);
+                    }
+                    if (fileDigest != null) {
+                        fileDigest.update(buffer, from, length);
+                    }
+                    offset += length;
+                    if (boundary) { // finished this chunk
+                        finish(writer, count, manifest, journal, chunkDigest,
+                                run);
+                        writer = null;
+                        count++;
+                        chunkBytesLeft = chunkSize;
+                    }
+                }
+            }
+            if (writer != null && !interrupted.get()) { // the last chunk
+                finish(writer, count, manifest, journal, chunkDigest, run);
+                writer = null;
+            }
+            if (!interrupted.get()) {
+                if (manifest != null) {
+                    manifest.complete(offset, fileDigest.digest());
+                    manifest.write(Manifest.file(dest, start));
+                }
+                if (journal != null) {
+                    journal.complete();
+                    journal = null;
                 }
+                if (progress != null) {
+                    progress.finish();
+                }
+            }
+            if (run != null) {
+                metrics.complete(run);
             }
         } catch (Exception e) {
             throw new SplitException(e);
+        } finally {
+            closeQuietly(writer);
+            closeQuietly(journal);
+        }
+    }
+
+    /**
+     * Bring the manifest and the whole-file digest of a resumed split up to
+     * the last committed chunk. The chunk checksums come from the journal;
+     * the committed part of the source is read once more for the whole-file
+     * digest, without writing anything.
+     *
+     * @param journal    The journal of the resumed split.
+     * @param manifest   The manifest of the split.
+     * @param in         The source, positioned at its start.
+     * @param bytes      The buffer to read with.
+     * @param fileDigest The whole-file digest.
+     * @throws IOException If the source can't be read.
+     */
+    private void replay(final SplitJournal journal, final Manifest manifest,
+                        final FileChannel in, final ByteBuffer bytes,
+                        final Digest fileDigest) throws IOException {
+        List<ChunkRange> chunks = journal.chunks();
+        for (int i = 0; i < chunks.size(); i++) {
+            ChunkRange chunk = chunks.get(i);
+            manifest.add(ChunkNames.name(journal.prefix(), chunk.count()),
+                    chunk.offset(), chunk.length(),
+                    journal.checksums().get(i));
+        }
+        long left = journal.nextOffset();
+        int bytesRead;
+        while (left > 0 && (bytesRead = in.read(bytes.clear().limit(
+                (int) Math.min(bytes.capacity(), left)))) > 0) {
+            fileDigest.update(bytes.array(), 0, bytesRead);
+            left -= bytesRead;
         }
     }
 
-    private void writeBytes(final Path dest,
-                            final String filename,
-                            final byte[] buffer,
-                            final int bytesRead) throws IOException {
-        File destFile = Path.of(
-                dest.toFile().getAbsolutePath(), filename).toFile();
-        try (OutputStream out = new FileOutputStream(
-                destFile.getAbsoluteFile(),
-                true)) {
-            out.write(buffer, 0, bytesRead);
+    /**
+     * Close a complete chunk, then add it to the manifest and commit it to
+     * the journal.
+     *
+     * @param writer      The writer of the chunk.
+     * @param count       The chunk number.
+     * @param manifest    The manifest of the split, may be null.
+     * @param journal     The journal of the split, may be null.
+     * @param chunkDigest The digest fed with the chunk, may be null.
+     * @param run         Records the close, may be null.
+     * @throws IOException If the chunk can't be closed or committed.
+     */
+    private void finish(final ChunkWriter writer, final long count,
+                        final Manifest manifest, final SplitJournal journal,
+                        final Digest chunkDigest, final SplitMetrics run)
+            throws IOException {
+        long started = clock(run);
+        writer.close();
+        if (run != null) {
+            run.openClose(System.nanoTime() - started);
+            run.chunk();
+        }
+        if (chunkDigest == null) {
+            return;
+        }
+        String checksum = chunkDigest.digest();
+        if (manifest != null) {
+            manifest.add(writer.file().getFileName().toString(),
+                    writer.offset(), writer.written(), checksum);
+        }
+        if (journal != null) {
+            journal.commit(new ChunkRange(count, writer.offset(),
+                    writer.written()), checksum);
         }
     }
 
     /**
-     * Get a buffer based on the chunk size.
+     * @param run The metrics of the split, may be null.
+     * @return The current time for the metrics, or 0 without metrics.
+     */
+    private static long clock(final SplitMetrics run) {
+        return run == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Close the writer of an unfinished chunk or the journal of an
+     * unfinished split, if there is one.
      *
-     * @param chunkSize The size in bytes of each chunk.
-     * @return The byte[] buffer.
-     */
-    private byte[] buffer(final int chunkSize) {
-        if (chunkSize < maxBufferSize) {
-            return new byte[chunkSize];
-        } else {
-            return new byte[maxBufferSize];
+     * @param closeable The writer or journal to close, may be null.
+     */
+    private void closeQuietly(final Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // the split already failed or was interrupted
         }
     }
 }
@@ -0,0 +1,47 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.service.ChunkSink;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes every chunk to a file of the same name in a directory, like the
+ * other engines do.
+ */
+public final class FileSystemChunkSink implements ChunkSink {
+
+    /**
+     * The directory of the chunks.
+     */
+    private final Path dir;
+
+    /**
+     * @param dir The directory of the chunks, which must exist.
+     */
+    public FileSystemChunkSink(final Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Create the chunk file, replacing any file of the same name.
+     *
+     * @param name The name of the chunk.
+     * @return The stream of the chunk file.
+     * @throws IOException If the file can't be created.
+     */
+    @Override
+    public OutputStream open(final String name) throws IOException {
+        return Files.newOutputStream(dir.resolve(name));
+    }
+
+    /**
+     * Nothing to finish: every chunk file is complete once closed, and an
+     * abandoned one is left truncated like with the other engines.
+     */
+    @Override
+    public void close() {
+    }
+}
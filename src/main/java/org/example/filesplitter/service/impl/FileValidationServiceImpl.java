@@ -2,8 +2,10 @@ package org.example.filesplitter.service.impl;
 
 import org.example.filesplitter.service.FileValidationService;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 public class FileValidationServiceImpl implements FileValidationService {
 
@@ -17,6 +19,22 @@ public class FileValidationServiceImpl implements FileValidationService {
         return Files.isRegularFile(path);
     }
 
+    /**
+     * The source is a stream if it's neither a regular file, a directory nor
+     * a link, like a named pipe or a device, and it's readable.
+     * @param path The path to check.
+     * @return true if it's a stream, false otherwise.
+     */
+    @Override
+    public boolean streamSrc(final Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class)
+                    .isOther() && Files.isReadable(path);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
     /**
      * The destination file is valid if it's a directory.
      * @param path The path to check.
@@ -33,7 +51,7 @@ public class FileValidationServiceImpl implements FileValidationService {
      * @return true if valid, false otherwise.
      */
     @Override
-    public boolean validChunkSize(final int chunkSize) {
+    public boolean validChunkSize(final long chunkSize) {
         return chunkSize > 0;
     }
 }
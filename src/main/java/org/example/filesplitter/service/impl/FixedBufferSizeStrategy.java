@@ -0,0 +1,38 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.service.BufferSizeStrategy;
+
+import java.nio.file.Path;
+
+public class FixedBufferSizeStrategy implements BufferSizeStrategy {
+
+    /**
+     * The max buffer size allowed.
+     */
+    private final int maxBufferSize;
+
+    /**
+     * Create the strategy with the specified max buffer size in bytes.
+     *
+     * @param maxBufferSize The max buffer size.
+     */
+    public FixedBufferSizeStrategy(final int maxBufferSize) {
+        if (maxBufferSize <= 0) {
+            throw new IllegalStateException(
+                    "Max buffer size not valid: " + maxBufferSize);
+        }
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    /**
+     * The max buffer size, or the chunk size if it's smaller.
+     *
+     * @param dest      The destination directory.
+     * @param chunkSize The chunk size in bytes (size of each split).
+     * @return The buffer size in bytes.
+     */
+    @Override
+    public int bufferSize(final Path dest, final long chunkSize) {
+        return (int) Math.min(chunkSize, maxBufferSize);
+    }
+}
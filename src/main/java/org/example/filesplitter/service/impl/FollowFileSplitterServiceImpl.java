@@ -0,0 +1,303 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.FileSplitterService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class FollowFileSplitterServiceImpl implements FileSplitterService {
+
+    /**
+     * The number of bytes read at a time.
+     */
+    private final int bufferSize;
+
+    /**
+     * The max time to wait for the source to change before looking again,
+     * in milliseconds. It's the only way to notice a change where the
+     * filesystem doesn't send events, like NFS.
+     */
+    private final long pollMillis;
+
+    /**
+     * Create the service with the specified buffer size and polling.
+     *
+     * @param bufferSize The number of bytes read at a time.
+     * @param pollMillis The max time to wait for the source to change before
+     *                   looking again, in milliseconds.
+     */
+    public FollowFileSplitterServiceImpl(final int bufferSize,
+                                         final long pollMillis) {
+        if (bufferSize <= 0) {
+            throw new IllegalStateException(
+                    "Buffer size not valid: " + bufferSize);
+        }
+        if (pollMillis <= 0) {
+            throw new IllegalStateException(
+                    "Poll interval not valid: " + pollMillis);
+        }
+        this.bufferSize = bufferSize;
+        this.pollMillis = pollMillis;
+    }
+
+    /**
+     * Split the file as it grows, like tail -F, until interrupted. Every
+     * chunk is written to a hidden .uuuuMMdd'T'HHmmssSSSSSSSSS_split_N.tmp
+     * file and renamed to uuuuMMdd'T'HHmmssSSSSSSSSS_split_N as soon as it's
+     * full, so the chunks that are there are always complete. At the end of
+     * the source the split waits for a change, with a {@link WatchService}
+     * on the directory where there is one, and looks again every
+     * {@link #pollMillis} in any case.
+     * <p>
+     * When the source is rotated, renamed away and replaced by a new file,
+     * the rest of the old file is split and the split goes on with the new
+     * file, the chunks running across both. A source that shrinks, truncated
+     * in place, is split again from its start. When interrupted, by the flag
+     * or by an interrupt of the thread like a cancelled task, the last chunk
+     * is published as it is, unless it's empty; the thread stays
+     * interrupted. A chunk that can't be published is deleted.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @throws SplitException
+     */
+    @Override
+    public void split(final Path src, final Path dest, final long chunkSize,
+                      final AtomicBoolean interrupted) throws SplitException {
+        final ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        final String start = ChunkNames.prefix();
+        WatchService watcher = null;
+        FileChannel in = null;
+        ChunkWriter writer = null;
+        try {
+            watcher = watch(src);
+            in = FileChannel.open(src, StandardOpenOption.READ);
+            Object key = key(src);
+            boolean rotated = false;
+            long count = 1;
+            long chunkBytesLeft = chunkSize;
+            while (!interrupted.get()
+                    && !Thread.currentThread().isInterrupted()) {
+                buffer.clear();
+                buffer.limit((int) Math.min(bufferSize, chunkBytesLeft));
+                int bytesRead;
+                try {
+                    bytesRead = in.read(buffer);
+                } catch (ClosedByInterruptException e) {
+                    break; // only the source was closed, not the chunk
+                }
+                if (bytesRead > 0) {
+                    if (writer == null) {
+                        writer = new ChunkWriter(
+                                temp(dest, start, count), 0);
+                    }
+                    writer.write(buffer.array(), bytesRead);
+                    chunkBytesLeft -= bytesRead;
+                    if (chunkBytesLeft == 0) {
+                        publish(writer, dest, start, count++);
+                        writer = null;
+                        chunkBytesLeft = chunkSize;
+                    }
+                } else if (rotated) {
+                    // the old file was read to its end after the rotation
+                    FileChannel next = open(src);
+                    if (next == null) {
+                        await(watcher);
+                    } else {
+                        in.close();
+                        in = next;
+                        key = key(src);
+                        rotated = false;
+                    }
+                } else {
+                    rotated = rotated(src, in, key);
+                    if (!rotated) {
+                        await(watcher);
+                    }
+                }
+            }
+            // cleared so the chunk file isn't closed by the interrupt
+            boolean cancelled = Thread.interrupted();
+            try {
+                if (writer != null) {
+                    publish(writer, dest, start, count);
+                    writer = null;
+                }
+            } finally {
+                if (cancelled) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        } catch (Exception e) {
+            throw new SplitException(e);
+        } finally {
+            if (writer != null) {
+                closeQuietly(writer);
+                deleteQuietly(writer.file());
+            }
+            closeQuietly(in);
+            closeQuietly(watcher);
+        }
+    }
+
+    /**
+     * Watch the directory of the source for changes.
+     *
+     * @param src The source file.
+     * @return The watch service, or null if the filesystem has none.
+     */
+    private static WatchService watch(final Path src) {
+        Path dir = src.toAbsolutePath().getParent();
+        WatchService watcher = null;
+        try {
+            watcher = dir.getFileSystem().newWatchService();
+            dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            return watcher;
+        } catch (IOException | UnsupportedOperationException e) {
+            closeQuietly(watcher);
+            return null;
+        }
+    }
+
+    /**
+     * Wait until the directory of the source changes or the poll interval
+     * passes. An interrupt ends the wait and is kept for the split loop.
+     *
+     * @param watcher The watch service, may be null.
+     */
+    private void await(final WatchService watcher) {
+        try {
+            if (watcher == null) {
+                Thread.sleep(pollMillis);
+                return;
+            }
+            WatchKey key = watcher.poll(pollMillis, TimeUnit.MILLISECONDS);
+            if (key != null) {
+                key.pollEvents();
+                key.reset();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param src The source file.
+     * @return The source, open for reading, or null if there's no source.
+     * @throws IOException If the source can't be opened.
+     */
+    private static FileChannel open(final Path src) throws IOException {
+        try {
+            return FileChannel.open(src, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param src The source file.
+     * @return What identifies the source file, like its inode, or null if
+     * the filesystem doesn't tell or there's no source.
+     * @throws IOException If the attributes can't be read.
+     */
+    private static Object key(final Path src) throws IOException {
+        try {
+            return Files.readAttributes(src, BasicFileAttributes.class)
+                    .fileKey();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param src The source file.
+     * @param in  The source being read, at its end.
+     * @param key What identified the source when it was opened.
+     * @return Whether the path is now another file, or the same file
+     * truncated. A missing source isn't rotated yet.
+     * @throws IOException If the attributes can't be read.
+     */
+    private static boolean rotated(final Path src, final FileChannel in,
+                                   final Object key) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(src, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        Object current = attributes.fileKey();
+        return current != null && !current.equals(key)
+                || attributes.size() < in.position();
+    }
+
+    /**
+     * @param dest   The destination directory.
+     * @param prefix The prefix shared by all the chunks of the split.
+     * @param count  The chunk number.
+     * @return The hidden file the chunk is written to before it's published.
+     */
+    private static Path temp(final Path dest, final String prefix,
+                             final long count) {
+        return dest.resolve("." + ChunkNames.name(prefix, count) + ".tmp");
+    }
+
+    /**
+     * Close a chunk and rename it to its name in one step.
+     *
+     * @param writer The writer of the chunk.
+     * @param dest   The destination directory.
+     * @param prefix The prefix shared by all the chunks of the split.
+     * @param count  The chunk number.
+     * @throws IOException If the chunk can't be closed or renamed.
+     */
+    private static void publish(final ChunkWriter writer, final Path dest,
+                                final String prefix, final long count)
+            throws IOException {
+        writer.close();
+        Files.move(writer.file(), dest.resolve(ChunkNames.name(prefix, count)),
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param file The unpublished chunk file to delete.
+     */
+    private static void deleteQuietly(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // the split already failed
+        }
+    }
+
+    /**
+     * @param closeable The writer, channel or watch service to close, may be
+     *                  null.
+     */
+    private static void closeQuietly(final AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // the split already failed or was interrupted
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.service.CompressionCodec;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses every block into its own gzip member. Concatenated members are
+ * a valid gzip file, which gunzip and {@link java.util.zip.GZIPInputStream}
+ * read as one stream.
+ */
+public class GzipCodec implements CompressionCodec {
+
+    /**
+     * The gzip member header: magic, deflate, no flags, no time, no extra
+     * flags, unknown OS.
+     */
+    private static final byte[] HEADER =
+            {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    /**
+     * The length of the member trailer: CRC-32 and input size.
+     */
+    private static final int TRAILER_LENGTH = 8;
+
+    /**
+     * The deflate level, from 0 to 9, or -1 for the default.
+     */
+    private final int level;
+
+    /**
+     * Create the codec with the specified deflate level.
+     *
+     * @param level The deflate level, from 0 (none) to 9 (best), or
+     *              {@link Deflater#DEFAULT_COMPRESSION}.
+     */
+    public GzipCodec(final int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION
+                || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalStateException(
+                    "Compression level not valid: " + level);
+        }
+        this.level = level;
+    }
+
+    /**
+     * @return ".gz"
+     */
+    @Override
+    public String extension() {
+        return ".gz";
+    }
+
+    /**
+     * Deflate the block between a gzip header and trailer.
+     *
+     * @param block  The buffer holding the block.
+     * @param length The length of the block.
+     * @return The gzip member.
+     */
+    @Override
+    public byte[] compress(final byte[] block, final int length) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(block, 0, length);
+            deflater.finish();
+            // incompressible input grows by a few bytes per 16 KiB block
+            byte[] out = new byte[HEADER.length + length + length / 1024
+                    + 64 + TRAILER_LENGTH];
+            System.arraycopy(HEADER, 0, out, 0, HEADER.length);
+            int size = HEADER.length;
+            while (!deflater.finished()) {
+                if (size == out.length - TRAILER_LENGTH) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                size += deflater.deflate(out, size,
+                        out.length - TRAILER_LENGTH - size);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(block, 0, length);
+            writeInt(out, size, (int) crc.getValue());
+            writeInt(out, size + 4, length);
+            return Arrays.copyOf(out, size + TRAILER_LENGTH);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @param out    The buffer to write to.
+     * @param index  The index of the first byte.
+     * @param value  The value to write, little endian.
+     */
+    private static void writeInt(final byte[] out, final int index,
+                                 final int value) {
+        out[index] = (byte) value;
+        out[index + 1] = (byte) (value >>> 8);
+        out[index + 2] = (byte) (value >>> 16);
+        out[index + 3] = (byte) (value >>> 24);
+    }
+}
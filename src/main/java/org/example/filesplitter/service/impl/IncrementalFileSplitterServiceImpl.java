@@ -0,0 +1,300 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.Digest;
+import org.example.filesplitter.service.FileSplitterService;
+import org.example.filesplitter.service.ProgressListener;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class IncrementalFileSplitterServiceImpl
+        implements FileSplitterService {
+
+    /**
+     * The end of the filename of every manifest.
+     */
+    private static final String MANIFEST_SUFFIX = "_split.manifest";
+
+    /**
+     * Checksums the chunks, to compare them with the previous run.
+     */
+    private final DigestAlgorithm algorithm;
+
+    /**
+     * The number of bytes read at a time to checksum a chunk.
+     */
+    private final int bufferSize;
+
+    /**
+     * Writes each changed chunk, see
+     * {@link TransferFileSplitterServiceImpl#transferChunk}.
+     */
+    private final TransferFileSplitterServiceImpl transfer;
+
+    /**
+     * Create the service with the specified checksums.
+     *
+     * @param algorithm       Checksums the chunks. A collision makes a
+     *                        changed chunk look unchanged, so prefer
+     *                        {@link DigestAlgorithm#XXH64} or
+     *                        {@link DigestAlgorithm#SHA256}.
+     * @param bufferSize      The number of bytes read at a time to checksum
+     *                        a chunk.
+     * @param maxTransferSize The max number of bytes copied by the kernel
+     *                        before checking for an interruption.
+     */
+    public IncrementalFileSplitterServiceImpl(final DigestAlgorithm algorithm,
+                                              final int bufferSize,
+                                              final long maxTransferSize) {
+        this(algorithm, bufferSize, maxTransferSize, null);
+    }
+
+    /**
+     * Create the service with the specified checksums, timing every read
+     * of the source and every transfer, open and close of a changed chunk.
+     *
+     * @param algorithm       Checksums the chunks.
+     * @param bufferSize      The number of bytes read at a time to checksum
+     *                        a chunk.
+     * @param maxTransferSize The max number of bytes copied by the kernel
+     *                        before checking for an interruption.
+     * @param metrics         Records the splits, may be null to skip the
+     *                        timing altogether.
+     */
+    public IncrementalFileSplitterServiceImpl(final DigestAlgorithm algorithm,
+                                              final int bufferSize,
+                                              final long maxTransferSize,
+                                              final SplitMetrics metrics) {
+        if (bufferSize <= 0) {
+            throw new IllegalStateException(
+                    "Buffer size not valid: " + bufferSize);
+        }
+        this.algorithm = algorithm;
+        this.bufferSize = bufferSize;
+        this.transfer = new TransferFileSplitterServiceImpl(maxTransferSize,
+                metrics);
+    }
+
+    /**
+     * Split the file, rewriting only what changed since the last run. The
+     * last run is the newest manifest in the destination for a source with
+     * the same filename, chunk size and checksums. Every chunk of the source
+     * is read once to checksum it; a chunk is only written when the previous
+     * run has no part at the same offset with the same length and checksum,
+     * or when that part's file is missing or has another length. So an
+     * appended-to log only gets its last chunk rewritten and its new chunks
+     * written. The parts beyond the end of a source that shrank are deleted,
+     * and the manifest is replaced once everything is written. The previous
+     * manifest is set aside before the first part is rewritten or deleted,
+     * so an interrupted or failed run never leaves a manifest vouching for a
+     * part it changed; the next run then starts over under a new prefix.
+     * <p>
+     * The chunks keep the prefix of the last run, or get a new one if
+     * there's no last run, and are named like
+     * {@link FileSplitterServiceImpl} names them. The unchanged parts aren't
+     * read back, only their length is checked; see
+     * {@link org.example.filesplitter.service.FileJoinService#verify}.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @throws SplitException
+     */
+    @Override
+    public void split(final Path src, final Path dest, final long chunkSize,
+                      final AtomicBoolean interrupted) throws SplitException {
+        split(src, dest, chunkSize, interrupted, null);
+    }
+
+    /**
+     * Split the file like {@link #split(Path, Path, long, AtomicBoolean)},
+     * counting every byte checksummed.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @param listener    Receives the progress, may be null.
+     * @throws SplitException
+     */
+    @Override
+    public void split(final Path src, final Path dest, final long chunkSize,
+                      final AtomicBoolean interrupted,
+                      final ProgressListener listener) throws SplitException {
+        final ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        try (FileChannel in = FileChannel.open(src, StandardOpenOption.READ)) {
+            final long size = in.size();
+            final String source = src.getFileName().toString();
+            final ProgressTracker progress = ProgressTracker.of(listener,
+                    size);
+            Path previousFile = previous(dest, source, chunkSize);
+            Manifest previous = previousFile == null
+                    ? null : Manifest.read(previousFile);
+            String start = previousFile == null ? ChunkNames.prefix()
+                    : prefix(previousFile);
+            Manifest manifest = new Manifest(algorithm.label(), source,
+                    chunkSize);
+            Digest chunkDigest = algorithm.get();
+            Digest fileDigest = algorithm.get();
+            SplitMetrics run = transfer.newRun();
+            boolean kept = previousFile != null; // vouches for every part
+            List<ChunkRange> ranges = ChunkRange.of(size, chunkSize);
+            for (ChunkRange range : ranges) {
+                if (interrupted.get()) {
+                    return;
+                }
+                checksum(in, range, buffer, chunkDigest, fileDigest,
+                        progress, run);
+                String checksum = chunkDigest.digest();
+                if (!unchanged(previous, dest, range, checksum)) {
+                    if (kept) {
+                        Manifest.invalidate(previousFile);
+                        kept = false;
+                    }
+                    transfer.transferChunk(in, dest, start, range,
+                            interrupted::get, null, run);
+                }
+                manifest.add(ChunkNames.name(start, range.count()),
+                        range.offset(), range.length(), checksum);
+            }
+            if (interrupted.get()) {
+                return;
+            }
+            for (long count = ranges.size() + 1; previous != null
+                    && count <= previous.parts().size(); count++) {
+                if (kept) {
+                    Manifest.invalidate(previousFile);
+                    kept = false;
+                }
+                Files.deleteIfExists(dest.resolve(
+                        ChunkNames.name(start, count)));
+            }
+            manifest.complete(size, fileDigest.digest());
+            manifest.write(Manifest.file(dest, start));
+            if (progress != null) {
+                progress.finish();
+            }
+            transfer.complete(run);
+        } catch (Exception e) {
+            throw new SplitException(e);
+        }
+    }
+
+    /**
+     * Find the manifest of the last run of the same source, with fixed
+     * boundaries like this engine's.
+     *
+     * @param dest      The destination directory.
+     * @param source    The filename of the source.
+     * @param chunkSize The chunk size of the split.
+     * @return The newest matching manifest file, or null if there's none.
+     * @throws IOException If the directory or a manifest can't be read.
+     */
+    private Path previous(final Path dest, final String source,
+                          final long chunkSize) throws IOException {
+        List<Path> manifests;
+        try (Stream<Path> files = Files.list(dest)) {
+            manifests = files.filter(f -> f.getFileName().toString()
+                            .endsWith(MANIFEST_SUFFIX))
+                    .sorted(Collections.reverseOrder())
+                    .collect(Collectors.toList());
+        }
+        for (Path file : manifests) {
+            Manifest manifest = Manifest.read(file);
+            if (manifest.source().equals(source)
+                    && manifest.chunkSize() == chunkSize
+                    && manifest.algorithm().equals(algorithm.label())
+                    && manifest.boundaries()
+                    == FileSplitterServiceImpl.Boundaries.FIXED) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param manifest A manifest file.
+     * @return The prefix of the run.
+     */
+    private static String prefix(final Path manifest) {
+        String name = manifest.getFileName().toString();
+        return name.substring(0, name.length() - MANIFEST_SUFFIX.length());
+    }
+
+    /**
+     * Read one chunk of the source into the chunk and whole-file digests.
+     *
+     * @param in          The source channel.
+     * @param range       The chunk to read.
+     * @param buffer      The buffer to read with.
+     * @param chunkDigest The digest of the chunk.
+     * @param fileDigest  The digest of the whole source.
+     * @param progress    Counts the bytes read, may be null.
+     * @param run         Times the reads, may be null.
+     * @throws IOException If the read fails or the source shrinks.
+     */
+    private void checksum(final FileChannel in, final ChunkRange range,
+                          final ByteBuffer buffer, final Digest chunkDigest,
+                          final Digest fileDigest,
+                          final ProgressTracker progress,
+                          final SplitMetrics run)
+            throws IOException {
+        long done = 0;
+        while (done < range.length()) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(),
+                    range.length() - done));
+            long begin = run == null ? 0 : System.nanoTime();
+            int bytesRead = in.read(buffer, range.offset() + done);
+            if (run != null) {
+                run.read(Math.max(0, bytesRead), System.nanoTime() - begin);
+            }
+            if (bytesRead <= 0) {
+                throw new IOException("Source truncated at offset "
+                        + (range.offset() + done));
+            }
+            chunkDigest.update(buffer.array(), 0, bytesRead);
+            fileDigest.update(buffer.array(), 0, bytesRead);
+            done += bytesRead;
+            if (progress != null) {
+                progress.add(bytesRead, range.count());
+            }
+        }
+    }
+
+    /**
+     * @param previous The manifest of the last run, may be null.
+     * @param dest     The destination directory.
+     * @param range    A chunk of the source.
+     * @param checksum The checksum of the chunk.
+     * @return Whether the last run wrote the same chunk, and its file is
+     * still there with the same length.
+     * @throws IOException If the part file can't be read.
+     */
+    private static boolean unchanged(final Manifest previous, final Path dest,
+                                     final ChunkRange range,
+                                     final String checksum)
+            throws IOException {
+        if (previous == null || range.count() > previous.parts().size()) {
+            return false;
+        }
+        Manifest.Part part = previous.parts().get((int) range.count() - 1);
+        Path file = dest.resolve(part.name());
+        return part.offset() == range.offset()
+                && part.length() == range.length()
+                && part.checksum().equals(checksum)
+                && Files.isRegularFile(file)
+                && Files.size(file) == range.length();
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.filesplitter.service.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Where each part of a split by line count starts, saved next to the parts
+ * so a re-run of the same split doesn't count the lines again. The index is
+ * only reused while the source keeps the same size and modification time.
+ */
+final class LineIndex {
+
+    /**
+     * The first line of every index file, with the format version.
+     */
+    private static final String HEADER = "filesplitter-line-index 1";
+
+    /**
+     * The size of the source when the index was built.
+     */
+    private final long size;
+
+    /**
+     * The modification time of the source, in milliseconds, when the index
+     * was built.
+     */
+    private final long modified;
+
+    /**
+     * The start of every part, in order.
+     */
+    private final List<Long> offsets;
+
+    /**
+     * @param size     The size of the source.
+     * @param modified The modification time of the source in milliseconds.
+     * @param offsets  The start of every part, in order.
+     */
+    LineIndex(final long size, final long modified, final List<Long> offsets) {
+        this.size = size;
+        this.modified = modified;
+        this.offsets = List.copyOf(offsets);
+    }
+
+    /**
+     * @param dest         The destination directory.
+     * @param src          The source file.
+     * @param linesPerPart The number of lines in each part.
+     * @return The index file of this source and part length.
+     */
+    static Path file(final Path dest, final Path src, final long linesPerPart) {
+        return dest.resolve(String.format(".%s.%d.lines.idx",
+                src.getFileName(), linesPerPart));
+    }
+
+    /**
+     * Read an index file.
+     *
+     * @param file The index file.
+     * @return The index, or null if there's no index or it can't be parsed.
+     * @throws IOException If the file exists but can't be read.
+     */
+    static LineIndex read(final Path file) throws IOException {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (lines.size() < 3 || !HEADER.equals(lines.get(0))) {
+            return null;
+        }
+        try {
+            List<Long> offsets = new ArrayList<>();
+            for (String line : lines.subList(3, lines.size())) {
+                offsets.add(Long.parseLong(line));
+            }
+            return new LineIndex(Long.parseLong(lines.get(1)),
+                    Long.parseLong(lines.get(2)), offsets);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Write the index, replacing the file only once it's complete.
+     *
+     * @param file The index file.
+     * @throws IOException If the file can't be written.
+     */
+    void write(final Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        lines.add(Long.toString(size));
+        lines.add(Long.toString(modified));
+        offsets.forEach(offset -> lines.add(Long.toString(offset)));
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, lines, StandardCharsets.US_ASCII);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param currentSize     The current size of the source.
+     * @param currentModified The current modification time of the source.
+     * @return Whether the index still describes the source.
+     */
+    boolean matches(final long currentSize, final long currentModified) {
+        return size == currentSize && modified == currentModified;
+    }
+
+    /**
+     * @return The start of every part, in order.
+     */
+    List<Long> offsets() {
+        return offsets;
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.LineSplitterService;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class LineSplitterServiceImpl implements LineSplitterService {
+
+    /**
+     * The number of bytes read at a time when counting lines.
+     */
+    private final int scanBufferSize;
+
+    /**
+     * Writes each part, see
+     * {@link TransferFileSplitterServiceImpl#transferChunk}.
+     */
+    private final TransferFileSplitterServiceImpl transfer;
+
+    /**
+     * Create the service with the specified scan buffer size.
+     *
+     * @param scanBufferSize  The number of bytes read at a time when counting
+     *                        lines.
+     * @param maxTransferSize The max number of bytes copied by the kernel
+     *                        before checking for an interruption.
+     */
+    public LineSplitterServiceImpl(final int scanBufferSize,
+                                   final long maxTransferSize) {
+        if (scanBufferSize <= 0) {
+            throw new IllegalStateException(
+                    "Scan buffer size not valid: " + scanBufferSize);
+        }
+        this.scanBufferSize = scanBufferSize;
+        this.transfer = new TransferFileSplitterServiceImpl(maxTransferSize);
+    }
+
+    /**
+     * Split the file so that each part ends right after its Nth newline. The
+     * part offsets are saved in an index file in the destination directory
+     * and reused as long as the source doesn't change. The last part holds
+     * the remaining lines, including a last line without a newline. The
+     * parts are named like {@link FileSplitterServiceImpl} names the chunks.
+     *
+     * @param src          The path, corresponding to a file to split.
+     * @param dest         The destination directory.
+     * @param linesPerPart The number of lines in each part.
+     * @param interrupted  A flag for interrupting from outside the method.
+     * @throws SplitException
+     */
+    @Override
+    public void splitLines(final Path src, final Path dest,
+                           final long linesPerPart,
+                           final AtomicBoolean interrupted)
+            throws SplitException {
+        if (linesPerPart <= 0) {
+            throw new SplitException(new IllegalArgumentException(
+                    "Lines per part not valid: " + linesPerPart));
+        }
+        try (FileChannel in = FileChannel.open(src, StandardOpenOption.READ)) {
+            final long size = in.size();
+            final long modified = Files.getLastModifiedTime(src).toMillis();
+            Path indexFile = LineIndex.file(dest, src, linesPerPart);
+            LineIndex index = LineIndex.read(indexFile);
+            if (index == null || !index.matches(size, modified)) {
+                List<Long> offsets = new NewlineScanner(scanBufferSize)
+                        .partOffsets(in, linesPerPart, interrupted);
+                if (interrupted.get()) {
+                    return;
+                }
+                index = new LineIndex(size, modified, offsets);
+                index.write(indexFile);
+            }
+            String start = ChunkNames.prefix();
+            List<Long> offsets = index.offsets();
+            for (int i = 0; i < offsets.size() && !interrupted.get(); i++) {
+                long offset = offsets.get(i);
+                long end = i + 1 < offsets.size() ? offsets.get(i + 1) : size;
+                transfer.transferChunk(in, dest, start,
+                        new ChunkRange(i + 1, offset, end - offset),
+                        interrupted::get);
+            }
+        } catch (Exception e) {
+            throw new SplitException(e);
+        }
+    }
+}
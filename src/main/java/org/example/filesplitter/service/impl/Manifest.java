@@ -0,0 +1,351 @@
+package org.example.filesplitter.service.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The description of a split run: every part with its offset, length and
+ * checksum, and the checksum of the whole source. It's written next to the
+ * parts as prefix_split.manifest, one tab separated record per line. The
+ * manifests written before the boundaries were recorded have fixed
+ * boundaries.
+ */
+final class Manifest {
+
+    /**
+     * The first line of every manifest, with the format version.
+     */
+    private static final String HEADER = "filesplitter-manifest 1";
+
+    /**
+     * The name of the digest algorithm, see {@link DigestAlgorithm#label()}.
+     */
+    private final String algorithm;
+
+    /**
+     * The filename of the source.
+     */
+    private final String source;
+
+    /**
+     * The chunk size of the split.
+     */
+    private final long chunkSize;
+
+    /**
+     * Where the chunks of the split end.
+     */
+    private final FileSplitterServiceImpl.Boundaries boundaries;
+
+    /**
+     * The parts, in order.
+     */
+    private final List<Part> parts = new ArrayList<>();
+
+    /**
+     * The size of the source, set once the split is complete.
+     */
+    private long size = -1;
+
+    /**
+     * The checksum of the whole source, set once the split is complete.
+     */
+    private String checksum;
+
+    /**
+     * Start the manifest of a split.
+     *
+     * @param algorithm The name of the digest algorithm.
+     * @param source    The filename of the source.
+     * @param chunkSize The chunk size of the split.
+     */
+    Manifest(final String algorithm, final String source,
+             final long chunkSize) {
+        this(algorithm, source, chunkSize,
+                FileSplitterServiceImpl.Boundaries.FIXED);
+    }
+
+    /**
+     * Start the manifest of a split with the specified boundaries.
+     *
+     * @param algorithm  The name of the digest algorithm.
+     * @param source     The filename of the source.
+     * @param chunkSize  The chunk size of the split.
+     * @param boundaries Where the chunks of the split end.
+     */
+    Manifest(final String algorithm, final String source,
+             final long chunkSize,
+             final FileSplitterServiceImpl.Boundaries boundaries) {
+        this.algorithm = algorithm;
+        this.source = source;
+        this.chunkSize = chunkSize;
+        this.boundaries = boundaries;
+    }
+
+    /**
+     * @param dir    The directory holding the parts.
+     * @param prefix The prefix shared by the parts of the run.
+     * @return The manifest file of the run.
+     */
+    static Path file(final Path dir, final String prefix) {
+        return dir.resolve(prefix + "_split.manifest");
+    }
+
+    /**
+     * Add the next part.
+     *
+     * @param name     The filename of the part.
+     * @param offset   The position of the part in the source.
+     * @param length   The length of the part.
+     * @param checksum The checksum of the part.
+     */
+    void add(final String name, final long offset, final long length,
+             final String checksum) {
+        parts.add(new Part(name, offset, length, checksum));
+    }
+
+    /**
+     * Record the whole source once every part has been added.
+     *
+     * @param sourceSize     The size of the source.
+     * @param sourceChecksum The checksum of the whole source.
+     */
+    void complete(final long sourceSize, final String sourceChecksum) {
+        this.size = sourceSize;
+        this.checksum = sourceChecksum;
+    }
+
+    /**
+     * Write the manifest, replacing the file only once it's complete.
+     *
+     * @param file The manifest file.
+     * @throws IOException If the file can't be written.
+     */
+    void write(final Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        lines.add("algorithm\t" + algorithm);
+        lines.add("source\t" + source);
+        lines.add("chunkSize\t" + chunkSize);
+        lines.add("boundaries\t" + boundaries.name());
+        lines.add("size\t" + size);
+        lines.add("checksum\t" + checksum);
+        for (Part part : parts) {
+            lines.add(String.join("\t", "part", part.name,
+                    Long.toString(part.offset), Long.toString(part.length),
+                    part.checksum));
+        }
+        Path tmp = tmp(file);
+        Files.write(tmp, lines, StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Set a manifest aside as the temporary file of {@link #write}, before
+     * its parts are rewritten, so it no longer vouches for them. The next
+     * manifest written to the same file replaces it.
+     *
+     * @param file The manifest file.
+     * @throws IOException If the file can't be moved.
+     */
+    static void invalidate(final Path file) throws IOException {
+        Files.move(file, tmp(file), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param file The manifest file.
+     * @return The file the manifest is written to before it replaces it.
+     */
+    private static Path tmp(final Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    /**
+     * Read a manifest file.
+     *
+     * @param file The manifest file.
+     * @return The manifest, or null if there's no manifest.
+     * @throws IOException If the file can't be read or parsed.
+     */
+    static Manifest read(final Path file) throws IOException {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (lines.isEmpty() || !HEADER.equals(lines.get(0))) {
+            throw new IOException("Not a manifest: " + file);
+        }
+        Map<String, String> header = new HashMap<>();
+        int first = 1; // the first part
+        for (; first < lines.size()
+                && !lines.get(first).startsWith("part\t"); first++) {
+            String line = lines.get(first);
+            int tab = line.indexOf('\t');
+            if (tab < 0) {
+                throw new IOException("Bad manifest line: " + line);
+            }
+            header.put(line.substring(0, tab), line.substring(tab + 1));
+        }
+        try {
+            Manifest manifest = new Manifest(field(header, "algorithm", file),
+                    field(header, "source", file),
+                    Long.parseLong(field(header, "chunkSize", file)),
+                    FileSplitterServiceImpl.Boundaries.valueOf(
+                            header.getOrDefault("boundaries", "FIXED")));
+            manifest.complete(Long.parseLong(field(header, "size", file)),
+                    field(header, "checksum", file));
+            for (String line : lines.subList(first, lines.size())) {
+                String[] fields = line.split("\t");
+                if (fields.length != 5 || !"part".equals(fields[0])) {
+                    throw new IOException("Bad manifest line: " + line);
+                }
+                manifest.add(fields[1], Long.parseLong(fields[2]),
+                        Long.parseLong(fields[3]), fields[4]);
+            }
+            return manifest;
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Bad manifest: " + file, e);
+        }
+    }
+
+    /**
+     * @param header The "key TAB value" lines before the parts, by key.
+     * @param key    The key of the field.
+     * @param file   The manifest file.
+     * @return The value of the field.
+     * @throws IOException If the manifest has no such field.
+     */
+    private static String field(final Map<String, String> header,
+                                final String key, final Path file)
+            throws IOException {
+        String value = header.get(key);
+        if (value == null) {
+            throw new IOException("No " + key + " in manifest: " + file);
+        }
+        return value;
+    }
+
+    /**
+     * @return The name of the digest algorithm.
+     */
+    String algorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return The filename of the source.
+     */
+    String source() {
+        return source;
+    }
+
+    /**
+     * @return The chunk size of the split.
+     */
+    long chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return Where the chunks of the split end.
+     */
+    FileSplitterServiceImpl.Boundaries boundaries() {
+        return boundaries;
+    }
+
+    /**
+     * @return The size of the source.
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * @return The checksum of the whole source.
+     */
+    String checksum() {
+        return checksum;
+    }
+
+    /**
+     * @return The parts, in order.
+     */
+    List<Part> parts() {
+        return Collections.unmodifiableList(parts);
+    }
+
+    /**
+     * One part of the split.
+     */
+    static final class Part {
+
+        /**
+         * The filename of the part.
+         */
+        private final String name;
+
+        /**
+         * The position of the part in the source.
+         */
+        private final long offset;
+
+        /**
+         * The length of the part.
+         */
+        private final long length;
+
+        /**
+         * The checksum of the part.
+         */
+        private final String checksum;
+
+        Part(final String name, final long offset, final long length,
+             final String checksum) {
+            this.name = name;
+            this.offset = offset;
+            this.length = length;
+            this.checksum = checksum;
+        }
+
+        /**
+         * @return The filename of the part.
+         */
+        String name() {
+            return name;
+        }
+
+        /**
+         * @return The position of the part in the source.
+         */
+        long offset() {
+            return offset;
+        }
+
+        /**
+         * @return The length of the part.
+         */
+        long length() {
+            return length;
+        }
+
+        /**
+         * @return The checksum of the part.
+         */
+        String checksum() {
+            return checksum;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.filesplitter.service.impl;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Releases mapped buffers as soon as they're no longer needed, instead of
+ * waiting for the garbage collector to unmap them. There's no public API for
+ * this, so it goes through sun.misc.Unsafe#invokeCleaner (jdk.unsupported)
+ * and falls back to the garbage collector if that's not available.
+ */
+final class MappedBuffers {
+
+    /**
+     * A simple text logger, nothing fancy.
+     */
+    private static final Logger LOGGER =
+            Logger.getLogger(MappedBuffers.class.getName());
+
+    /**
+     * The sun.misc.Unsafe instance, null if not available.
+     */
+    private static final Object UNSAFE;
+
+    /**
+     * Unsafe#invokeCleaner(ByteBuffer), null if not available.
+     */
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod(
+                    "invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.log(Level.WARNING,
+                    "[mmap] can't unmap buffers explicitly, "
+                            + "leaving it to the garbage collector", e);
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private MappedBuffers() {
+    }
+
+    /**
+     * Unmap the buffer. The buffer must not be used afterwards.
+     *
+     * @param buffer The buffer to unmap.
+     */
+    static void unmap(final MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.log(Level.WARNING, "[mmap] unmap failed", e);
+        }
+    }
+}
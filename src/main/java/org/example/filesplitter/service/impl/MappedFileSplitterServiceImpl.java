@@ -0,0 +1,124 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.FileSplitterService;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class MappedFileSplitterServiceImpl implements FileSplitterService {
+
+    /**
+     * The size of the source window mapped at a time.
+     */
+    private final int windowSize;
+
+    /**
+     * Create the service with the specified window size in bytes.
+     *
+     * @param windowSize The number of bytes of the source mapped at a time.
+     */
+    public MappedFileSplitterServiceImpl(final int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalStateException(
+                    "Window size not valid: " + windowSize);
+        }
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Split the file by mapping it one window at a time and writing each
+     * window to the chunk(s) it belongs to. A window can end in the middle of
+     * a chunk and a chunk can end in the middle of a window. Each window is
+     * unmapped as soon as it has been written. The chunks are named like
+     * {@link FileSplitterServiceImpl} names them.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @throws SplitException
+     */
+    @Override
+    public void split(final Path src, final Path dest, final long chunkSize,
+                      final AtomicBoolean interrupted) throws SplitException {
+        FileChannel out = null;
+        try (FileChannel in = FileChannel.open(src, StandardOpenOption.READ)) {
+            final long size = in.size();
+            String start = ChunkNames.prefix();
+            long count = 1;
+            long chunkBytesLeft = chunkSize;
+            for (long position = 0; position < size && !interrupted.get();
+                 position += windowSize) {
+                MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY,
+                        position, Math.min(windowSize, size - position));
+                try {
+                    while (window.hasRemaining() && !interrupted.get()) {
+                        if (out == null) {
+                            out = open(dest.resolve(
+                                    ChunkNames.name(start, count)));
+                        }
+                        int length = (int) Math.min(
+                                window.remaining(), chunkBytesLeft);
+                        window.limit(window.position() + length);
+                        while (window.hasRemaining()) {
+                            out.write(window);
+                        }
+                        window.limit(window.capacity());
+                        chunkBytesLeft -= length;
+                        if (chunkBytesLeft == 0) { // finished this chunk
+                            out.close();
+                            out = null;
+                            count++;
+                            chunkBytesLeft = chunkSize;
+                        }
+                    }
+                } finally {
+                    MappedBuffers.unmap(window);
+                }
+            }
+            if (out != null) { // the last, shorter chunk
+                out.close();
+                out = null;
+            }
+        } catch (Exception e) {
+            throw new SplitException(e);
+        } finally {
+            closeQuietly(out);
+        }
+    }
+
+    /**
+     * Open (or truncate) a chunk file for writing.
+     *
+     * @param file The chunk file.
+     * @return The chunk file channel.
+     * @throws IOException If the file can't be opened.
+     */
+    private FileChannel open(final Path file) throws IOException {
+        return FileChannel.open(file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Close the channel of an unfinished chunk, if there is one.
+     *
+     * @param out The channel to close, may be null.
+     */
+    private void closeQuietly(final FileChannel out) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            // the split already failed or was interrupted
+        }
+    }
+}
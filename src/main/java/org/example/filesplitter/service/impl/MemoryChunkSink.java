@@ -0,0 +1,60 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.service.ChunkSink;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the chunks in memory, for tests and for callers that handle the
+ * chunks themselves. Abandoned chunks are dropped.
+ */
+public final class MemoryChunkSink implements ChunkSink {
+
+    /**
+     * The complete chunks by name.
+     */
+    private final Map<String, byte[]> chunks = new ConcurrentHashMap<>();
+
+    /**
+     * Collect the chunk in memory until its stream is closed.
+     *
+     * @param name The name of the chunk.
+     * @return The stream of the chunk.
+     */
+    @Override
+    public OutputStream open(final String name) {
+        return new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                chunks.put(name, toByteArray());
+            }
+        };
+    }
+
+    /**
+     * Drop the chunk.
+     *
+     * @param chunk A stream returned by {@link #open}.
+     */
+    @Override
+    public void abandon(final OutputStream chunk) {
+    }
+
+    /**
+     * Nothing to finish.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * @return A copy of the complete chunks, sorted by name.
+     */
+    public Map<String, byte[]> chunks() {
+        return new TreeMap<>(chunks);
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.filesplitter.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds where every N lines end in a file. The bytes are compared eight at a
+ * time as longs (SWAR), so newlines are counted without looking at each byte.
+ */
+final class NewlineScanner {
+
+    /**
+     * The low 7 bits of every byte of a long.
+     */
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    /**
+     * A newline in every byte of a long.
+     */
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+
+    /**
+     * The buffer holding the part of the file being scanned.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * @param bufferSize The number of bytes read at a time.
+     */
+    NewlineScanner(final int bufferSize) {
+        this.buffer = ByteBuffer.allocateDirect(bufferSize)
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Find the start of every part of lines.
+     *
+     * @param in           The channel to scan.
+     * @param linesPerPart The number of lines in each part.
+     * @param interrupted  A flag for interrupting from outside the method.
+     * @return The start of every part, in order, starting with 0. Empty for
+     * an empty file.
+     * @throws IOException If the channel can't be read.
+     */
+    List<Long> partOffsets(final FileChannel in, final long linesPerPart,
+                           final AtomicBoolean interrupted)
+            throws IOException {
+        final long size = in.size();
+        List<Long> offsets = new ArrayList<>();
+        if (size > 0) {
+            offsets.add(0L);
+        }
+        long linesLeft = linesPerPart;
+        long position = 0;
+        while (position < size && !interrupted.get()) {
+            buffer.clear();
+            int length = in.read(buffer, position);
+            if (length <= 0) {
+                break;
+            }
+            int i = 0;
+            for (; i + Long.BYTES <= length; i += Long.BYTES) {
+                long newlines = newlines(buffer.getLong(i));
+                int count = Long.bitCount(newlines);
+                if (count < linesLeft) {
+                    linesLeft -= count;
+                    continue;
+                }
+                while (newlines != 0) {
+                    long end = position + i
+                            + (Long.numberOfTrailingZeros(newlines) >>> 3) + 1;
+                    newlines &= newlines - 1;
+                    if (--linesLeft == 0) {
+                        if (end < size) {
+                            offsets.add(end);
+                        }
+                        linesLeft = linesPerPart;
+                    }
+                }
+            }
+            for (; i < length; i++) {
+                if (buffer.get(i) == '\n' && --linesLeft == 0) {
+                    if (position + i + 1 < size) {
+                        offsets.add(position + i + 1);
+                    }
+                    linesLeft = linesPerPart;
+                }
+            }
+            position += length;
+        }
+        return offsets;
+    }
+
+    /**
+     * @param word Eight bytes of the file, little endian.
+     * @return The high bit of every byte of the word that is a newline set,
+     * and no other bit.
+     */
+    private static long newlines(final long word) {
+        long x = word ^ NEWLINES; // newline bytes are now 0
+        return ~(((x & LOW_BITS) + LOW_BITS) | x | LOW_BITS);
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.FileSplitterService;
+import org.example.filesplitter.service.ProgressListener;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ParallelFileSplitterServiceImpl implements FileSplitterService {
+
+    /**
+     * The max number of chunks written at the same time.
+     */
+    private final int parallelism;
+
+    /**
+     * Writes each chunk, see
+     * {@link TransferFileSplitterServiceImpl#transferChunk}.
+     */
+    private final TransferFileSplitterServiceImpl transfer;
+
+    /**
+     * Create the service with the specified degree of parallelism.
+     *
+     * @param parallelism     The max number of chunks written at the same
+     *                        time.
+     * @param maxTransferSize The max number of bytes copied by the kernel
+     *                        before checking for an interruption.
+     */
+    public ParallelFileSplitterServiceImpl(final int parallelism,
+                                           final long maxTransferSize) {
+        this(parallelism, maxTransferSize, null);
+    }
+
+    /**
+     * Create the service with the specified degree of parallelism, timing
+     * every transfer, open and close of a split.
+     *
+     * @param parallelism     The max number of chunks written at the same
+     *                        time.
+     * @param maxTransferSize The max number of bytes copied by the kernel
+     *                        before checking for an interruption.
+     * @param metrics         Records the splits, may be null to skip the
+     *                        timing altogether.
+     */
+    public ParallelFileSplitterServiceImpl(final int parallelism,
+                                           final long maxTransferSize,
+                                           final SplitMetrics metrics) {
+        if (parallelism <= 0) {
+            throw new IllegalStateException(
+                    "Parallelism not valid: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.transfer = new TransferFileSplitterServiceImpl(maxTransferSize,
+                metrics);
+    }
+
+    /**
+     * Split the file by computing the range of every chunk up front and
+     * writing the chunks concurrently on a pool of {@link #parallelism}
+     * threads. The chunks are named and filled exactly like the serial
+     * engines do. The first failure stops the remaining chunks.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @throws SplitException
+     */
+    @Override
+    public void split(final Path src, final Path dest, final long chunkSize,
+                      final AtomicBoolean interrupted) throws SplitException {
+        split(src, dest, chunkSize, interrupted, null);
+    }
+
+    /**
+     * Split the file like {@link #split(Path, Path, long, AtomicBoolean)},
+     * counting the transfers of every thread.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @param listener    Receives the progress, may be null.
+     * @throws SplitException
+     */
+    @Override
+    public void split(final Path src, final Path dest, final long chunkSize,
+                      final AtomicBoolean interrupted,
+                      final ProgressListener listener) throws SplitException {
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        try (FileChannel in = FileChannel.open(src, StandardOpenOption.READ)) {
+            String start = ChunkNames.prefix();
+            ProgressTracker progress = ProgressTracker.of(listener, in.size());
+            SplitMetrics run = transfer.newRun();
+            List<Future<Void>> chunks = new ArrayList<>();
+            for (ChunkRange range : ChunkRange.of(in.size(), chunkSize)) {
+                chunks.add(pool.submit(() -> {
+                    if (!interrupted.get() && !failed.get()) {
+                        try {
+                            transfer.transferChunk(in, dest, start, range,
+                                    () -> interrupted.get() || failed.get(),
+                                    progress, run);
+                        } catch (IOException | RuntimeException e) {
+                            failed.set(true); // stop the others now
+                            throw e;
+                        }
+                    }
+                    return null;
+                }));
+            }
+            try {
+                for (Future<Void> chunk : chunks) {
+                    chunk.get();
+                }
+                if (progress != null && !interrupted.get()) {
+                    progress.finish();
+                }
+                transfer.complete(run);
+            } catch (ExecutionException | InterruptedException e) {
+                failed.set(true);
+                throw e;
+            } finally {
+                // let the workers finish before the source is closed
+                pool.shutdown();
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        } catch (ExecutionException e) {
+            throw new SplitException(e.getCause() instanceof Exception
+                    ? (Exception) e.getCause() : e);
+        } catch (Exception e) {
+            throw new SplitException(e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.FileSplitterService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PipelinedFileSplitterServiceImpl implements FileSplitterService {
+
+    /**
+     * The size of each buffer of the ring.
+     */
+    private final int bufferSize;
+
+    /**
+     * The number of buffers of the ring.
+     */
+    private final int ringSize;
+
+    /**
+     * The number of writer threads.
+     */
+    private final int writers;
+
+    /**
+     * Create the service with the specified ring of buffers.
+     *
+     * @param bufferSize The size of each buffer of the ring.
+     * @param ringSize   The number of buffers of the ring, so how far the
+     *                   reader can get ahead of the writers.
+     * @param writers    The number of writer threads.
+     */
+    public PipelinedFileSplitterServiceImpl(final int bufferSize,
+                                            final int ringSize,
+                                            final int writers) {
+        if (bufferSize <= 0) {
+            throw new IllegalStateException(
+                    "Buffer size not valid: " + bufferSize);
+        }
+        if (ringSize <= 0) {
+            throw new IllegalStateException(
+                    "Ring size not valid: " + ringSize);
+        }
+        if (writers <= 0) {
+            throw new IllegalStateException(
+                    "Writers not valid: " + writers);
+        }
+        this.bufferSize = bufferSize;
+        this.ringSize = ringSize;
+        this.writers = writers;
+    }
+
+    /**
+     * Split the file with reads and writes overlapping: this thread reads the
+     * source into a ring of {@link #ringSize} direct buffers, allocated once,
+     * while {@link #writers} threads write the filled buffers to their chunk
+     * files at their position and hand them back. When every buffer is
+     * filled the reader waits for a writer, so memory stays bounded. Every
+     * buffer holds bytes of a single chunk, and a chunk file is closed by
+     * the writer of its last bytes. The chunks are named like
+     * {@link FileSplitterServiceImpl} names them.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @throws SplitException
+     */
+    @Override
+    public void split(final Path src, final Path dest, final long chunkSize,
+                      final AtomicBoolean interrupted) throws SplitException {
+        BlockingQueue<Slot> free = new ArrayBlockingQueue<>(ringSize);
+        BlockingQueue<Slot> filled = new ArrayBlockingQueue<>(ringSize);
+        for (int i = 0; i < ringSize; i++) {
+            free.add(new Slot(ByteBuffer.allocateDirect(bufferSize)));
+        }
+        Set<ChunkFile> open = ConcurrentHashMap.newKeySet();
+        AtomicBoolean failed = new AtomicBoolean(false);
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        List<Future<Void>> drains = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            drains.add(pool.submit(
+                    () -> drain(free, filled, open, interrupted, failed)));
+        }
+        try {
+            try (FileChannel in = FileChannel.open(src,
+                    StandardOpenOption.READ)) {
+                String start = ChunkNames.prefix();
+                for (ChunkRange range : ChunkRange.of(in.size(), chunkSize)) {
+                    if (interrupted.get() || failed.get()) {
+                        break;
+                    }
+                    read(in, dest, start, range, free, filled, open,
+                            interrupted, failed);
+                }
+            } catch (IOException | InterruptedException e) {
+                failed.set(true);
+                throw e;
+            } finally {
+                for (int i = 0; i < writers; i++) {
+                    filled.put(Slot.END);
+                }
+                for (Future<Void> drain : drains) {
+                    drain.get();
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new SplitException(e.getCause() instanceof Exception
+                    ? (Exception) e.getCause() : e);
+        } catch (Exception e) {
+            throw new SplitException(e);
+        } finally {
+            pool.shutdownNow();
+            for (ChunkFile file : open) {
+                closeQuietly(file.channel);
+            }
+        }
+    }
+
+    /**
+     * Read one chunk of the source into buffers from the ring and queue them
+     * for the writers.
+     *
+     * @param in          The source channel.
+     * @param dest        The destination directory.
+     * @param prefix      The prefix shared by all the chunks of the split.
+     * @param range       The chunk to read.
+     * @param free        The buffers ready to be filled.
+     * @param filled      The buffers ready to be written.
+     * @param open        The chunk files not closed yet.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @param failed      Set when a writer failed.
+     * @throws IOException          If the source can't be read or the chunk
+     *                              file can't be created.
+     * @throws InterruptedException If the thread is interrupted while
+     *                              waiting for a buffer.
+     */
+    private void read(final FileChannel in, final Path dest,
+                      final String prefix, final ChunkRange range,
+                      final BlockingQueue<Slot> free,
+                      final BlockingQueue<Slot> filled,
+                      final Set<ChunkFile> open,
+                      final AtomicBoolean interrupted,
+                      final AtomicBoolean failed)
+            throws IOException, InterruptedException {
+        ChunkFile file = new ChunkFile(FileChannel.open(
+                dest.resolve(ChunkNames.name(prefix, range.count())),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE), range.length());
+        open.add(file);
+        long done = 0;
+        while (done < range.length() && !interrupted.get() && !failed.get()) {
+            Slot slot = free.take();
+            ByteBuffer buffer = slot.buffer;
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(),
+                    range.length() - done));
+            try {
+                while (buffer.hasRemaining()) {
+                    if (in.read(buffer, range.offset() + done
+                            + buffer.position()) < 0) {
+                        throw new IOException("Source truncated at offset "
+                                + (range.offset() + done + buffer.position()));
+                    }
+                }
+            } catch (IOException e) {
+                free.add(slot);
+                throw e;
+            }
+            buffer.flip();
+            slot.file = file;
+            slot.position = done;
+            done += buffer.remaining();
+            filled.put(slot);
+        }
+    }
+
+    /**
+     * Write the filled buffers until the reader is done, handing every
+     * buffer back to the ring. After a failure or an interruption the
+     * buffers are handed back without being written, so the reader never
+     * waits forever.
+     *
+     * @param free        The buffers ready to be filled.
+     * @param filled      The buffers ready to be written.
+     * @param open        The chunk files not closed yet.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @param failed      Set when this or another thread failed.
+     * @return Nothing.
+     * @throws IOException          If a write or close fails.
+     * @throws InterruptedException If the thread is interrupted.
+     */
+    private Void drain(final BlockingQueue<Slot> free,
+                       final BlockingQueue<Slot> filled,
+                       final Set<ChunkFile> open,
+                       final AtomicBoolean interrupted,
+                       final AtomicBoolean failed)
+            throws IOException, InterruptedException {
+        IOException error = null;
+        Slot slot;
+        while ((slot = filled.take()) != Slot.END) {
+            try {
+                if (!interrupted.get() && !failed.get()) {
+                    write(slot, open);
+                }
+            } catch (IOException e) {
+                failed.set(true);
+                error = e;
+            } finally {
+                slot.file = null;
+                free.put(slot);
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        return null;
+    }
+
+    /**
+     * Write a filled buffer at its position in its chunk file, closing the
+     * file once all of its bytes are written.
+     *
+     * @param slot The filled buffer.
+     * @param open The chunk files not closed yet.
+     * @throws IOException If the write or close fails.
+     */
+    private void write(final Slot slot, final Set<ChunkFile> open)
+            throws IOException {
+        ByteBuffer buffer = slot.buffer;
+        int length = buffer.remaining();
+        long position = slot.position;
+        while (buffer.hasRemaining()) {
+            position += slot.file.channel.write(buffer, position);
+        }
+        if (slot.file.left.addAndGet(-length) == 0) {
+            open.remove(slot.file);
+            slot.file.channel.close();
+        }
+    }
+
+    /**
+     * @param channel The channel to close after a failure.
+     */
+    private void closeQuietly(final FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // the split already failed or was interrupted
+        }
+    }
+
+    /**
+     * A buffer of the ring, with where its bytes go once filled.
+     */
+    private static final class Slot {
+
+        /**
+         * Tells a writer that the reader is done.
+         */
+        private static final Slot END = new Slot(null);
+
+        /**
+         * The buffer, allocated once per split.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * The chunk file the bytes go to.
+         */
+        private ChunkFile file;
+
+        /**
+         * The position of the bytes in the chunk file.
+         */
+        private long position;
+
+        Slot(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * A chunk file shared by the writers until all of its bytes are written.
+     */
+    private static final class ChunkFile {
+
+        /**
+         * The chunk file channel.
+         */
+        private final FileChannel channel;
+
+        /**
+         * The number of bytes of the chunk not written yet.
+         */
+        private final AtomicLong left;
+
+        ChunkFile(final FileChannel channel, final long length) {
+            this.channel = channel;
+            this.left = new AtomicLong(length);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.service.ProgressListener;
+import org.example.filesplitter.service.SplitProgress;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the bytes of a split and reports them to a listener at most every
+ * {@link #REPORT_INTERVAL_NANOS}. Between reports an update is an atomic add
+ * and a clock read, so it can be called from the copy loop of every engine,
+ * from several threads at once.
+ */
+final class ProgressTracker {
+
+    /**
+     * The min time between two reports.
+     */
+    static final long REPORT_INTERVAL_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(200);
+
+    /**
+     * Receives the reports.
+     */
+    private final ProgressListener listener;
+
+    /**
+     * The size of the source.
+     */
+    private final long totalBytes;
+
+    /**
+     * When the split started.
+     */
+    private final long startNanos;
+
+    /**
+     * The number of bytes split so far.
+     */
+    private final AtomicLong bytesDone = new AtomicLong();
+
+    /**
+     * The time of the next report. Only the thread that moves it reports.
+     */
+    private final AtomicLong nextReport;
+
+    /**
+     * The highest chunk number seen.
+     */
+    private final AtomicLong chunk = new AtomicLong();
+
+    /**
+     * The bytes done before the split started, by a resumed split.
+     */
+    private long skipped;
+
+    /**
+     * The time of the previous report, written by the reporting thread.
+     */
+    private long lastNanos;
+
+    /**
+     * The bytes done at the previous report, written by the reporting thread.
+     */
+    private long lastBytes;
+
+    /**
+     * Start tracking a split.
+     *
+     * @param listener   Receives the reports.
+     * @param totalBytes The size of the source.
+     */
+    ProgressTracker(final ProgressListener listener, final long totalBytes) {
+        this.listener = listener;
+        this.totalBytes = totalBytes;
+        this.startNanos = System.nanoTime();
+        this.lastNanos = startNanos;
+        this.nextReport = new AtomicLong(startNanos + REPORT_INTERVAL_NANOS);
+    }
+
+    /**
+     * @param listener   Receives the reports, may be null.
+     * @param totalBytes The size of the source.
+     * @return A tracker, or null for no listener.
+     */
+    static ProgressTracker of(final ProgressListener listener,
+                              final long totalBytes) {
+        return listener == null ? null
+                : new ProgressTracker(listener, totalBytes);
+    }
+
+    /**
+     * Count bytes done before the split started, like the chunks a resumed
+     * split keeps, without counting them in the rates. Called before the
+     * first {@link #add}.
+     *
+     * @param bytes The number of bytes already done.
+     */
+    synchronized void skip(final long bytes) {
+        bytesDone.addAndGet(bytes);
+        skipped += bytes;
+        lastBytes += bytes;
+    }
+
+    /**
+     * Count bytes written to a chunk, reporting if it's time.
+     *
+     * @param bytes The number of bytes just written.
+     * @param count The number of the chunk they were written to.
+     */
+    void add(final long bytes, final long count) {
+        bytesDone.addAndGet(bytes);
+        if (chunk.get() < count) {
+            chunk.accumulateAndGet(count, Math::max);
+        }
+        long now = System.nanoTime();
+        long next = nextReport.get();
+        if (now >= next && nextReport.compareAndSet(next,
+                now + REPORT_INTERVAL_NANOS)) {
+            report(now);
+        }
+    }
+
+    /**
+     * Report the final progress, whatever the time since the last report.
+     */
+    void finish() {
+        nextReport.set(Long.MAX_VALUE);
+        report(System.nanoTime());
+    }
+
+    /**
+     * @param now The current time.
+     */
+    private synchronized void report(final long now) {
+        long done = bytesDone.get();
+        double instant = rate(done - lastBytes, now - lastNanos);
+        double average = rate(done - skipped, now - startNanos);
+        lastNanos = now;
+        lastBytes = done;
+        listener.progress(new SplitProgress(done, totalBytes,
+                Math.max(1, chunk.get()), instant, average));
+    }
+
+    /**
+     * @param bytes The number of bytes.
+     * @param nanos The time they took.
+     * @return The rate in bytes per second.
+     */
+    private static double rate(final long bytes, final long nanos) {
+        return nanos <= 0 ? 0 : bytes * 1e9 / nanos;
+    }
+}
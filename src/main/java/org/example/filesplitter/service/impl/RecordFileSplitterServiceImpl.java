@@ -0,0 +1,150 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.FileSplitterService;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class RecordFileSplitterServiceImpl implements FileSplitterService {
+
+    /**
+     * The delimiter of text lines, a single newline.
+     */
+    public static final byte[] NEWLINE = {'\n'};
+
+    /**
+     * The byte sequence ending each record.
+     */
+    private final byte[] delimiter;
+
+    /**
+     * The number of bytes read at a time when looking for a delimiter.
+     */
+    private final int scanBufferSize;
+
+    /**
+     * Writes each chunk, see
+     * {@link TransferFileSplitterServiceImpl#transferChunk}.
+     */
+    private final TransferFileSplitterServiceImpl transfer;
+
+    /**
+     * Create the service with the specified record delimiter.
+     *
+     * @param delimiter       The byte sequence ending each record, for
+     *                        example {@link #NEWLINE}.
+     * @param scanBufferSize  The number of bytes read at a time when looking
+     *                        for a delimiter.
+     * @param maxTransferSize The max number of bytes copied by the kernel
+     *                        before checking for an interruption.
+     */
+    public RecordFileSplitterServiceImpl(final byte[] delimiter,
+                                         final int scanBufferSize,
+                                         final long maxTransferSize) {
+        this(delimiter, scanBufferSize, maxTransferSize, null);
+    }
+
+    /**
+     * Create the service with the specified record delimiter, timing every
+     * transfer, open and close of a split.
+     *
+     * @param delimiter       The byte sequence ending each record, for
+     *                        example {@link #NEWLINE}.
+     * @param scanBufferSize  The number of bytes read at a time when looking
+     *                        for a delimiter.
+     * @param maxTransferSize The max number of bytes copied by the kernel
+     *                        before checking for an interruption.
+     * @param metrics         Records the splits, may be null to skip the
+     *                        timing altogether.
+     */
+    public RecordFileSplitterServiceImpl(final byte[] delimiter,
+                                         final int scanBufferSize,
+                                         final long maxTransferSize,
+                                         final SplitMetrics metrics) {
+        if (delimiter.length == 0) {
+            throw new IllegalStateException("Delimiter is empty");
+        }
+        if (scanBufferSize < delimiter.length) {
+            throw new IllegalStateException(
+                    "Scan buffer size not valid: " + scanBufferSize);
+        }
+        this.delimiter = delimiter.clone();
+        this.scanBufferSize = scanBufferSize;
+        this.transfer = new TransferFileSplitterServiceImpl(maxTransferSize,
+                metrics);
+    }
+
+    /**
+     * Split the file so that every chunk ends with a whole record. Each chunk
+     * aims for chunkSize bytes and then moves its end to the nearest record
+     * boundary, shrinking or extending it. On a tie the chunk shrinks. A
+     * record longer than a chunk ends up in a chunk of its own. Only the last
+     * chunk may end without a delimiter. The chunks are named like
+     * {@link FileSplitterServiceImpl} names them.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination directory.
+     * @param chunkSize   The target chunk size in bytes.
+     * @param interrupted A flag for interrupting from outside the method.
+     * @throws SplitException
+     */
+    @Override
+    public void split(final Path src, final Path dest, final long chunkSize,
+                      final AtomicBoolean interrupted) throws SplitException {
+        DelimiterScanner scanner =
+                new DelimiterScanner(delimiter, scanBufferSize);
+        try (FileChannel in = FileChannel.open(src, StandardOpenOption.READ)) {
+            final long size = in.size();
+            String start = ChunkNames.prefix();
+            SplitMetrics run = transfer.newRun();
+            long count = 1;
+            for (long offset = 0; offset < size && !interrupted.get();
+                 count++) {
+                long end = end(in, scanner, offset, chunkSize, size);
+                transfer.transferChunk(in, dest, start,
+                        new ChunkRange(count, offset, end - offset),
+                        interrupted::get, null, run);
+                offset = end;
+            }
+            transfer.complete(run);
+        } catch (Exception e) {
+            throw new SplitException(e);
+        }
+    }
+
+    /**
+     * Find where the chunk starting at an offset ends.
+     *
+     * @param in        The source channel.
+     * @param scanner   Finds the record boundaries.
+     * @param offset    The start of the chunk, a record boundary.
+     * @param chunkSize The target chunk size in bytes.
+     * @param size      The size of the source.
+     * @return The end of the chunk, exclusive.
+     * @throws IOException If the source can't be read.
+     */
+    private long end(final FileChannel in, final DelimiterScanner scanner,
+                     final long offset, final long chunkSize, final long size)
+            throws IOException {
+        if (size - offset <= chunkSize) {
+            return size;
+        }
+        final long target = offset + chunkSize;
+        long previous = scanner.previous(in, offset, target);
+        if (previous == target) {
+            return target;
+        }
+        // a boundary after the target only wins if it's strictly closer
+        long limit = previous < 0 ? size
+                : Math.min(size, target + (target - previous) - 1);
+        long next = scanner.next(in, offset, target, limit);
+        if (next >= 0) {
+            return next;
+        }
+        return previous < 0 ? size : previous;
+    }
+}
@@ -0,0 +1,350 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.service.ChunkSink;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uploads every chunk as an object to S3 or an S3-compatible store, straight
+ * from the split with no local copy. A chunk up to the part size is sent
+ * with one PUT; a larger one with a multipart upload, one part at a time
+ * from a single part buffer, so a chunk in flight holds at most the part
+ * size in memory whatever its size. The chunks are independent uploads:
+ * an engine writing several chunks at the same time uploads them in
+ * parallel.
+ * <p>
+ * The objects are addressed path-style, endpoint/bucket/key, which every
+ * S3-compatible store accepts, and the requests are signed with Signature
+ * Version 4.
+ */
+public final class S3ChunkSink implements ChunkSink {
+
+    /**
+     * The smallest part S3 accepts in a multipart upload, but for the last.
+     */
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    /**
+     * Shared by all the sinks. S3 only speaks HTTP/1.1, and a plain-HTTP
+     * store shouldn't be asked to upgrade.
+     */
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+    /**
+     * The body of the requests without one.
+     */
+    private static final byte[] EMPTY = new byte[0];
+
+    /**
+     * The URI of the bucket, without a trailing slash.
+     */
+    private final String bucket;
+
+    /**
+     * Prepended to the name of every chunk to make its key.
+     */
+    private final String keyPrefix;
+
+    /**
+     * The max number of bytes buffered for a chunk.
+     */
+    private final int partSize;
+
+    /**
+     * Signs the requests.
+     */
+    private final AwsSigner signer;
+
+    /**
+     * @param endpoint  The store, like https://s3.eu-west-1.amazonaws.com or
+     *                  http://localhost:9000.
+     * @param bucket    The bucket.
+     * @param keyPrefix Prepended to the name of every chunk to make its key,
+     *                  like backups/ (may be empty).
+     * @param region    The region, like eu-west-1.
+     * @param accessKey The access key id.
+     * @param secretKey The secret access key.
+     * @param partSize  The max number of bytes buffered for a chunk, and the
+     *                  size of its parts. S3 needs at least
+     *                  {@link #MIN_PART_SIZE}.
+     */
+    public S3ChunkSink(final URI endpoint, final String bucket,
+                       final String keyPrefix, final String region,
+                       final String accessKey, final String secretKey,
+                       final int partSize) {
+        if (partSize <= 0) {
+            throw new IllegalStateException(
+                    "Part size not valid: " + partSize);
+        }
+        String base = endpoint.toString();
+        this.bucket = (base.endsWith("/") ? base : base + "/")
+                + AwsSigner.encode(bucket, false);
+        this.keyPrefix = keyPrefix;
+        this.partSize = partSize;
+        this.signer = new AwsSigner(accessKey, secretKey, region, "s3");
+    }
+
+    /**
+     * Start the upload of a chunk. Nothing is sent until the part buffer is
+     * full or the stream is closed.
+     *
+     * @param name The name of the chunk.
+     * @return The stream of the chunk, closed to complete the upload.
+     */
+    @Override
+    public OutputStream open(final String name) {
+        return new Upload(bucket + "/"
+                + AwsSigner.encode(keyPrefix + name, true));
+    }
+
+    /**
+     * Abort the multipart upload of the chunk, if it was started, so the
+     * parts already sent are deleted.
+     *
+     * @param chunk A stream returned by {@link #open}.
+     * @throws IOException If the upload can't be aborted.
+     */
+    @Override
+    public void abandon(final OutputStream chunk) throws IOException {
+        ((Upload) chunk).abort();
+    }
+
+    /**
+     * Nothing to finish, every chunk is a separate upload.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Send a request and check that it succeeded.
+     *
+     * @param method The HTTP method.
+     * @param uri    The URI of the request.
+     * @param body   The buffer of the body.
+     * @param length The length of the body.
+     * @return The response.
+     * @throws IOException If the request fails or the store rejects it.
+     */
+    private HttpResponse<String> send(final String method, final URI uri,
+                                      final byte[] body, final int length)
+            throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .method(method, length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body, 0,
+                        length));
+        signer.sign(method, uri, AwsSigner.sha256(body, 0, length),
+                Instant.now()).forEach(request::header);
+        HttpResponse<String> response;
+        try {
+            response = CLIENT.send(request.build(),
+                    HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted: " + method + " "
+                    + uri);
+        }
+        // completing a multipart upload can fail after a 200 status
+        if (response.statusCode() / 100 != 2
+                || response.body().contains("<Error>")) {
+            throw new IOException(method + " " + uri + " failed with "
+                    + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+
+    /**
+     * The upload of one chunk.
+     */
+    private final class Upload extends OutputStream {
+
+        /**
+         * The URI of the object of the chunk.
+         */
+        private final String object;
+
+        /**
+         * The ETags of the parts sent, by part number minus one.
+         */
+        private final List<String> etags = new ArrayList<>();
+
+        /**
+         * The part being filled, allocated on the first write.
+         */
+        private byte[] part = EMPTY;
+
+        /**
+         * The number of bytes in the part.
+         */
+        private int filled;
+
+        /**
+         * The id of the multipart upload, null until a part is full.
+         */
+        private String uploadId;
+
+        /**
+         * Whether the upload was completed or aborted.
+         */
+        private boolean closed;
+
+        /**
+         * @param object The URI of the object of the chunk.
+         */
+        Upload(final String object) {
+            this.object = object;
+        }
+
+        /**
+         * @param b The byte to write.
+         * @throws IOException If a part can't be sent.
+         */
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        /**
+         * Fill the part, sending it once it's full and more bytes come, so
+         * a chunk of exactly the part size still takes a single PUT.
+         *
+         * @param b   The buffer.
+         * @param off The position of the first byte.
+         * @param len The number of bytes.
+         * @throws IOException If a part can't be sent.
+         */
+        @Override
+        public void write(final byte[] b, final int off, final int len)
+                throws IOException {
+            if (closed) {
+                throw new IOException("Upload closed: " + object);
+            }
+            if (part == EMPTY && len > 0) {
+                part = new byte[partSize];
+            }
+            int position = off;
+            int remaining = len;
+            while (remaining > 0) {
+                if (filled == partSize) {
+                    sendPart();
+                }
+                int n = Math.min(remaining, partSize - filled);
+                System.arraycopy(b, position, part, filled, n);
+                filled += n;
+                position += n;
+                remaining -= n;
+            }
+        }
+
+        /**
+         * Send the chunk with a single PUT, or send the last part and
+         * complete the multipart upload. If that fails, the multipart
+         * upload is aborted, so the store doesn't keep its parts.
+         *
+         * @throws IOException If the upload can't be completed.
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            try {
+                if (uploadId == null) {
+                    send("PUT", URI.create(object), part, filled);
+                } else {
+                    if (filled > 0) {
+                        sendPart();
+                    }
+                    complete();
+                }
+            } catch (IOException | RuntimeException e) {
+                try {
+                    abort();
+                } catch (IOException | RuntimeException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+            closed = true;
+            part = EMPTY;
+        }
+
+        /**
+         * Complete the multipart upload with every part sent.
+         *
+         * @throws IOException If the upload can't be completed.
+         */
+        private void complete() throws IOException {
+            StringBuilder xml = new StringBuilder("<CompleteMultipartUpload>");
+            for (int i = 0; i < etags.size(); i++) {
+                xml.append("<Part><PartNumber>").append(i + 1)
+                        .append("</PartNumber><ETag>")
+                        .append(etags.get(i)).append("</ETag></Part>");
+            }
+            byte[] body = xml.append("</CompleteMultipartUpload>")
+                    .toString().getBytes(StandardCharsets.UTF_8);
+            send("POST", URI.create(object + "?uploadId="
+                    + AwsSigner.encode(uploadId, false)), body, body.length);
+        }
+
+        /**
+         * Abort the multipart upload, if any, and release the part.
+         *
+         * @throws IOException If the upload can't be aborted.
+         */
+        void abort() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            part = EMPTY;
+            if (uploadId != null) {
+                send("DELETE", URI.create(object + "?uploadId="
+                        + AwsSigner.encode(uploadId, false)), EMPTY, 0);
+            }
+        }
+
+        /**
+         * Send the full part, starting the multipart upload first if
+         * needed.
+         *
+         * @throws IOException If the part can't be sent.
+         */
+        private void sendPart() throws IOException {
+            if (uploadId == null) {
+                String body = send("POST", URI.create(object + "?uploads"),
+                        EMPTY, 0).body();
+                int start = body.indexOf("<UploadId>");
+                int end = body.indexOf("</UploadId>");
+                if (start < 0 || end < start) {
+                    throw new IOException("No upload id for " + object
+                            + ": " + body);
+                }
+                uploadId = body.substring(start + "<UploadId>".length(), end);
+            }
+            int number = etags.size() + 1;
+            HttpResponse<String> response = send("PUT", URI.create(object
+                    + "?partNumber=" + number + "&uploadId="
+                    + AwsSigner.encode(uploadId, false)), part, filled);
+            etags.add(response.headers().firstValue("ETag").orElseThrow(
+                    () -> new IOException("No ETag for part " + number
+                            + " of " + object)));
+            filled = 0;
+        }
+    }
+}
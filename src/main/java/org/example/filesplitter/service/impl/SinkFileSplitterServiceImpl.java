@@ -0,0 +1,203 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.ChunkSink;
+import org.example.filesplitter.service.FileSplitterService;
+import org.example.filesplitter.service.ProgressListener;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+public class SinkFileSplitterServiceImpl implements FileSplitterService {
+
+    /**
+     * Creates the sink of every split.
+     */
+    private final ChunkSink.Factory sinks;
+
+    /**
+     * The max number of chunks written at the same time.
+     */
+    private final int parallelism;
+
+    /**
+     * The size of the buffer of every thread.
+     */
+    private final int bufferSize;
+
+    /**
+     * Create the service writing the chunks to the sinks of a factory.
+     * Memory is bounded by parallelism times the buffer size, plus what the
+     * sink holds for every chunk in flight.
+     *
+     * @param sinks       Creates the sink of every split.
+     * @param parallelism The max number of chunks written at the same time.
+     * @param bufferSize  The size of the buffer of every thread.
+     */
+    public SinkFileSplitterServiceImpl(final ChunkSink.Factory sinks,
+                                       final int parallelism,
+                                       final int bufferSize) {
+        if (parallelism <= 0) {
+            throw new IllegalStateException(
+                    "Parallelism not valid: " + parallelism);
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalStateException(
+                    "Buffer size not valid: " + bufferSize);
+        }
+        this.sinks = sinks;
+        this.parallelism = parallelism;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Split the file into the sink created for the destination. The chunks
+     * are named and filled like the other engines do, and written
+     * concurrently on a pool of {@link #parallelism} threads. The first
+     * failure stops the remaining chunks, and the unfinished chunks are
+     * abandoned.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination, passed to the sink factory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @throws SplitException
+     */
+    @Override
+    public void split(final Path src, final Path dest, final long chunkSize,
+                      final AtomicBoolean interrupted) throws SplitException {
+        split(src, dest, chunkSize, interrupted, null);
+    }
+
+    /**
+     * Split the file like {@link #split(Path, Path, long, AtomicBoolean)},
+     * counting the bytes written by every thread.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination, passed to the sink factory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @param listener    Receives the progress, may be null.
+     * @throws SplitException
+     */
+    @Override
+    public void split(final Path src, final Path dest, final long chunkSize,
+                      final AtomicBoolean interrupted,
+                      final ProgressListener listener) throws SplitException {
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        BooleanSupplier stopped = () -> interrupted.get() || failed.get();
+        ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(
+                () -> ByteBuffer.allocate(bufferSize));
+        try (FileChannel in = FileChannel.open(src, StandardOpenOption.READ)) {
+            String prefix = ChunkNames.prefix();
+            ProgressTracker progress = ProgressTracker.of(listener, in.size());
+            try (ChunkSink sink = sinks.create(dest, prefix)) {
+                List<Future<Void>> chunks = new ArrayList<>();
+                for (ChunkRange range : ChunkRange.of(in.size(), chunkSize)) {
+                    chunks.add(pool.submit(() -> {
+                        if (!stopped.getAsBoolean()) {
+                            try {
+                                writeChunk(in, sink, prefix, range,
+                                        buffers.get(), stopped, progress);
+                            } catch (IOException | RuntimeException e) {
+                                failed.set(true); // stop the others now
+                                throw e;
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                try {
+                    for (Future<Void> chunk : chunks) {
+                        chunk.get();
+                    }
+                    if (progress != null && !interrupted.get()) {
+                        progress.finish();
+                    }
+                } catch (ExecutionException | InterruptedException e) {
+                    failed.set(true);
+                    throw e;
+                } finally {
+                    // every chunk is closed or abandoned before the sink
+                    pool.shutdown();
+                    pool.awaitTermination(Long.MAX_VALUE,
+                            TimeUnit.NANOSECONDS);
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new SplitException(e.getCause() instanceof Exception
+                    ? (Exception) e.getCause() : e);
+        } catch (Exception e) {
+            throw new SplitException(e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Stream one chunk to the sink, abandoning it if the split stops, or if
+     * writing or closing the chunk fails.
+     *
+     * @param in       The source.
+     * @param sink     The sink of the split.
+     * @param prefix   The prefix of the chunk names.
+     * @param range    The chunk to write.
+     * @param buffer   The buffer of the thread.
+     * @param stopped  Whether the split must stop early.
+     * @param progress Counts the bytes written, may be null.
+     * @throws IOException If the chunk can't be read or written.
+     */
+    private static void writeChunk(final FileChannel in, final ChunkSink sink,
+                                   final String prefix,
+                                   final ChunkRange range,
+                                   final ByteBuffer buffer,
+                                   final BooleanSupplier stopped,
+                                   final ProgressTracker progress)
+            throws IOException {
+        OutputStream out = sink.open(ChunkNames.name(prefix, range.count()));
+        try {
+            long position = range.offset();
+            long end = range.offset() + range.length();
+            while (position < end) {
+                if (stopped.getAsBoolean()) {
+                    sink.abandon(out);
+                    return;
+                }
+                buffer.clear().limit((int) Math.min(buffer.capacity(),
+                        end - position));
+                int read = in.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException("Source truncated at " + position);
+                }
+                out.write(buffer.array(), 0, read);
+                position += read;
+                if (progress != null) {
+                    progress.add(read, range.count());
+                }
+            }
+            out.close();
+        } catch (IOException | RuntimeException e) {
+            try {
+                sink.abandon(out);
+            } catch (IOException | RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.service.Digest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The progress of a resumable split, kept next to the chunks as
+ * prefix_split.journal. Every completed chunk is appended with its checksum
+ * and flushed to the device, so after a crash or a cancel the split can
+ * continue after the last committed chunk. The journal is deleted when the
+ * split completes.
+ */
+final class SplitJournal implements Closeable {
+
+    /**
+     * The first line of every journal, with the format version. The
+     * journals of version 1, without the boundaries, are never resumed.
+     */
+    private static final String HEADER = "filesplitter-journal 2";
+
+    /**
+     * The key of the header line with the boundaries.
+     */
+    private static final String BOUNDARIES = "boundaries\t";
+
+    /**
+     * The number of bytes read at a time to checksum a committed chunk.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The end of the filename of every journal.
+     */
+    private static final String SUFFIX = "_split.journal";
+
+    /**
+     * The journal file.
+     */
+    private final Path file;
+
+    /**
+     * The prefix shared by all the chunks of the split.
+     */
+    private final String prefix;
+
+    /**
+     * The channel the chunks are appended to.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The chunks committed so far, in order.
+     */
+    private final List<ChunkRange> chunks;
+
+    /**
+     * The checksums of {@link #chunks}.
+     */
+    private final List<String> checksums;
+
+    private SplitJournal(final Path file, final String prefix,
+                         final FileChannel channel,
+                         final List<ChunkRange> chunks,
+                         final List<String> checksums) {
+        this.file = file;
+        this.prefix = prefix;
+        this.channel = channel;
+        this.chunks = chunks;
+        this.checksums = checksums;
+    }
+
+    /**
+     * Start the journal of a new split.
+     *
+     * @param dest      The destination directory.
+     * @param prefix    The prefix shared by all the chunks of the split.
+     * @param src       The source file.
+     * @param chunkSize  The chunk size of the split.
+     * @param algorithm  The name of the digest of the checksums.
+     * @param boundaries Where the chunks of the split end.
+     * @return The journal, open for committing chunks.
+     * @throws IOException If the journal can't be written.
+     */
+    static SplitJournal create(final Path dest, final String prefix,
+                               final Path src, final long chunkSize,
+                               final String algorithm,
+                               final FileSplitterServiceImpl.Boundaries
+                                       boundaries) throws IOException {
+        Path file = dest.resolve(prefix + SUFFIX);
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try {
+            write(channel, String.join("\n", HEADER, header(src, chunkSize,
+                    algorithm), BOUNDARIES + boundaries.name()) + "\n");
+            channel.force(true);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new SplitJournal(file, prefix, channel,
+                new ArrayList<>(), new ArrayList<>());
+    }
+
+    /**
+     * Find the journal of an unfinished split of the same source, with the
+     * same chunk size and checksums, and reopen it. Only the committed chunks
+     * whose files are still there with the committed length and checksum
+     * are kept, so every kept chunk is read back once; the first one that
+     * doesn't match, the ones after it and a line torn by a crash are cut
+     * from the journal. A split with other boundaries isn't resumed, since
+     * the chunks would mix both.
+     *
+     * @param dest       The destination directory.
+     * @param src        The source file.
+     * @param chunkSize  The chunk size of the split.
+     * @param digest     The digest of the checksums, reset when this
+     *                   returns.
+     * @param boundaries Where the chunks of the split end.
+     * @return The journal, open for committing chunks, or null if there's no
+     * matching journal.
+     * @throws IOException If a journal can't be read, or the unfinished
+     *                     split of the source has other boundaries.
+     */
+    static SplitJournal resume(final Path dest, final Path src,
+                               final long chunkSize, final Digest digest,
+                               final FileSplitterServiceImpl.Boundaries
+                                       boundaries) throws IOException {
+        List<Path> journals;
+        try (Stream<Path> files = Files.list(dest)) {
+            journals = files
+                    .filter(f -> f.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Collections.reverseOrder())
+                    .collect(Collectors.toList());
+        }
+        String split = String.join("\n", HEADER,
+                header(src, chunkSize, digest.algorithm()), BOUNDARIES);
+        String expected = split + boundaries.name() + "\n";
+        for (Path file : journals) {
+            String content = Files.readString(file, StandardCharsets.UTF_8);
+            if (content.startsWith(expected)) {
+                return open(dest, file, content, expected.length(), digest);
+            }
+            if (content.startsWith(split)) {
+                throw new IOException("The unfinished split in " + file
+                        + " doesn't have " + boundaries.name() + " boundaries,"
+                        + " resume it with the same boundaries or delete it");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reopen a journal, keeping the chunks that are still valid.
+     *
+     * @param dest       The destination directory.
+     * @param file       The journal file.
+     * @param content    The content of the journal.
+     * @param headerSize The number of chars of the header.
+     * @param digest     The digest of the checksums.
+     * @return The journal, open for committing chunks.
+     * @throws IOException If the journal can't be written or a chunk read.
+     */
+    private static SplitJournal open(final Path dest, final Path file,
+                                     final String content,
+                                     final int headerSize,
+                                     final Digest digest)
+            throws IOException {
+        String name = file.getFileName().toString();
+        String prefix = name.substring(0, name.length() - SUFFIX.length());
+        List<ChunkRange> chunks = new ArrayList<>();
+        List<String> checksums = new ArrayList<>();
+        // the file is cut in bytes, the content is parsed in chars
+        long validLength = content.substring(0, headerSize)
+                .getBytes(StandardCharsets.UTF_8).length;
+        int lineStart = headerSize;
+        int lineEnd;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while ((lineEnd = content.indexOf('\n', lineStart)) >= 0) {
+            String[] fields = content.substring(lineStart, lineEnd)
+                    .split("\t");
+            ChunkRange chunk = parse(fields, chunks.size() + 1);
+            if (chunk == null || !committed(dest, prefix, chunk, fields[4],
+                    digest, buffer)) {
+                break;
+            }
+            chunks.add(chunk);
+            checksums.add(fields[4]);
+            validLength += content.substring(lineStart, lineEnd + 1)
+                    .getBytes(StandardCharsets.UTF_8).length;
+            lineStart = lineEnd + 1;
+        }
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.WRITE);
+        channel.truncate(validLength);
+        channel.position(validLength);
+        return new SplitJournal(file, prefix, channel, chunks, checksums);
+    }
+
+    /**
+     * @param fields The fields of a chunk line.
+     * @param count  The expected chunk number.
+     * @return The chunk, or null if the line isn't the expected chunk.
+     */
+    private static ChunkRange parse(final String[] fields, final long count) {
+        if (fields.length != 5 || !"chunk".equals(fields[0])) {
+            return null;
+        }
+        try {
+            ChunkRange chunk = new ChunkRange(Long.parseLong(fields[1]),
+                    Long.parseLong(fields[2]), Long.parseLong(fields[3]));
+            return chunk.count() == count ? chunk : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param dest     The destination directory.
+     * @param prefix   The prefix shared by all the chunks of the split.
+     * @param chunk    A chunk from the journal.
+     * @param checksum The checksum of the chunk from the journal.
+     * @param digest   The digest of the checksums.
+     * @param buffer   The buffer to read the chunk file with.
+     * @return Whether the chunk file is there with the committed length and
+     * checksum.
+     * @throws IOException If the chunk file can't be read.
+     */
+    private static boolean committed(final Path dest, final String prefix,
+                                     final ChunkRange chunk,
+                                     final String checksum,
+                                     final Digest digest,
+                                     final byte[] buffer)
+            throws IOException {
+        Path file = dest.resolve(ChunkNames.name(prefix, chunk.count()));
+        if (!Files.isRegularFile(file) || Files.size(file) != chunk.length()) {
+            return false;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int n; (n = in.read(buffer)) > 0; ) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return digest.digest().equals(checksum);
+    }
+
+    /**
+     * @param src       The source file.
+     * @param chunkSize The chunk size of the split.
+     * @param algorithm The name of the digest of the checksums.
+     * @return The lines identifying the split, without the last newline.
+     * @throws IOException If the source can't be read.
+     */
+    private static String header(final Path src, final long chunkSize,
+                                 final String algorithm) throws IOException {
+        return String.join("\n",
+                "source\t" + src.toAbsolutePath(),
+                "size\t" + Files.size(src),
+                "modified\t" + Files.getLastModifiedTime(src).toMillis(),
+                "chunkSize\t" + chunkSize,
+                "algorithm\t" + algorithm);
+    }
+
+    /**
+     * Commit a completed chunk. It's on the device when this returns.
+     *
+     * @param chunk    The chunk.
+     * @param checksum The checksum of the chunk.
+     * @throws IOException If the journal can't be written.
+     */
+    void commit(final ChunkRange chunk, final String checksum)
+            throws IOException {
+        write(channel, String.join("\t", "chunk",
+                Long.toString(chunk.count()), Long.toString(chunk.offset()),
+                Long.toString(chunk.length()), checksum) + "\n");
+        channel.force(false);
+        chunks.add(chunk);
+        checksums.add(checksum);
+    }
+
+    /**
+     * Close and delete the journal of a completed split.
+     *
+     * @throws IOException If the journal can't be deleted.
+     */
+    void complete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * @return The prefix shared by all the chunks of the split.
+     */
+    String prefix() {
+        return prefix;
+    }
+
+    /**
+     * @return The chunks committed so far, in order.
+     */
+    List<ChunkRange> chunks() {
+        return Collections.unmodifiableList(chunks);
+    }
+
+    /**
+     * @return The checksums of the chunks committed so far, in order.
+     */
+    List<String> checksums() {
+        return Collections.unmodifiableList(checksums);
+    }
+
+    /**
+     * @return The number of the first chunk that isn't committed.
+     */
+    long nextCount() {
+        return chunks.size() + 1;
+    }
+
+    /**
+     * @return The position in the source after the last committed chunk.
+     */
+    long nextOffset() {
+        if (chunks.isEmpty()) {
+            return 0;
+        }
+        ChunkRange last = chunks.get(chunks.size() - 1);
+        return last.offset() + last.length();
+    }
+
+    /**
+     * Keep the journal for a later resume.
+     *
+     * @throws IOException If the journal can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @param channel The channel to write to.
+     * @param text    The text to append.
+     * @throws IOException If the write fails.
+     */
+    private static void write(final FileChannel channel, final String text)
+            throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(
+                text.getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
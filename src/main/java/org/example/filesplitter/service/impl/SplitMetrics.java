@@ -0,0 +1,289 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.service.SplitMetricsMXBean;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of the splits of an engine, for JMX. Every split records into
+ * a fresh instance from {@link #newRun()}, merged into the totals when the
+ * split completes and optionally appended as a JSON line to a file. The
+ * counters are {@link LongAdder}s, so the threads of a parallel engine don't
+ * contend. Engines take a null instance to skip the clock reads altogether.
+ */
+public final class SplitMetrics implements SplitMetricsMXBean {
+
+    /**
+     * The JMX name the metrics are registered under.
+     */
+    public static final String OBJECT_NAME =
+            "org.example.filesplitter:type=SplitMetrics";
+
+    /**
+     * The number of latency buckets, one per power of two.
+     */
+    private static final int BUCKETS = Long.SIZE;
+
+    /**
+     * The number of completed splits.
+     */
+    private final LongAdder runs = new LongAdder();
+
+    /**
+     * The number of bytes read from the sources.
+     */
+    private final LongAdder bytesRead = new LongAdder();
+
+    /**
+     * The number of bytes written to the chunks.
+     */
+    private final LongAdder bytesWritten = new LongAdder();
+
+    /**
+     * The number of chunks written.
+     */
+    private final LongAdder chunks = new LongAdder();
+
+    /**
+     * The time spent reading.
+     */
+    private final LongAdder readNanos = new LongAdder();
+
+    /**
+     * The time spent writing.
+     */
+    private final LongAdder writeNanos = new LongAdder();
+
+    /**
+     * The time spent opening and closing chunk files.
+     */
+    private final LongAdder openCloseNanos = new LongAdder();
+
+    /**
+     * The operations by latency, see {@link #getLatencyHistogram()}.
+     */
+    private final LongAdder[] latency = new LongAdder[BUCKETS];
+
+    /**
+     * The file every completed split is appended to, null for none.
+     */
+    private final Path jsonFile;
+
+    /**
+     * The last completed split, as JSON.
+     */
+    private volatile String lastRun = "{}";
+
+    /**
+     * Create metrics that are only kept in memory.
+     */
+    public SplitMetrics() {
+        this(null);
+    }
+
+    /**
+     * Create metrics that also append every completed split to a file, one
+     * JSON object per line.
+     *
+     * @param jsonFile The file to append to, may be null.
+     */
+    public SplitMetrics(final Path jsonFile) {
+        this.jsonFile = jsonFile;
+        for (int i = 0; i < BUCKETS; i++) {
+            latency[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return Empty metrics for one split, see {@link #complete}.
+     */
+    SplitMetrics newRun() {
+        return new SplitMetrics();
+    }
+
+    /**
+     * Record a read.
+     *
+     * @param bytes The number of bytes read.
+     * @param nanos The time it took.
+     */
+    void read(final long bytes, final long nanos) {
+        bytesRead.add(bytes);
+        readNanos.add(nanos);
+        latency(nanos);
+    }
+
+    /**
+     * Record a write.
+     *
+     * @param bytes The number of bytes written.
+     * @param nanos The time it took.
+     */
+    void write(final long bytes, final long nanos) {
+        bytesWritten.add(bytes);
+        writeNanos.add(nanos);
+        latency(nanos);
+    }
+
+    /**
+     * Record a copy that reads and writes at once, like a transfer.
+     *
+     * @param bytes The number of bytes copied.
+     * @param nanos The time it took, counted as writing.
+     */
+    void transfer(final long bytes, final long nanos) {
+        bytesRead.add(bytes);
+        write(bytes, nanos);
+    }
+
+    /**
+     * Record the opening or closing of a chunk file.
+     *
+     * @param nanos The time it took.
+     */
+    void openClose(final long nanos) {
+        openCloseNanos.add(nanos);
+        latency(nanos);
+    }
+
+    /**
+     * Record a complete chunk.
+     */
+    void chunk() {
+        chunks.increment();
+    }
+
+    /**
+     * Add the metrics of a completed split to the totals. The split is
+     * counted as one run in its own JSON line too.
+     *
+     * @param run The metrics of the split.
+     * @throws IOException If the JSON line can't be appended.
+     */
+    void complete(final SplitMetrics run) throws IOException {
+        runs.increment();
+        bytesRead.add(run.getBytesRead());
+        bytesWritten.add(run.getBytesWritten());
+        chunks.add(run.getChunks());
+        readNanos.add(run.getReadNanos());
+        writeNanos.add(run.getWriteNanos());
+        openCloseNanos.add(run.getOpenCloseNanos());
+        long[] histogram = run.getLatencyHistogram();
+        for (int i = 0; i < BUCKETS; i++) {
+            latency[i].add(histogram[i]);
+        }
+        run.runs.increment();
+        lastRun = run.toJson();
+        if (jsonFile != null) {
+            Files.write(jsonFile, (lastRun + System.lineSeparator())
+                            .getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    /**
+     * @param nanos The latency of an operation.
+     */
+    private void latency(final long nanos) {
+        latency[nanos <= 1 ? 0 : BUCKETS - 1 - Long.numberOfLeadingZeros(
+                nanos)].increment();
+    }
+
+    @Override
+    public long getRuns() {
+        return runs.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getChunks() {
+        return chunks.sum();
+    }
+
+    @Override
+    public long getReadNanos() {
+        return readNanos.sum();
+    }
+
+    @Override
+    public long getWriteNanos() {
+        return writeNanos.sum();
+    }
+
+    @Override
+    public long getOpenCloseNanos() {
+        return openCloseNanos.sum();
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        long[] histogram = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = latency[i].sum();
+        }
+        return histogram;
+    }
+
+    @Override
+    public String getLastRun() {
+        return lastRun;
+    }
+
+    /**
+     * The histogram is keyed by the lower bound of each non-empty bucket, in
+     * nanoseconds.
+     *
+     * @return All the metrics, as JSON.
+     */
+    @Override
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{")
+                .append("\"runs\":").append(getRuns())
+                .append(",\"bytesRead\":").append(getBytesRead())
+                .append(",\"bytesWritten\":").append(getBytesWritten())
+                .append(",\"chunks\":").append(getChunks())
+                .append(",\"readNanos\":").append(getReadNanos())
+                .append(",\"writeNanos\":").append(getWriteNanos())
+                .append(",\"openCloseNanos\":").append(getOpenCloseNanos())
+                .append(",\"latencyHistogram\":{");
+        long[] histogram = getLatencyHistogram();
+        String separator = "";
+        for (int i = 0; i < BUCKETS; i++) {
+            if (histogram[i] > 0) {
+                json.append(separator).append('"').append(1L << i)
+                        .append("\":").append(histogram[i]);
+                separator = ",";
+            }
+        }
+        return json.append("}}").toString();
+    }
+
+    @Override
+    public void reset() {
+        runs.reset();
+        bytesRead.reset();
+        bytesWritten.reset();
+        chunks.reset();
+        readNanos.reset();
+        writeNanos.reset();
+        openCloseNanos.reset();
+        for (LongAdder bucket : latency) {
+            bucket.reset();
+        }
+        lastRun = "{}";
+    }
+}
@@ -0,0 +1,206 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.FileSplitterService;
+import org.example.filesplitter.service.ProgressListener;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+public class TransferFileSplitterServiceImpl implements FileSplitterService {
+
+    /**
+     * The max number of bytes handed to a single transfer, so the interrupted
+     * flag is checked regularly even for very large chunks.
+     */
+    private final long maxTransferSize;
+
+    /**
+     * Records the transfers, opens and closes, null for none.
+     */
+    private final SplitMetrics metrics;
+
+    /**
+     * Create the service with the specified max transfer size in bytes.
+     *
+     * @param maxTransferSize The max number of bytes copied by the kernel
+     *                        before checking for an interruption.
+     */
+    public TransferFileSplitterServiceImpl(final long maxTransferSize) {
+        this(maxTransferSize, null);
+    }
+
+    /**
+     * Create the service with the specified max transfer size in bytes,
+     * timing every transfer, open and close of a split.
+     *
+     * @param maxTransferSize The max number of bytes copied by the kernel
+     *                        before checking for an interruption.
+     * @param metrics         Records the splits, may be null to skip the
+     *                        timing altogether.
+     */
+    public TransferFileSplitterServiceImpl(final long maxTransferSize,
+                                           final SplitMetrics metrics) {
+        if (maxTransferSize <= 0) {
+            throw new IllegalStateException(
+                    "Max transfer size not valid: " + maxTransferSize);
+        }
+        this.maxTransferSize = maxTransferSize;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Split the file by transferring each [offset, offset + chunkSize) range
+     * of the source channel straight into its chunk file, without copying the
+     * bytes through the heap. The chunks are named like
+     * {@link FileSplitterServiceImpl} names them.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @throws SplitException
+     */
+    @Override
+    public void split(final Path src, final Path dest, final long chunkSize,
+                      final AtomicBoolean interrupted) throws SplitException {
+        split(src, dest, chunkSize, interrupted, null);
+    }
+
+    /**
+     * Split the file like {@link #split(Path, Path, long, AtomicBoolean)},
+     * counting every transfer. With metrics, every transfer, open and close
+     * is timed, as a write, and the split is recorded once it ends.
+     *
+     * @param src         The path, corresponding to a file to split.
+     * @param dest        The destination directory.
+     * @param chunkSize   The chunk size in bytes (size of each split).
+     * @param interrupted A flag for interrupting from outside the method.
+     * @param listener    Receives the progress, may be null.
+     * @throws SplitException
+     */
+    @Override
+    public void split(final Path src, final Path dest, final long chunkSize,
+                      final AtomicBoolean interrupted,
+                      final ProgressListener listener) throws SplitException {
+        try (FileChannel in = FileChannel.open(src, StandardOpenOption.READ)) {
+            String start = ChunkNames.prefix();
+            ProgressTracker progress = ProgressTracker.of(listener, in.size());
+            SplitMetrics run = newRun();
+            for (ChunkRange range : ChunkRange.of(in.size(), chunkSize)) {
+                if (interrupted.get()) {
+                    break;
+                }
+                transferChunk(in, dest, start, range, interrupted::get,
+                        progress, run);
+            }
+            if (progress != null && !interrupted.get()) {
+                progress.finish();
+            }
+            complete(run);
+        } catch (Exception e) {
+            throw new SplitException(e);
+        }
+    }
+
+    /**
+     * Transfer one chunk of the source into its chunk file. Positional
+     * transfers don't move the source channel, so several chunks of the same
+     * channel can be transferred concurrently.
+     *
+     * @param in      The source channel.
+     * @param dest    The destination directory.
+     * @param prefix  The prefix shared by all the chunks of the split.
+     * @param range   The chunk to transfer.
+     * @param stopped Whether the transfer must stop early.
+     * @throws IOException If the transfer fails or the source shrinks.
+     */
+    void transferChunk(final FileChannel in, final Path dest,
+                       final String prefix, final ChunkRange range,
+                       final BooleanSupplier stopped) throws IOException {
+        transferChunk(in, dest, prefix, range, stopped, null, null);
+    }
+
+    /**
+     * Transfer one chunk like
+     * {@link #transferChunk(FileChannel, Path, String, ChunkRange,
+     * BooleanSupplier)}, counting and timing every transfer.
+     *
+     * @param in       The source channel.
+     * @param dest     The destination directory.
+     * @param prefix   The prefix shared by all the chunks of the split.
+     * @param range    The chunk to transfer.
+     * @param stopped  Whether the transfer must stop early.
+     * @param progress Counts the bytes transferred, may be null.
+     * @param run      Records the transfers, open and close, may be null.
+     * @throws IOException If the transfer fails or the source shrinks.
+     */
+    void transferChunk(final FileChannel in, final Path dest,
+                       final String prefix, final ChunkRange range,
+                       final BooleanSupplier stopped,
+                       final ProgressTracker progress, final SplitMetrics run)
+            throws IOException {
+        long started = run == null ? 0 : System.nanoTime();
+        FileChannel out = FileChannel.open(
+                dest.resolve(ChunkNames.name(prefix, range.count())),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        try {
+            if (run != null) {
+                run.openClose(System.nanoTime() - started);
+            }
+            long done = 0;
+            while (done < range.length() && !stopped.getAsBoolean()) {
+                if (run != null) {
+                    started = System.nanoTime();
+                }
+                long transferred = in.transferTo(range.offset() + done,
+                        Math.min(maxTransferSize, range.length() - done), out);
+                if (transferred <= 0) {
+                    throw new IOException("Source truncated at offset "
+                            + (range.offset() + done));
+                }
+                if (run != null) {
+                    run.transfer(transferred, System.nanoTime() - started);
+                }
+                done += transferred;
+                if (progress != null) {
+                    progress.add(transferred, range.count());
+                }
+            }
+        } finally {
+            if (run != null) {
+                started = System.nanoTime();
+            }
+            out.close();
+            if (run != null) {
+                run.openClose(System.nanoTime() - started);
+                run.chunk();
+            }
+        }
+    }
+
+    /**
+     * @return Empty metrics for a split, or null without metrics.
+     */
+    SplitMetrics newRun() {
+        return metrics == null ? null : metrics.newRun();
+    }
+
+    /**
+     * Record a split that ended.
+     *
+     * @param run The metrics of the split, may be null.
+     * @throws IOException If the metrics can't be dumped.
+     */
+    void complete(final SplitMetrics run) throws IOException {
+        if (run != null) {
+            metrics.complete(run);
+        }
+    }
+}
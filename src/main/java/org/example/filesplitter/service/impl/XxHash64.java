@@ -0,0 +1,200 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.service.Digest;
+
+/**
+ * A streaming xxHash64 (seed 0). It's not in the JDK, and it's several times
+ * faster than the cryptographic digests when the checksum only has to catch
+ * corruption.
+ */
+final class XxHash64 implements Digest {
+
+    /**
+     * The primes of the xxHash64 specification.
+     */
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+
+    /**
+     * The size of a stripe, consumed by the four accumulators.
+     */
+    private static final int STRIPE = 32;
+
+    /**
+     * The bytes of a stripe that hasn't been consumed yet.
+     */
+    private final byte[] pending = new byte[STRIPE];
+
+    /**
+     * The number of bytes in {@link #pending}.
+     */
+    private int pendingLength;
+
+    /**
+     * The total number of bytes fed.
+     */
+    private long total;
+
+    /**
+     * The four accumulators, one per 8 bytes of a stripe.
+     */
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+
+    /**
+     * Create a digest with no input.
+     */
+    XxHash64() {
+        reset();
+    }
+
+    /**
+     * @return "XXH64".
+     */
+    @Override
+    public String algorithm() {
+        return "XXH64";
+    }
+
+    /**
+     * Consume every full stripe and keep the rest for later.
+     *
+     * @param buffer The buffer holding the bytes.
+     * @param offset The index of the first byte.
+     * @param length The number of bytes.
+     */
+    @Override
+    public void update(final byte[] buffer, final int offset,
+                       final int length) {
+        total += length;
+        int i = offset;
+        final int end = offset + length;
+        if (pendingLength > 0) {
+            int n = Math.min(STRIPE - pendingLength, length);
+            System.arraycopy(buffer, i, pending, pendingLength, n);
+            pendingLength += n;
+            i += n;
+            if (pendingLength < STRIPE) {
+                return;
+            }
+            stripe(pending, 0);
+            pendingLength = 0;
+        }
+        for (; i + STRIPE <= end; i += STRIPE) {
+            stripe(buffer, i);
+        }
+        pendingLength = end - i;
+        System.arraycopy(buffer, i, pending, 0, pendingLength);
+    }
+
+    /**
+     * Merge the accumulators, mix in the last bytes and avalanche.
+     *
+     * @return The 64-bit hash in hex, like the reference implementation
+     * prints it.
+     */
+    @Override
+    public String digest() {
+        long h;
+        if (total >= STRIPE) {
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+                    + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            h = merge(h, v4);
+        } else {
+            h = P5;
+        }
+        h += total;
+        int i = 0;
+        for (; i + Long.BYTES <= pendingLength; i += Long.BYTES) {
+            h ^= round(0, readLong(pending, i));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+        }
+        if (i + Integer.BYTES <= pendingLength) {
+            h ^= (readInt(pending, i) & 0xFFFFFFFFL) * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            i += Integer.BYTES;
+        }
+        for (; i < pendingLength; i++) {
+            h ^= (pending[i] & 0xFFL) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+        }
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        reset();
+        return String.format("%016x", h);
+    }
+
+    /**
+     * Start over with no input.
+     */
+    private void reset() {
+        v1 = P1 + P2;
+        v2 = P2;
+        v3 = 0;
+        v4 = -P1;
+        total = 0;
+        pendingLength = 0;
+    }
+
+    /**
+     * Consume a full stripe.
+     *
+     * @param buffer The buffer holding the stripe.
+     * @param offset The index of the stripe.
+     */
+    private void stripe(final byte[] buffer, final int offset) {
+        v1 = round(v1, readLong(buffer, offset));
+        v2 = round(v2, readLong(buffer, offset + 8));
+        v3 = round(v3, readLong(buffer, offset + 16));
+        v4 = round(v4, readLong(buffer, offset + 24));
+    }
+
+    /**
+     * Mix 8 bytes of input into an accumulator.
+     */
+    private static long round(final long acc, final long input) {
+        return Long.rotateLeft(acc + input * P2, 31) * P1;
+    }
+
+    /**
+     * Merge an accumulator into the hash.
+     */
+    private static long merge(final long acc, final long value) {
+        return (acc ^ round(0, value)) * P1 + P4;
+    }
+
+    /**
+     * Read 8 bytes, little endian.
+     */
+    private static long readLong(final byte[] b, final int i) {
+        return (b[i] & 0xFFL)
+                | (b[i + 1] & 0xFFL) << 8
+                | (b[i + 2] & 0xFFL) << 16
+                | (b[i + 3] & 0xFFL) << 24
+                | (b[i + 4] & 0xFFL) << 32
+                | (b[i + 5] & 0xFFL) << 40
+                | (b[i + 6] & 0xFFL) << 48
+                | (b[i + 7] & 0xFFL) << 56;
+    }
+
+    /**
+     * Read 4 bytes, little endian.
+     */
+    private static int readInt(final byte[] b, final int i) {
+        return (b[i] & 0xFF)
+                | (b[i + 1] & 0xFF) << 8
+                | (b[i + 2] & 0xFF) << 16
+                | (b[i + 3] & 0xFF) << 24;
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.service.ChunkSink;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the chunks as the entries of one zip archive, so a split lands as a
+ * single file with no loose chunk files next to it. An archive is written
+ * sequentially, so only one chunk is open at a time: {@link #open} waits
+ * until the previous chunk is closed.
+ */
+public final class ZipChunkSink implements ChunkSink {
+
+    /**
+     * The buffer between the deflater and the archive file.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The archive.
+     */
+    private final ZipOutputStream zip;
+
+    /**
+     * Held by the chunk being written.
+     */
+    private final Semaphore entry = new Semaphore(1);
+
+    /**
+     * Create the archive, replacing any file of the same name.
+     *
+     * @param archive The archive file.
+     * @throws IOException If the archive can't be created.
+     */
+    public ZipChunkSink(final Path archive) throws IOException {
+        this.zip = new ZipOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(archive), BUFFER_SIZE));
+    }
+
+    /**
+     * Start an entry once the previous chunk is closed.
+     *
+     * @param name The name of the chunk and of its entry.
+     * @return The stream of the entry.
+     * @throws IOException If the entry can't be started.
+     */
+    @Override
+    public OutputStream open(final String name) throws IOException {
+        try {
+            entry.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for "
+                    + name);
+        }
+        try {
+            zip.putNextEntry(new ZipEntry(name));
+        } catch (IOException | RuntimeException e) {
+            entry.release();
+            throw e;
+        }
+        return new FilterOutputStream(zip) {
+            private boolean closed;
+
+            @Override
+            public void write(final byte[] b, final int off, final int len)
+                    throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    zip.closeEntry();
+                } finally {
+                    entry.release();
+                }
+            }
+        };
+    }
+
+    /**
+     * Write the central directory and close the archive. An abandoned entry
+     * ends where its chunk stopped.
+     *
+     * @throws IOException If the archive can't be finished.
+     */
+    @Override
+    public void close() throws IOException {
+        zip.close();
+    }
+}
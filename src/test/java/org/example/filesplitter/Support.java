@@ -1,8 +1,19 @@
 package org.example.filesplitter;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class Support {
 
@@ -22,4 +33,83 @@ public class Support {
         }
     }
 
+    public Path createFile(String name, byte[] content) {
+        Path file = createFile(name);
+        try {
+            return Files.write(file, content);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write file " + file, e);
+        }
+    }
+
+    /**
+     * Random but reproducible content for split tests.
+     */
+    public static byte[] randomBytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Read the chunks written to a directory, keyed by chunk number, so the
+     * output of different engines (and timestamp prefixes) can be compared.
+     */
+    public static Map<Long, byte[]> readChunks(Path dir) {
+        Map<Long, byte[]> chunks = new TreeMap<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                String name = p.getFileName().toString();
+                int index = name.lastIndexOf("_split_");
+                if (index < 0 || name.startsWith(".")) { // or not published yet
+                    continue;
+                }
+                String count = name.substring(index + "_split_".length());
+                if (count.indexOf('.') >= 0) { // an extension, like .gz
+                    count = count.substring(0, count.indexOf('.'));
+                }
+                chunks.put(Long.parseLong(count), Files.readAllBytes(p));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read chunks in " + dir, e);
+        }
+        return chunks;
+    }
+
+    /**
+     * Assert two directories hold the same chunks, whatever their prefixes.
+     */
+    public static void assertSameChunks(Path expected, Path actual) {
+        Map<Long, byte[]> expectedChunks = readChunks(expected);
+        Map<Long, byte[]> actualChunks = readChunks(actual);
+        assertEquals(expectedChunks.keySet(), actualChunks.keySet());
+        for (Long n : expectedChunks.keySet()) {
+            assertArrayEquals(expectedChunks.get(n), actualChunks.get(n), "chunk " + n);
+        }
+    }
+
+    /**
+     * Move the chunk prefix clock a few seconds ahead, so the next split gets a known prefix and some of its chunk
+     * files can be prepared before it starts.
+     *
+     * @return The prefix of the next split.
+     */
+    public static String pinNextPrefix() {
+        try {
+            Class<?> names = Class.forName("org.example.filesplitter.service.impl.ChunkNames");
+            Field field = names.getDeclaredField("LAST_PREFIX");
+            field.setAccessible(true);
+            Method prefix = names.getDeclaredMethod("prefix");
+            prefix.setAccessible(true);
+            AtomicLong last = (AtomicLong) field.get(null);
+            Instant ahead = Instant.now().plusSeconds(10);
+            last.set(ahead.getEpochSecond() * 1_000_000_000L + ahead.getNano());
+            String pinned = (String) prefix.invoke(null);
+            last.decrementAndGet(); // give the split the same prefix
+            return pinned;
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Could not pin the chunk prefix", e);
+        }
+    }
+
 }
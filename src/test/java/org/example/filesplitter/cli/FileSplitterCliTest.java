@@ -0,0 +1,147 @@
+package org.example.filesplitter.cli;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.controller.FileSplitterController;
+import org.example.filesplitter.service.SplitProgress;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class FileSplitterCliTest {
+
+    @TempDir
+    static Path tempDir;
+
+    static Path tempFile;
+
+    static final byte[] bytes = Support.randomBytes(10_000, 21);
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @BeforeAll
+    static void init() {
+        tempFile = new Support(tempDir).createFile("test.bin", bytes);
+    }
+
+    private int run(String... args) {
+        return FileSplitterCli.run(args, new PrintStream(out), new PrintStream(err), new AtomicBoolean(false), null);
+    }
+
+    /**
+     * Split and join back with the command line.
+     */
+    @Test
+    public void testSplitAndJoin() throws IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("split"));
+        assertEquals(FileSplitterController.SUCCESS, run("split", tempFile.toString(), dest.toString(), "3000"));
+        assertEquals(4, Support.readChunks(dest).size());
+
+        String name = Files.list(dest).findFirst().orElseThrow().getFileName().toString();
+        String prefix = name.substring(0, name.indexOf("_split_"));
+        Path target = tempDir.resolve("joined.bin");
+        assertEquals(FileSplitterController.SUCCESS, run("join", dest.toString(), prefix, target.toString()));
+        assertArrayEquals(bytes, Files.readAllBytes(target));
+    }
+
+    @Test
+    public void testSplitReportsProgress() throws IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("progress"));
+        List<SplitProgress> reports = new ArrayList<>();
+        assertEquals(FileSplitterController.SUCCESS, FileSplitterCli.run(
+                new String[]{"split", tempFile.toString(), dest.toString(), "3000"},
+                new PrintStream(out), new PrintStream(err), new AtomicBoolean(false), reports::add));
+        SplitProgress last = reports.get(reports.size() - 1);
+        assertEquals(bytes.length, last.bytesDone());
+        assertEquals(bytes.length, last.totalBytes());
+        assertEquals(4, last.chunk());
+    }
+
+    @Test
+    public void testExitCodesFromController() throws IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("codes"));
+        assertEquals(FileSplitterController.INVALID_SOURCE_FILE,
+                run("split", tempDir.resolve("missing").toString(), dest.toString(), "10"));
+        assertEquals(FileSplitterController.INVALID_DESTINATION_DIR,
+                run("split", tempFile.toString(), tempFile.toString(), "10"));
+        assertEquals(FileSplitterController.INVALID_CHUNK_SIZE,
+                run("split", tempFile.toString(), dest.toString(), "0"));
+        assertEquals(FileSplitterController.INVALID_CHUNK_SIZE,
+                run("split", tempFile.toString(), dest.toString(), "ten"));
+        assertEquals(FileSplitterController.IO_ERROR, run("verify", dest.toString(), "nothing"));
+    }
+
+    @Test
+    public void testUsage() {
+        assertEquals(FileSplitterCli.USAGE_ERROR, run());
+        assertEquals(FileSplitterCli.USAGE_ERROR, run("shred", "x"));
+        assertEquals(FileSplitterCli.USAGE_ERROR, run("split", tempFile.toString()));
+        assertEquals(FileSplitterController.SUCCESS, run("--help"));
+        assertTrue(out.toString().contains("Usage:"));
+    }
+
+    @Test
+    public void testBatchPrintsEveryFile() throws IOException {
+        Path dir = Files.createDirectory(tempDir.resolve("batch-src"));
+        Support support = new Support(dir);
+        support.createFile("a.dump", new byte[100]);
+        support.createFile("b.dump", new byte[200]);
+        Path dest = Files.createDirectory(tempDir.resolve("batch"));
+        assertEquals(FileSplitterController.SUCCESS, run("batch", dir.toString(), "*.dump", dest.toString(), "64"));
+        assertEquals(2, out.toString().lines().count());
+        assertEquals(6, Files.list(dest).count());
+    }
+
+    /**
+     * A named pipe is split as a stream, but lines and batch reject it rather than block on it or lose its data.
+     */
+    @Test
+    @Timeout(30)
+    public void testNamedPipeOnlyForSplit() throws Exception {
+        Path dir = Files.createDirectory(tempDir.resolve("pipes"));
+        Path fifo = dir.resolve("in.fifo");
+        Process mkfifo;
+        try {
+            mkfifo = new ProcessBuilder("mkfifo", fifo.toString()).start();
+        } catch (IOException e) {
+            assumeTrue(false, "no mkfifo");
+            return;
+        }
+        assumeTrue(mkfifo.waitFor() == 0, "no named pipes");
+        Path dest = Files.createDirectory(tempDir.resolve("piped"));
+
+        assertEquals(FileSplitterController.INVALID_SOURCE_FILE, run("lines", fifo.toString(), dest.toString(), "10"));
+        assertEquals(FileSplitterController.INVALID_SOURCE_FILE,
+                run("batch", dir.toString(), "*.fifo", dest.toString(), "3000"));
+        assertEquals(0, Files.list(dest).count());
+
+        CompletableFuture<Path> writer = CompletableFuture.supplyAsync(() -> {
+            try {
+                return Files.write(fifo, bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        assertEquals(FileSplitterController.SUCCESS, run("split", fifo.toString(), dest.toString(), "3000"));
+        writer.get(10, TimeUnit.SECONDS);
+        assertEquals(4, Support.readChunks(dest).size());
+    }
+
+}
@@ -0,0 +1,144 @@
+package org.example.filesplitter.controller.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.controller.BatchSplitterController;
+import org.example.filesplitter.controller.FileSplitterController;
+import org.example.filesplitter.service.impl.FileSplitterServiceImpl;
+import org.example.filesplitter.service.impl.FileValidationServiceImpl;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchSplitterControllerImplTest {
+
+    @TempDir
+    static Path tempDir;
+
+    static ExecutorService executor;
+
+    static List<Path> sources = new ArrayList<>();
+
+    @BeforeAll
+    static void init() {
+        executor = Executors.newFixedThreadPool(4);
+        Support support = new Support(tempDir);
+        for (int i = 0; i < 8; i++) {
+            sources.add(support.createFile("dump" + i + ".bin", Support.randomBytes(1_000 * (i + 1), i)));
+        }
+        support.createFile("other.txt", new byte[10]);
+    }
+
+    @AfterAll
+    static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Every file is split into the same directory, without two splits sharing chunk names.
+     */
+    @Test
+    public void testSplitsEveryFile() throws IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("all"));
+        BatchSplitterController batch = new BatchSplitterControllerImpl(
+                new FileSplitterControllerImpl(new FileValidationServiceImpl(), new FileSplitterServiceImpl(512)),
+                executor, 4);
+        Map<Path, Integer> results = batch.split(sources, dest, 1_000, new AtomicBoolean(false));
+
+        assertEquals(sources, new ArrayList<>(results.keySet()));
+        assertTrue(results.values().stream().allMatch(code -> code == FileSplitterController.SUCCESS));
+        // 1 + 2 + ... + 8 chunks
+        assertEquals(36, Files.list(dest).count());
+    }
+
+    @Test
+    public void testSplitsGlob() throws IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("glob"));
+        BatchSplitterController batch = new BatchSplitterControllerImpl(
+                new FileSplitterControllerImpl(new FileValidationServiceImpl(), new FileSplitterServiceImpl(512)),
+                executor, 2);
+        Map<Path, Integer> results = batch.split(tempDir, "dump*.bin", dest, 1_000, new AtomicBoolean(false));
+        assertEquals(sources, new ArrayList<>(results.keySet()));
+    }
+
+    @Test
+    public void testPerFileStatus() throws IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("status"));
+        Path missing = tempDir.resolve("missing.bin");
+        BatchSplitterController batch = new BatchSplitterControllerImpl(
+                (src, d, chunkSize, interrupted) -> {
+                    if (src.equals(sources.get(0))) {
+                        throw new IllegalStateException("boom");
+                    }
+                    return new FileSplitterControllerImpl(new FileValidationServiceImpl(),
+                            new FileSplitterServiceImpl(512)).split(src, d, chunkSize, interrupted);
+                },
+                executor, 2);
+        Map<Path, Integer> results = batch.split(List.of(sources.get(0), missing, sources.get(1)), dest, 1_000,
+                new AtomicBoolean(false));
+        assertEquals(FileSplitterController.IO_ERROR, results.get(sources.get(0)));
+        assertEquals(FileSplitterController.INVALID_SOURCE_FILE, results.get(missing));
+        assertEquals(FileSplitterController.SUCCESS, results.get(sources.get(1)));
+    }
+
+    /**
+     * The files are submitted largest first.
+     */
+    @Test
+    public void testLargestFirst() {
+        List<Path> started = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            new BatchSplitterControllerImpl((src, d, chunkSize, interrupted) -> {
+                started.add(src);
+                return FileSplitterController.SUCCESS;
+            }, single, 4).split(sources, tempDir, 1_000, new AtomicBoolean(false));
+        } finally {
+            single.shutdownNow();
+        }
+        List<Path> largestFirst = new ArrayList<>(sources);
+        Collections.reverse(largestFirst);
+        assertEquals(largestFirst, started);
+    }
+
+    /**
+     * With a single permit the files are split one at a time, whatever the executor.
+     */
+    @Test
+    public void testIoLimit() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        BatchSplitterController batch = new BatchSplitterControllerImpl(
+                (src, d, chunkSize, interrupted) -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.yield();
+                    running.decrementAndGet();
+                    return FileSplitterController.SUCCESS;
+                },
+                executor, 1);
+        batch.split(sources, tempDir, 1_000, new AtomicBoolean(false));
+
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void testFailOnMaxConcurrentIoZero() {
+        assertThrows(IllegalStateException.class, () -> new BatchSplitterControllerImpl(
+                (src, d, chunkSize, interrupted) -> FileSplitterController.SUCCESS, executor, 0));
+    }
+
+}
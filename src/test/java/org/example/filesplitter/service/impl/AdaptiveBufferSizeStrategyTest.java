@@ -0,0 +1,55 @@
+package org.example.filesplitter.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveBufferSizeStrategyTest {
+
+    @TempDir
+    static Path tempDir;
+
+    @Test
+    public void testFailOnMemoryBudgetZero() {
+        assertThrows(IllegalStateException.class, () -> new AdaptiveBufferSizeStrategy(0));
+    }
+
+    @Test
+    public void testDefaultSizeIsMultipleOfBlockSize() {
+        long blockSize = AdaptiveBufferSizeStrategy.blockSize(tempDir);
+        int size = new AdaptiveBufferSizeStrategy(Long.MAX_VALUE).bufferSize(tempDir, Long.MAX_VALUE);
+        assertTrue(size >= AdaptiveBufferSizeStrategy.DEFAULT_TARGET_SIZE / 2);
+        assertEquals(0, size % blockSize);
+    }
+
+    @Test
+    public void testSizeNeverLargerThanChunk() {
+        assertEquals(10, new AdaptiveBufferSizeStrategy(Long.MAX_VALUE).bufferSize(tempDir, 10));
+    }
+
+    @Test
+    public void testSizeWithinMemoryBudget() {
+        long blockSize = AdaptiveBufferSizeStrategy.blockSize(tempDir);
+        int size = new AdaptiveBufferSizeStrategy(blockSize * 3 + 1).bufferSize(tempDir, Long.MAX_VALUE);
+        assertEquals(blockSize * 3, size);
+    }
+
+    @Test
+    public void testCalibratedSizeIsRememberedPerStore() throws Exception {
+        List<Integer> candidates = List.of(8192, 65536);
+        BufferCalibrator calibrator = new BufferCalibrator(candidates, 256 * 1024);
+        int first = calibrator.calibrate(tempDir);
+        assertTrue(candidates.contains(first));
+        Path sibling = Files.createDirectory(tempDir.resolve("sibling"));
+        assertEquals(first, calibrator.calibrate(sibling));
+        try (var files = Files.list(tempDir)) {
+            assertTrue(files.noneMatch(p -> p.getFileName().toString().startsWith(".calibrate")));
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.exception.SplitException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncFileSplitterServiceImplTest {
+
+    @TempDir
+    static Path tempDir;
+
+    static Path tempFile;
+
+    static final byte[] bytes = Support.randomBytes(100_000, 17);
+
+    @BeforeAll
+    static void init() {
+        tempFile = new Support(tempDir).createFile("test.bin", bytes);
+    }
+
+    @Test
+    public void testFailOnBlockSizeZero() {
+        assertThrows(IllegalStateException.class, () -> new AsyncFileSplitterServiceImpl(0, 4));
+    }
+
+    @Test
+    public void testFailOnMaxInFlightZero() {
+        assertThrows(IllegalStateException.class, () -> new AsyncFileSplitterServiceImpl(1024, 0));
+    }
+
+    /**
+     * The async engine must produce the same chunks as the serial stream engine, whatever the queue depth.
+     */
+    @ParameterizedTest
+    @CsvSource({"1000, 512, 1", "3333, 512, 2", "3333, 4096, 16", "100000, 777, 64", "250000, 65536, 4"})
+    public void testSameOutputAsStreamEngine(long chunkSize, int blockSize, int maxInFlight)
+            throws SplitException, IOException {
+        String name = chunkSize + "-" + blockSize + "-" + maxInFlight;
+        Path expected = Files.createDirectory(tempDir.resolve("stream" + name));
+        new FileSplitterServiceImpl(4096).split(tempFile, expected, chunkSize, new AtomicBoolean(false));
+        Path actual = Files.createDirectory(tempDir.resolve("async" + name));
+        new AsyncFileSplitterServiceImpl(blockSize, maxInFlight)
+                .split(tempFile, actual, chunkSize, new AtomicBoolean(false));
+
+        Support.assertSameChunks(expected, actual);
+    }
+
+    /**
+     * Every block in flight holds its own direct buffer and a buffer is only allocated when no completed one can be
+     * reused, so the direct buffers allocated by a split bound the blocks it had in flight at once.
+     */
+    @Test
+    public void testInFlightWithinMax() throws SplitException, IOException {
+        BufferPoolMXBean direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .findFirst().orElseThrow();
+        Path dest = Files.createDirectory(tempDir.resolve("inflight"));
+        long before = direct.getCount();
+        new AsyncFileSplitterServiceImpl(100, 3).split(tempFile, dest, 1000, new AtomicBoolean(false));
+        long allocated = direct.getCount() - before;
+
+        assertTrue(allocated <= 3, allocated + " blocks in flight");
+        assertArrayEquals(bytes, Support.readChunks(dest).values().stream()
+                .reduce(new byte[0], AsyncFileSplitterServiceImplTest::concat));
+    }
+
+    @Test
+    public void testInterruptedWritesNothing() throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("interrupted"));
+        new AsyncFileSplitterServiceImpl(1024, 4).split(tempFile, dest, 1000, new AtomicBoolean(true));
+        assertTrue(Support.readChunks(dest).isEmpty());
+    }
+
+    @Test
+    public void testCatchExceptionOnMissingDestination() {
+        assertThrows(SplitException.class, () -> new AsyncFileSplitterServiceImpl(1024, 4)
+                .split(tempFile, tempDir.resolve("missing"), 1000, new AtomicBoolean(false)));
+    }
+
+    static byte[] concat(byte[] a, byte[] b) {
+        byte[] both = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, both, a.length, b.length);
+        return both;
+    }
+
+}
@@ -0,0 +1,134 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.exception.SplitException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressingFileSplitterServiceImplTest {
+
+    @TempDir
+    static Path tempDir;
+
+    static Path tempFile;
+
+    static byte[] bytes;
+
+    @BeforeAll
+    static void init() {
+        // half random, half repeated, so the blocks compress unevenly
+        bytes = new byte[100_000];
+        byte[] random = Support.randomBytes(50_000, 12);
+        System.arraycopy(random, 0, bytes, 0, random.length);
+        Arrays.fill(bytes, 50_000, bytes.length, (byte) 'z');
+        tempFile = new Support(tempDir).createFile("test.bin", bytes);
+    }
+
+    static byte[] gunzip(byte[] gz) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gz))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    public void testFailOnBlockSizeZero() {
+        assertThrows(IllegalStateException.class, () -> new CompressingFileSplitterServiceImpl(
+                new GzipCodec(Deflater.DEFAULT_COMPRESSION), 0, 2,
+                CompressingFileSplitterServiceImpl.Sizing.INPUT));
+    }
+
+    @Test
+    public void testFailOnCompressionLevelNotValid() {
+        assertThrows(IllegalStateException.class, () -> new GzipCodec(10));
+    }
+
+    /**
+     * Every chunk decompresses on its own to its range of the source.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 8})
+    public void testInputSizing(int parallelism) throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("input" + parallelism));
+        new CompressingFileSplitterServiceImpl(new GzipCodec(Deflater.BEST_SPEED), 4_096, parallelism,
+                CompressingFileSplitterServiceImpl.Sizing.INPUT)
+                .split(tempFile, dest, 30_000, new AtomicBoolean(false));
+
+        Map<Long, byte[]> chunks = Support.readChunks(dest);
+        assertEquals(4, chunks.size());
+        assertTrue(Files.list(dest).allMatch(p -> p.toString().endsWith(".gz")));
+        for (Map.Entry<Long, byte[]> chunk : chunks.entrySet()) {
+            int offset = (int) (chunk.getKey() - 1) * 30_000;
+            assertArrayEquals(Arrays.copyOfRange(bytes, offset, Math.min(bytes.length, offset + 30_000)),
+                    gunzip(chunk.getValue()));
+        }
+    }
+
+    /**
+     * No chunk is larger than the chunk size, and the joined chunks
+     * decompress to the source.
+     */
+    @Test
+    public void testOutputSizing() throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("output"));
+        new CompressingFileSplitterServiceImpl(new GzipCodec(Deflater.DEFAULT_COMPRESSION), 1_024, 4,
+                CompressingFileSplitterServiceImpl.Sizing.OUTPUT)
+                .split(tempFile, dest, 10_000, new AtomicBoolean(false));
+
+        Map<Long, byte[]> chunks = Support.readChunks(dest);
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (byte[] chunk : chunks.values()) {
+            assertTrue(chunk.length <= 10_000);
+            gunzip(chunk);
+            joined.writeBytes(chunk);
+        }
+        assertArrayEquals(bytes, gunzip(joined.toByteArray()));
+    }
+
+    /**
+     * The join service puts the compressed chunks back together as one gzip
+     * file.
+     */
+    @Test
+    public void testJoinedChunksDecompressToSource() throws Exception {
+        Path dest = Files.createDirectory(tempDir.resolve("join"));
+        new CompressingFileSplitterServiceImpl(new GzipCodec(Deflater.BEST_SPEED), 8_192, 2,
+                CompressingFileSplitterServiceImpl.Sizing.INPUT)
+                .split(tempFile, dest, 25_000, new AtomicBoolean(false));
+        List<String> names = Files.list(dest).map(p -> p.getFileName().toString()).collect(Collectors.toList());
+        String prefix = names.get(0).substring(0, names.get(0).indexOf("_split_"));
+
+        Path target = tempDir.resolve("joined.gz");
+        new FileJoinServiceImpl(2, 1_000).join(dest, prefix, target, new AtomicBoolean(false));
+        assertArrayEquals(bytes, gunzip(Files.readAllBytes(target)));
+    }
+
+    @Test
+    public void testEmptyFileHasNoChunks() throws SplitException, IOException {
+        Path empty = new Support(tempDir).createFile("empty.bin");
+        Path dest = Files.createDirectory(tempDir.resolve("empty"));
+        new CompressingFileSplitterServiceImpl(new GzipCodec(Deflater.BEST_SPEED), 1_024, 2,
+                CompressingFileSplitterServiceImpl.Sizing.OUTPUT)
+                .split(empty, dest, 100, new AtomicBoolean(false));
+        assertTrue(Support.readChunks(dest).isEmpty());
+    }
+
+}
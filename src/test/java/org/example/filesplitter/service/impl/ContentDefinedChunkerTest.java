@@ -0,0 +1,114 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.exception.SplitException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentDefinedChunkerTest {
+
+    @TempDir
+    static Path tempDir;
+
+    static final byte[] bytes = Support.randomBytes(1_000_000, 37);
+
+    /**
+     * The chunk ends of a whole source, fed to the chunker in buffers of the given size.
+     */
+    static List<Long> ends(byte[] source, int bufferSize) {
+        ContentDefinedChunker chunker = new ContentDefinedChunker(1_024, 4_096, 16_384);
+        List<Long> ends = new ArrayList<>();
+        for (int offset = 0; offset < source.length; offset += bufferSize) {
+            int length = Math.min(bufferSize, source.length - offset);
+            byte[] buffer = new byte[length];
+            System.arraycopy(source, offset, buffer, 0, length);
+            int from = 0;
+            int end;
+            while (from < length && (end = chunker.next(buffer, from, length)) >= 0) {
+                ends.add((long) offset + end);
+                from = end;
+            }
+        }
+        return ends;
+    }
+
+    @Test
+    public void testFailOnInvalidSizes() {
+        assertThrows(IllegalStateException.class, () -> new ContentDefinedChunker(0, 10, 20));
+        assertThrows(IllegalStateException.class, () -> new ContentDefinedChunker(20, 10, 30));
+        assertThrows(IllegalStateException.class, () -> new ContentDefinedChunker(10, 20, 15));
+    }
+
+    /**
+     * The boundaries don't depend on how the source is read.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 1_000, 65_536})
+    public void testBoundariesDontDependOnBuffers(int bufferSize) {
+        assertEquals(ends(bytes, bytes.length), ends(bytes, bufferSize));
+    }
+
+    /**
+     * Every chunk is within the min and max sizes, and near the average on average.
+     */
+    @Test
+    public void testChunkSizes() {
+        List<Long> ends = ends(bytes, 65_536);
+        long previous = 0;
+        for (long end : ends) {
+            assertTrue(end - previous >= 1_024, "chunk of " + (end - previous));
+            assertTrue(end - previous <= 16_384, "chunk of " + (end - previous));
+            previous = end;
+        }
+        double average = (double) previous / ends.size();
+        assertTrue(average > 2_048 && average < 8_192, "average of " + average);
+    }
+
+    /**
+     * Inserting a byte near the start only changes the chunks around it, unlike fixed-size chunks.
+     */
+    @Test
+    public void testInsertionOnlyChangesNearbyChunks() throws SplitException, IOException {
+        ByteBuffer edited = ByteBuffer.allocate(bytes.length + 1);
+        edited.put(bytes, 0, 100).put((byte) 42).put(bytes, 100, bytes.length - 100);
+        Path original = new Support(tempDir).createFile("original.bin", bytes);
+        Path changed = new Support(tempDir).createFile("changed.bin", edited.array());
+
+        List<byte[]> before = split(original, "before");
+        List<byte[]> after = split(changed, "after");
+        Set<ByteBuffer> kept = new HashSet<>();
+        before.forEach(chunk -> kept.add(ByteBuffer.wrap(chunk)));
+        long shared = after.stream().filter(chunk -> kept.contains(ByteBuffer.wrap(chunk))).count();
+        assertTrue(after.size() > 50);
+        assertTrue(shared >= after.size() - 2, shared + " of " + after.size() + " chunks shared");
+
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (byte[] chunk : after) {
+            joined.write(chunk);
+        }
+        assertArrayEquals(edited.array(), joined.toByteArray());
+    }
+
+    static List<byte[]> split(Path src, String name) throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve(name));
+        new FileSplitterServiceImpl(new FixedBufferSizeStrategy(10_000), null, false, null,
+                FileSplitterServiceImpl.Boundaries.CONTENT_DEFINED)
+                .split(src, dest, 8_192, new AtomicBoolean(false));
+        return new ArrayList<>(Support.readChunks(dest).values());
+    }
+}
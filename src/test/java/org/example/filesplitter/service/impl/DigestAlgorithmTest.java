@@ -0,0 +1,63 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.service.Digest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigestAlgorithmTest {
+
+    private static String digest(DigestAlgorithm algorithm, String text) {
+        Digest digest = algorithm.get();
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        digest.update(bytes, 0, bytes.length);
+        return digest.digest();
+    }
+
+    @Test
+    public void testKnownValues() {
+        assertEquals("e3069283", digest(DigestAlgorithm.CRC32C, "123456789"));
+        assertEquals("ef46db3751d8e999", digest(DigestAlgorithm.XXH64, ""));
+        assertEquals("44bc2cf5ad770999", digest(DigestAlgorithm.XXH64, "abc"));
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                digest(DigestAlgorithm.SHA256, "abc"));
+    }
+
+    @Test
+    public void testLookupByLabel() {
+        assertEquals(DigestAlgorithm.SHA256, DigestAlgorithm.of("sha-256"));
+        assertEquals(DigestAlgorithm.XXH64, DigestAlgorithm.of("XXH64"));
+        assertThrows(IllegalArgumentException.class, () -> DigestAlgorithm.of("MD4"));
+    }
+
+    /**
+     * Feeding the input in arbitrary pieces gives the same digest as feeding it at once, and digest() resets.
+     */
+    @ParameterizedTest
+    @EnumSource(DigestAlgorithm.class)
+    public void testStreamingMatchesOneShot(DigestAlgorithm algorithm) {
+        byte[] bytes = Support.randomBytes(10_000, 1);
+        Digest oneShot = algorithm.get();
+        oneShot.update(bytes, 0, bytes.length);
+        String expected = oneShot.digest();
+
+        Digest pieces = algorithm.get();
+        Random random = new Random(2);
+        for (int i = 0; i < bytes.length; ) {
+            int n = Math.min(bytes.length - i, random.nextInt(70));
+            pieces.update(bytes, i, n);
+            i += n;
+        }
+        assertEquals(expected, pieces.digest());
+
+        oneShot.update(bytes, 0, bytes.length);
+        assertEquals(expected, oneShot.digest());
+    }
+
+}
@@ -0,0 +1,187 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.exception.JoinException;
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.FileJoinService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileJoinServiceImplTest {
+
+    private final FileJoinService service = new FileJoinServiceImpl(4, 1_000);
+
+    @TempDir
+    static Path tempDir;
+
+    static Path tempFile;
+
+    static final byte[] bytes = Support.randomBytes(100_000, 9);
+
+    @BeforeAll
+    static void init() {
+        tempFile = new Support(tempDir).createFile("test.bin", bytes);
+    }
+
+    /**
+     * The prefix of the only split run in a directory.
+     */
+    private static String prefix(Path dir) throws IOException {
+        List<String> names = Files.list(dir).map(p -> p.getFileName().toString())
+                .filter(n -> n.contains("_split_")).collect(Collectors.toList());
+        return names.get(0).substring(0, names.get(0).indexOf("_split_"));
+    }
+
+    @Test
+    public void testFailOnParallelismZero() {
+        assertThrows(IllegalStateException.class, () -> new FileJoinServiceImpl(0, 1_000));
+    }
+
+    @Test
+    public void testJoinRestoresSource() throws SplitException, JoinException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("parts"));
+        new FileSplitterServiceImpl(4096).split(tempFile, dest, 7_000, new AtomicBoolean(false));
+        String prefix = prefix(dest);
+
+        Path target = tempDir.resolve("joined.bin");
+        service.join(dest, prefix, target, new AtomicBoolean(false));
+        assertArrayEquals(bytes, Files.readAllBytes(target));
+    }
+
+    /**
+     * Parts are ordered by number: _split_10 comes after _split_9.
+     */
+    @Test
+    public void testPartsOrderedNumerically() throws SplitException, JoinException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("ordered"));
+        new FileSplitterServiceImpl(4096).split(tempFile, dest, 10_000, new AtomicBoolean(false));
+        String prefix = prefix(dest);
+
+        List<Path> parts = service.parts(dest, prefix);
+        assertEquals(10, parts.size());
+        assertTrue(parts.get(8).toString().endsWith("_split_9"));
+        assertTrue(parts.get(9).toString().endsWith("_split_10"));
+    }
+
+    @Test
+    public void testFailOnMissingPart() throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("missing"));
+        new FileSplitterServiceImpl(4096).split(tempFile, dest, 10_000, new AtomicBoolean(false));
+        String prefix = prefix(dest);
+        Files.delete(dest.resolve(prefix + "_split_3"));
+
+        assertThrows(JoinException.class, () -> service.join(dest, prefix, tempDir.resolve("missing.bin"),
+                new AtomicBoolean(false)));
+    }
+
+    /**
+     * A part present both with and without an extension is ambiguous, so
+     * neither is picked silently.
+     */
+    @Test
+    public void testFailOnDuplicatePart() throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("duplicate"));
+        new FileSplitterServiceImpl(4096).split(tempFile, dest, 10_000, new AtomicBoolean(false));
+        String prefix = prefix(dest);
+        Files.copy(dest.resolve(prefix + "_split_2"), dest.resolve(prefix + "_split_2.gz"));
+
+        JoinException e = assertThrows(JoinException.class, () -> service.parts(dest, prefix));
+        List<String> words = List.of(e.getCause().getMessage().split(" "));
+        assertTrue(words.contains(prefix + "_split_2"));
+        assertTrue(words.contains(prefix + "_split_2.gz"));
+    }
+
+    /**
+     * An interrupted join must not leave a full-size target that looks
+     * complete.
+     */
+    @Test
+    public void testInterruptedJoinDeletesTarget() throws SplitException, JoinException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("interrupted"));
+        new FileSplitterServiceImpl(4096).split(tempFile, dest, 10_000, new AtomicBoolean(false));
+        Path target = Files.write(tempDir.resolve("interrupted.bin"), new byte[]{1, 2, 3});
+
+        service.join(dest, prefix(dest), target, new AtomicBoolean(true));
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    public void testFailedJoinDeletesTarget() throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("failed"));
+        new FileSplitterServiceImpl(new FixedBufferSizeStrategy(4096), DigestAlgorithm.XXH64)
+                .split(tempFile, dest, 10_000, new AtomicBoolean(false));
+        String prefix = prefix(dest);
+        Path part = dest.resolve(prefix + "_split_5");
+        byte[] corrupt = Files.readAllBytes(part);
+        corrupt[0] ^= 1;
+        Files.write(part, corrupt);
+        Path target = tempDir.resolve("failed.bin");
+
+        assertThrows(JoinException.class, () -> service.join(dest, prefix, target, new AtomicBoolean(false)));
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    public void testFailOnNoParts() throws IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("none"));
+        assertThrows(JoinException.class, () -> service.join(dest, "20200101T000000000000000",
+                tempDir.resolve("none.bin"), new AtomicBoolean(false)));
+    }
+
+    @Test
+    public void testManifestWrittenWhileSplitting() throws Exception {
+        Path dest = Files.createDirectory(tempDir.resolve("manifest"));
+        new FileSplitterServiceImpl(new FixedBufferSizeStrategy(4096), DigestAlgorithm.CRC32C)
+                .split(tempFile, dest, 30_000, new AtomicBoolean(false));
+        String prefix = prefix(dest);
+
+        Manifest manifest = Manifest.read(Manifest.file(dest, prefix));
+        assertNotNull(manifest);
+        assertEquals("CRC32C", manifest.algorithm());
+        assertEquals("test.bin", manifest.source());
+        assertEquals(bytes.length, manifest.size());
+        assertEquals(4, manifest.parts().size());
+        assertEquals(90_000, manifest.parts().get(3).offset());
+        assertEquals(10_000, manifest.parts().get(3).length());
+        service.verify(dest, prefix);
+
+        Path target = tempDir.resolve("manifest.bin");
+        service.join(dest, prefix, target, new AtomicBoolean(false));
+        assertArrayEquals(bytes, Files.readAllBytes(target));
+    }
+
+    @Test
+    public void testCorruptPartFailsVerifyAndJoin() throws Exception {
+        Path dest = Files.createDirectory(tempDir.resolve("corrupt"));
+        new FileSplitterServiceImpl(new FixedBufferSizeStrategy(4096), DigestAlgorithm.XXH64)
+                .split(tempFile, dest, 30_000, new AtomicBoolean(false));
+        String prefix = prefix(dest);
+        Path part = dest.resolve(prefix + "_split_2");
+        byte[] content = Files.readAllBytes(part);
+        content[100] ^= 1;
+        Files.write(part, content);
+
+        assertThrows(JoinException.class, () -> service.verify(dest, prefix));
+        assertThrows(JoinException.class, () -> service.join(dest, prefix, tempDir.resolve("corrupt.bin"),
+                new AtomicBoolean(false)));
+    }
+
+    @Test
+    public void testVerifyWithoutManifestFails() throws Exception {
+        Path dest = Files.createDirectory(tempDir.resolve("nomanifest"));
+        new FileSplitterServiceImpl(4096).split(tempFile, dest, 30_000, new AtomicBoolean(false));
+        String prefix = prefix(dest);
+        assertThrows(JoinException.class, () -> service.verify(dest, prefix));
+    }
+
+}
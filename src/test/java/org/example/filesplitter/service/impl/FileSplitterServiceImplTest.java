@@ -2,19 +2,30 @@ package org.example.filesplitter.service.impl;
 
 import org.example.filesplitter.Support;
 import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.Digest;
 import org.example.filesplitter.service.FileSplitterService;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class FileSplitterServiceImplTest {
 
@@ -113,6 +124,16 @@ public class FileSplitterServiceImplTest {
         }
     }
 
+    @Test
+    public void testSuccessWithChunkSizeBeyondIntRange() throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("out7"));
+        service.split(tempFile, dest, 5L * 1024 * 1024 * 1024, new AtomicBoolean(false));
+        List<Path> paths = Files.list(dest).collect(Collectors.toList());
+        assertEquals(1, paths.size());
+        byte[] content = Files.readAllBytes(paths.get(0));
+        assertArrayEquals(bytes, content);
+    }
+
     @Test
     public void testCatchExceptionOnWriteFail() throws IOException {
         Path dest = Files.createDirectory(tempDir.resolve("out6"));
@@ -124,4 +145,241 @@ public class FileSplitterServiceImplTest {
         fail("Exception not caught");
     }
 
+    /**
+     * A split cancelled before the first chunk keeps its journal, and the
+     * next resumable split finishes it under the same prefix.
+     */
+    @Test
+    public void testResumeAfterCancel() throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("resume1"));
+        FileSplitterService resumable = new FileSplitterServiceImpl(new FixedBufferSizeStrategy(3), null, true);
+        resumable.split(tempFile, dest, 4, new AtomicBoolean(true));
+        List<Path> journals = Files.list(dest).collect(Collectors.toList());
+        assertEquals(1, journals.size());
+        String name = journals.get(0).getFileName().toString();
+        assertTrue(name.endsWith("_split.journal"));
+        String prefix = name.substring(0, name.length() - "_split.journal".length());
+
+        resumable.split(tempFile, dest, 4, new AtomicBoolean(false));
+        assertFalse(Files.exists(journals.get(0)));
+        List<String> names = Files.list(dest).map(p -> p.getFileName().toString()).sorted()
+                .collect(Collectors.toList());
+        assertEquals(List.of(prefix + "_split_1", prefix + "_split_2", prefix + "_split_3"), names);
+        assertArrayEquals(new byte[]{8, 9}, Files.readAllBytes(dest.resolve(prefix + "_split_3")));
+    }
+
+    /**
+     * The journal is cut in bytes: a cancelled split of a source with a non-ASCII name keeps its whole header, and
+     * is resumed rather than taken for a split with other boundaries.
+     */
+    @Test
+    public void testResumeNonAsciiSource() throws SplitException, IOException {
+        Path src;
+        try {
+            src = Files.write(tempDir.resolve("d\u00e9j\u00e0-vu.txt"), bytes);
+        } catch (InvalidPathException e) {
+            assumeTrue(false, "no UTF-8 filenames");
+            return;
+        }
+        Path dest = Files.createDirectory(tempDir.resolve("resume5"));
+        FileSplitterService resumable = new FileSplitterServiceImpl(new FixedBufferSizeStrategy(3), null, true);
+        resumable.split(src, dest, 4, new AtomicBoolean(true));
+        resumable.split(src, dest, 4, new AtomicBoolean(true));
+        List<Path> journals = Files.list(dest).collect(Collectors.toList());
+        assertEquals(1, journals.size());
+        assertTrue(Files.readString(journals.get(0)).endsWith("boundaries\tFIXED\n"));
+
+        resumable.split(src, dest, 4, new AtomicBoolean(false));
+        assertFalse(Files.exists(journals.get(0)));
+        assertEquals(3, Support.readChunks(dest).size());
+    }
+
+    /**
+     * Committed chunks are kept as they are, the partial chunk and a line
+     * torn by a crash are redone, and the manifest still covers every chunk.
+     */
+    @Test
+    public void testResumeKeepsCommittedChunks() throws Exception {
+        Path dest = Files.createDirectory(tempDir.resolve("resume2"));
+        String prefix = "20200101T000000000000000";
+        DigestAlgorithm algorithm = DigestAlgorithm.SHA256;
+        try (SplitJournal journal = SplitJournal.create(dest, prefix, tempFile, 4, algorithm.label(),
+                FileSplitterServiceImpl.Boundaries.FIXED)) {
+            Path first = Files.write(dest.resolve(prefix + "_split_1"), new byte[]{0, 1, 2, 3});
+            Files.setLastModifiedTime(first, FileTime.fromMillis(0));
+            Digest digest = algorithm.get();
+            digest.update(new byte[]{0, 1, 2, 3}, 0, 4);
+            journal.commit(new ChunkRange(1, 0, 4), digest.digest());
+        }
+        Files.write(dest.resolve(prefix + "_split_2"), new byte[]{42});
+        Files.write(dest.resolve(prefix + "_split.journal"), "chunk\t2\t4".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        new FileSplitterServiceImpl(new FixedBufferSizeStrategy(3), algorithm, true)
+                .split(tempFile, dest, 4, new AtomicBoolean(false));
+        assertEquals(0, Files.getLastModifiedTime(dest.resolve(prefix + "_split_1")).toMillis());
+        assertArrayEquals(new byte[]{4, 5, 6, 7}, Files.readAllBytes(dest.resolve(prefix + "_split_2")));
+        assertFalse(Files.exists(dest.resolve(prefix + "_split.journal")));
+        assertDoesNotThrow(() -> new FileJoinServiceImpl(1, 16).verify(dest, prefix));
+    }
+
+    /**
+     * A committed chunk whose file was overwritten with other bytes of the same length fails its checksum, and is
+     * written again rather than kept.
+     */
+    @Test
+    public void testResumeRedoesCorruptedChunk() throws Exception {
+        Path dest = Files.createDirectory(tempDir.resolve("resume6"));
+        String prefix = "20200101T000000000000000";
+        DigestAlgorithm algorithm = DigestAlgorithm.SHA256;
+        try (SplitJournal journal = SplitJournal.create(dest, prefix, tempFile, 4, algorithm.label(),
+                FileSplitterServiceImpl.Boundaries.FIXED)) {
+            Digest digest = algorithm.get();
+            digest.update(new byte[]{0, 1, 2, 3}, 0, 4);
+            journal.commit(new ChunkRange(1, 0, 4), digest.digest());
+        }
+        Files.write(dest.resolve(prefix + "_split_1"), new byte[]{9, 9, 9, 9});
+
+        new FileSplitterServiceImpl(new FixedBufferSizeStrategy(3), algorithm, true)
+                .split(tempFile, dest, 4, new AtomicBoolean(false));
+        assertArrayEquals(new byte[]{0, 1, 2, 3}, Files.readAllBytes(dest.resolve(prefix + "_split_1")));
+        assertFalse(Files.exists(dest.resolve(prefix + "_split.journal")));
+        assertDoesNotThrow(() -> new FileJoinServiceImpl(1, 16).verify(dest, prefix));
+    }
+
+    /**
+     * The journal of a different source isn't resumed.
+     */
+    @Test
+    public void testNoResumeForChangedSource() throws Exception {
+        Path dest = Files.createDirectory(tempDir.resolve("resume3"));
+        Path other = new Support(tempDir).createFile("other.txt", new byte[]{1, 2, 3});
+        String prefix = "20200101T000000000000000";
+        SplitJournal.create(dest, prefix, other, 4, DigestAlgorithm.CRC32C.label(),
+                FileSplitterServiceImpl.Boundaries.FIXED).close();
+
+        new FileSplitterServiceImpl(new FixedBufferSizeStrategy(3), null, true)
+                .split(tempFile, dest, 4, new AtomicBoolean(false));
+        assertTrue(Files.exists(dest.resolve(prefix + "_split.journal")));
+        assertEquals(3, Support.readChunks(dest).size());
+        assertFalse(Files.exists(dest.resolve(prefix + "_split_1")));
+    }
+
+    /**
+     * An unfinished split with other boundaries isn't resumed, nor started over next to it.
+     */
+    @Test
+    public void testNoResumeWithOtherBoundaries() throws Exception {
+        Path dest = Files.createDirectory(tempDir.resolve("resume4"));
+        String prefix = "20200101T000000000000000";
+        SplitJournal.create(dest, prefix, tempFile, 4, DigestAlgorithm.CRC32C.label(),
+                FileSplitterServiceImpl.Boundaries.FIXED).close();
+
+        SplitException e = assertThrows(SplitException.class, () -> new FileSplitterServiceImpl(
+                new FixedBufferSizeStrategy(3), null, true, null, FileSplitterServiceImpl.Boundaries.CONTENT_DEFINED)
+                .split(tempFile, dest, 4, new AtomicBoolean(false)));
+        assertTrue(e.getCause().getMessage().contains(prefix + "_split.journal"), e.getCause().getMessage());
+        assertTrue(Files.exists(dest.resolve(prefix + "_split.journal")));
+        assertTrue(Support.readChunks(dest).isEmpty());
+    }
+
+    /**
+     * Runs of zeros, skipped rather than written, still read back as zeros, up to the end of the last chunk, and
+     * take no space on disk.
+     */
+    @Test
+    public void testSparseSource() throws Exception {
+        byte[] content = new byte[30_000];
+        byte[] data = Support.randomBytes(content.length, 31);
+        System.arraycopy(data, 0, content, 0, 5_000);
+        System.arraycopy(data, 20_000, content, 20_000, 1_000);
+        Path sparse = new Support(tempDir).createFile("sparse.img", content);
+        Path dest = Files.createDirectory(tempDir.resolve("sparse"));
+
+        new FileSplitterServiceImpl(3_000).split(sparse, dest, 8_192, new AtomicBoolean(false));
+        Map<Long, byte[]> chunks = Support.readChunks(dest);
+        assertEquals(4, chunks.size());
+        assertEquals(30_000 - 3 * 8_192, chunks.get(4L).length);
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (byte[] chunk : chunks.values()) {
+            joined.write(chunk);
+        }
+        assertArrayEquals(content, joined.toByteArray());
+
+        // the second chunk is all zeros, a hole as long as the filesystem supports them
+        Path hole;
+        try (Stream<Path> files = Files.list(dest)) {
+            hole = files.filter(p -> p.getFileName().toString().endsWith("_split_2")).findFirst().orElseThrow();
+        }
+        Path reference = Files.write(tempDir.resolve("hole.ref"), new byte[0]);
+        try (RandomAccessFile file = new RandomAccessFile(reference.toFile(), "rw")) {
+            file.setLength(8_192);
+        }
+        long referenceBlocks = allocatedBlocks(reference);
+        assumeTrue(referenceBlocks == 0, "The filesystem has no holes");
+        assertEquals(8_192, Files.size(hole));
+        assertEquals(0, allocatedBlocks(hole));
+        assertTrue(allocatedBlocks(dest.resolve(hole.getFileName().toString().replace("_split_2", "_split_1"))) > 0);
+    }
+
+    /**
+     * Nothing is reserved ahead of the writes, so a chunk cut short by a crash is shorter than a complete one.
+     */
+    @Test
+    public void testUnfinishedChunkIsShort() throws IOException {
+        Path file = tempDir.resolve("unfinished_split_1");
+        ChunkWriter writer = new ChunkWriter(file, 0);
+        try {
+            writer.write(Support.randomBytes(5_000, 32), 5_000);
+            assertEquals(5_000, Files.size(file)); // what a crash right now would leave
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * @return The number of 512-byte blocks allocated to the file, or -1 without stat(1).
+     */
+    private static long allocatedBlocks(Path file) throws IOException, InterruptedException {
+        try {
+            Process stat = new ProcessBuilder("stat", "-c", "%b", file.toString()).redirectErrorStream(true).start();
+            String output = new String(stat.getInputStream().readAllBytes(), StandardCharsets.US_ASCII).trim();
+            return stat.waitFor() == 0 ? Long.parseLong(output) : -1;
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * A stream of unknown length is split like a file, with a manifest, in any buffer size.
+     */
+    @Test
+    public void testSplitStream() throws Exception {
+        byte[] content = Support.randomBytes(25_000, 71);
+        Path dest = Files.createDirectory(tempDir.resolve("stream"));
+
+        new FileSplitterServiceImpl(new FixedBufferSizeStrategy(4_096), DigestAlgorithm.XXH64)
+                .splitStream(new ByteArrayInputStream(content), dest, 10_000, new AtomicBoolean(false));
+        Map<Long, byte[]> chunks = Support.readChunks(dest);
+        assertEquals(3, chunks.size());
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (byte[] chunk : chunks.values()) {
+            joined.write(chunk);
+        }
+        assertArrayEquals(content, joined.toByteArray());
+        String prefix = Files.list(dest).map(f -> f.getFileName().toString())
+                .filter(name -> name.endsWith("_split.manifest")).findFirst().orElseThrow()
+                .replace("_split.manifest", "");
+        new FileJoinServiceImpl(1, 1_000).verify(dest, prefix);
+    }
+
+    /**
+     * Engines that need a regular file refuse streams.
+     */
+    @Test
+    public void testStreamNotSupported() {
+        assertThrows(SplitException.class, () -> new TransferFileSplitterServiceImpl(1_000)
+                .splitStream(new ByteArrayInputStream(bytes), tempDir, 10, new AtomicBoolean(false)));
+    }
+
 }
@@ -0,0 +1,101 @@
+package org.example.filesplitter.service.impl;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the chunk writer against opening the chunk file once per buffer,
+ * the way the service used to write. The source is several GB, so the test
+ * only runs with -Dfilesplitter.throughput=true. The source size can be set
+ * with -Dfilesplitter.throughput.size=BYTES.
+ */
+@EnabledIfSystemProperty(named = "filesplitter.throughput", matches = "true")
+public class FileSplitterServiceImplThroughputTest {
+
+    private static final int bufferSize = 4096;
+
+    private static final long chunkSize = 512L * 1024 * 1024;
+
+    @TempDir
+    static Path tempDir;
+
+    static Path tempFile;
+
+    static long size;
+
+    @BeforeAll
+    static void init() throws IOException {
+        size = Long.getLong("filesplitter.throughput.size", 4L * 1024 * 1024 * 1024);
+        tempFile = tempDir.resolve("large.bin");
+        byte[] block = new byte[1024 * 1024];
+        for (int i = 0; i < block.length; i++) {
+            block[i] = (byte) i;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(tempFile.toFile(), "rw")) {
+            for (long written = 0; written < size; written += block.length) {
+                file.write(block, 0, (int) Math.min(block.length, size - written));
+            }
+        }
+    }
+
+    @Test
+    public void testChunkWriterIsFasterThanReopeningPerBuffer() throws Exception {
+        Path reopenDest = Files.createDirectory(tempDir.resolve("reopen"));
+        long reopenStart = System.nanoTime();
+        splitReopeningPerBuffer(reopenDest);
+        long reopenNanos = System.nanoTime() - reopenStart;
+
+        Path writerDest = Files.createDirectory(tempDir.resolve("writer"));
+        long writerStart = System.nanoTime();
+        new FileSplitterServiceImpl(bufferSize)
+                .split(tempFile, writerDest, chunkSize, new AtomicBoolean(false));
+        long writerNanos = System.nanoTime() - writerStart;
+
+        System.out.printf("reopen per buffer: %.1f MB/s, chunk writer: %.1f MB/s%n",
+                mbPerSecond(reopenNanos), mbPerSecond(writerNanos));
+        assertTrue(writerNanos < reopenNanos);
+    }
+
+    private double mbPerSecond(long nanos) {
+        return size / (1024.0 * 1024.0) / (nanos / 1e9);
+    }
+
+    /**
+     * The previous write path: open the chunk in append mode, write one buffer
+     * and close it again.
+     */
+    private void splitReopeningPerBuffer(Path dest) throws IOException {
+        byte[] buffer = new byte[bufferSize];
+        try (InputStream is = new FileInputStream(tempFile.toFile())) {
+            int bytesRead;
+            long chunkBytesRead = 0;
+            long count = 1;
+            while ((bytesRead = is.read(buffer)) > 0) {
+                chunkBytesRead += bytesRead;
+                try (OutputStream out = new FileOutputStream(
+                        dest.resolve("reopen_split_" + count).toFile(), true)) {
+                    out.write(buffer, 0, bytesRead);
+                }
+                if (chunkBytesRead % chunkSize == 0) {
+                    count++;
+                    chunkBytesRead = 0;
+                }
+            }
+        }
+    }
+
+}
@@ -11,6 +11,7 @@ import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class FileValidationServiceImplTest {
 
@@ -44,6 +45,25 @@ public class FileValidationServiceImplTest {
         assertTrue(service.validSrc(validSrc));
     }
 
+    /**
+     * A named pipe is a stream source, not a valid source file: only the split of a stream accepts it.
+     */
+    @Test
+    public void testSourceIsNamedPipe() throws IOException, InterruptedException {
+        Path fifo = tempDir.resolve("test.fifo");
+        Process mkfifo;
+        try {
+            mkfifo = new ProcessBuilder("mkfifo", fifo.toString()).start();
+        } catch (IOException e) {
+            assumeTrue(false, "no mkfifo");
+            return;
+        }
+        assumeTrue(mkfifo.waitFor() == 0, "no named pipes");
+        assertFalse(service.validSrc(fifo));
+        assertTrue(service.streamSrc(fifo));
+        assertFalse(service.streamSrc(validSrc));
+    }
+
     /**
      * If the destination exists and is a directory, the expected result of
      * {@link FileValidationServiceImpl#validDest(Path)} is true.
@@ -125,7 +145,7 @@ public class FileValidationServiceImplTest {
 
     /**
      * If the chunk size is equal to zero, the expected result of
-     * {@link FileValidationServiceImpl#validChunkSize(int)} is false.
+     * {@link FileValidationServiceImpl#validChunkSize(long)} is false.
      */
     @Test
     public void testChunkSizeZero() {
@@ -134,7 +154,7 @@ public class FileValidationServiceImplTest {
 
     /**
      * If the chunk size is less than zero, the expected result of
-     * {@link FileValidationServiceImpl#validChunkSize(int)} is false.
+     * {@link FileValidationServiceImpl#validChunkSize(long)} is false.
      */
     @Test
     public void testChunkSizeLessThanZero() {
@@ -143,11 +163,20 @@ public class FileValidationServiceImplTest {
 
     /**
      * If the chunk size is greater than zero the expected result of
-     * {@link FileValidationServiceImpl#validChunkSize(int)} is true.
+     * {@link FileValidationServiceImpl#validChunkSize(long)} is true.
      */
     @Test
     public void testChunkSizeMoreThanZero() {
         assertTrue(service.validChunkSize(1));
     }
 
+    /**
+     * Chunks can be larger than 2 GiB, so a chunk size beyond the int range is valid and the expected result of
+     * {@link FileValidationServiceImpl#validChunkSize(long)} is true.
+     */
+    @Test
+    public void testChunkSizeBeyondIntRange() {
+        assertTrue(service.validChunkSize(100L * 1024 * 1024 * 1024));
+    }
+
 }
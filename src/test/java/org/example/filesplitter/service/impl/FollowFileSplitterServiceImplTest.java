@@ -0,0 +1,165 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FollowFileSplitterServiceImplTest {
+
+    @TempDir
+    static Path tempDir;
+
+    @Test
+    public void testFailOnInvalidArguments() {
+        assertThrows(IllegalStateException.class, () -> new FollowFileSplitterServiceImpl(0, 10));
+        assertThrows(IllegalStateException.class, () -> new FollowFileSplitterServiceImpl(10, 0));
+    }
+
+    static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    static List<String> files(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(f -> f.getFileName().toString()).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Parts are published as soon as they're full, across a rotation, and the last one when interrupted.
+     */
+    @Test
+    public void testFollowGrowingAndRotatedFile() throws Exception {
+        byte[] bytes = Support.randomBytes(5_500, 59);
+        Path log = new Support(tempDir).createFile("app.log", new byte[0]);
+        Path dest = Files.createDirectory(tempDir.resolve("follow"));
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> split = executor.submit(() -> {
+                new FollowFileSplitterServiceImpl(300, 50).split(log, dest, 1_000, interrupted);
+                return null;
+            });
+            Files.write(log, slice(bytes, 0, 2_500), StandardOpenOption.APPEND);
+            await(() -> Support.readChunks(dest).size() == 2);
+            // only full parts are published; the third one is still a hidden temp file
+            assertEquals(1_000, Support.readChunks(dest).get(2L).length);
+            await(() -> files(dest).stream().anyMatch(name -> name.startsWith(".") && name.endsWith(".tmp")));
+            assertEquals(2, Support.readChunks(dest).size());
+
+            // rotate: the old file gets a last write, then is renamed away and replaced
+            Files.write(log, slice(bytes, 2_500, 3_000), StandardOpenOption.APPEND);
+            Files.move(log, tempDir.resolve("app.log.1"));
+            Files.write(log, slice(bytes, 3_000, 5_500));
+            await(() -> Support.readChunks(dest).size() == 5);
+
+            interrupted.set(true);
+            split.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(files(dest).stream().noneMatch(name -> name.endsWith(".tmp")));
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (byte[] chunk : Support.readChunks(dest).values()) {
+            joined.write(chunk);
+        }
+        assertEquals(6, Support.readChunks(dest).size());
+        assertArrayEquals(bytes, joined.toByteArray());
+    }
+
+    /**
+     * A file truncated in place is split again from its start.
+     */
+    @Test
+    public void testFollowTruncatedFile() throws Exception {
+        Path log = new Support(tempDir).createFile("truncated.log", Support.randomBytes(1_500, 61));
+        Path dest = Files.createDirectory(tempDir.resolve("truncated"));
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> split = executor.submit(() -> {
+                new FollowFileSplitterServiceImpl(300, 50).split(log, dest, 1_000, interrupted);
+                return null;
+            });
+            await(() -> Support.readChunks(dest).size() == 1);
+            byte[] after = Support.randomBytes(600, 67);
+            Files.write(log, after);
+            await(() -> Support.readChunks(dest).size() == 2);
+
+            interrupted.set(true);
+            split.get(10, TimeUnit.SECONDS);
+            byte[] second = Support.readChunks(dest).get(2L);
+            assertEquals(1_000, second.length);
+            assertArrayEquals(slice(after, 0, 500), slice(second, 500, 1_000));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * An interrupt of the thread, like the cancel of the GUI, stops the split like the flag: the last part is
+     * published, no temp file is left and the thread stays interrupted.
+     */
+    @Test
+    public void testThreadInterruptPublishesLastPart() throws Exception {
+        byte[] bytes = Support.randomBytes(1_500, 71);
+        Path log = new Support(tempDir).createFile("cancelled.log", bytes);
+        Path dest = Files.createDirectory(tempDir.resolve("cancelled"));
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        AtomicBoolean stillInterrupted = new AtomicBoolean();
+        Thread thread = new Thread(() -> {
+            try {
+                new FollowFileSplitterServiceImpl(300, 50).split(log, dest, 1_000, new AtomicBoolean(false));
+            } catch (Exception e) {
+                failure.set(e);
+            }
+            stillInterrupted.set(Thread.currentThread().isInterrupted());
+        });
+        thread.start();
+        try {
+            await(() -> Support.readChunks(dest).size() == 1
+                    && files(dest).stream().anyMatch(name -> name.endsWith(".tmp")));
+            Thread.sleep(100); // waiting for the source to grow
+        } finally {
+            thread.interrupt();
+            thread.join(10_000);
+        }
+        assertFalse(thread.isAlive());
+        assertNull(failure.get());
+        assertTrue(stillInterrupted.get());
+        assertTrue(files(dest).stream().noneMatch(name -> name.endsWith(".tmp")));
+        assertEquals(2, Support.readChunks(dest).size());
+        assertArrayEquals(slice(bytes, 1_000, 1_500), Support.readChunks(dest).get(2L));
+    }
+
+    static byte[] slice(byte[] bytes, int from, int to) {
+        byte[] slice = new byte[to - from];
+        System.arraycopy(bytes, from, slice, 0, slice.length);
+        return slice;
+    }
+}
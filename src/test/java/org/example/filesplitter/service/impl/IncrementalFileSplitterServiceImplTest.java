@@ -0,0 +1,217 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.exception.JoinException;
+import org.example.filesplitter.exception.SplitException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class IncrementalFileSplitterServiceImplTest {
+
+    @TempDir
+    static Path tempDir;
+
+    static final FileTime OLD = FileTime.fromMillis(0);
+
+    private final IncrementalFileSplitterServiceImpl service =
+            new IncrementalFileSplitterServiceImpl(DigestAlgorithm.XXH64, 300, 1_000);
+
+    @Test
+    public void testFailOnInvalidBufferSize() {
+        assertThrows(IllegalStateException.class,
+                () -> new IncrementalFileSplitterServiceImpl(DigestAlgorithm.XXH64, 0, 1_000));
+    }
+
+    /**
+     * Split, mark every part as old, change the source and split again: return the parts that were rewritten.
+     */
+    static List<Long> resplit(IncrementalFileSplitterServiceImpl service, Path src, Path dest, byte[] changed)
+            throws SplitException, IOException {
+        try (Stream<Path> files = Files.list(dest)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.setLastModifiedTime(file, OLD);
+            }
+        }
+        Files.write(src, changed);
+        service.split(src, dest, 1_000, new AtomicBoolean(false));
+        List<Long> rewritten = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dest)) {
+            for (Path file : files.sorted().collect(Collectors.toList())) {
+                String name = file.getFileName().toString();
+                if (name.contains("_split_") && !Files.getLastModifiedTime(file).equals(OLD)) {
+                    rewritten.add(Long.parseLong(name.substring(name.lastIndexOf('_') + 1)));
+                }
+            }
+        }
+        rewritten.sort(null);
+        return rewritten;
+    }
+
+    static String prefix(Path dest) throws IOException {
+        try (Stream<Path> files = Files.list(dest)) {
+            List<String> manifests = files.map(f -> f.getFileName().toString())
+                    .filter(name -> name.endsWith("_split.manifest"))
+                    .collect(Collectors.toList());
+            assertEquals(1, manifests.size());
+            return manifests.get(0).substring(0, manifests.get(0).length() - "_split.manifest".length());
+        }
+    }
+
+    /**
+     * Appending only rewrites the last part and adds the new ones, under the same prefix.
+     */
+    @Test
+    public void testAppend() throws SplitException, IOException, JoinException {
+        byte[] bytes = Support.randomBytes(4_500, 41);
+        Path src = new Support(tempDir).createFile("append.log", bytes);
+        Path dest = Files.createDirectory(tempDir.resolve("append"));
+        service.split(src, dest, 1_000, new AtomicBoolean(false));
+        String prefix = prefix(dest);
+
+        byte[] appended = Support.randomBytes(6_200, 41);
+        System.arraycopy(bytes, 0, appended, 0, bytes.length);
+        assertEquals(List.of(5L, 6L, 7L), resplit(service, src, dest, appended));
+        assertEquals(prefix, prefix(dest));
+        new FileJoinServiceImpl(1, 1_000).verify(dest, prefix);
+    }
+
+    /**
+     * Changing a byte only rewrites its part.
+     */
+    @Test
+    public void testModify() throws SplitException, IOException, JoinException {
+        byte[] bytes = Support.randomBytes(4_500, 43);
+        Path src = new Support(tempDir).createFile("modify.bin", bytes);
+        Path dest = Files.createDirectory(tempDir.resolve("modify"));
+        service.split(src, dest, 1_000, new AtomicBoolean(false));
+
+        byte[] modified = bytes.clone();
+        modified[2_345]++;
+        assertEquals(List.of(3L), resplit(service, src, dest, modified));
+        new FileJoinServiceImpl(1, 1_000).verify(dest, prefix(dest));
+    }
+
+    /**
+     * The parts past the end of a source that shrank are deleted, and missing parts are rewritten.
+     */
+    @Test
+    public void testShrinkAndMissingPart() throws SplitException, IOException, JoinException {
+        byte[] bytes = Support.randomBytes(4_500, 47);
+        Path src = new Support(tempDir).createFile("shrink.bin", bytes);
+        Path dest = Files.createDirectory(tempDir.resolve("shrink"));
+        service.split(src, dest, 1_000, new AtomicBoolean(false));
+        String prefix = prefix(dest);
+        Files.delete(dest.resolve(ChunkNames.name(prefix, 1)));
+
+        byte[] shrunk = new byte[2_000];
+        System.arraycopy(bytes, 0, shrunk, 0, shrunk.length);
+        assertEquals(List.of(1L), resplit(service, src, dest, shrunk));
+        assertEquals(2, Support.readChunks(dest).size());
+        new FileJoinServiceImpl(1, 1_000).verify(dest, prefix);
+    }
+
+    /**
+     * A run interrupted after rewriting a part leaves no manifest vouching for the old parts, and the next run starts
+     * over. The interruption is timed by a named pipe in place of the second changed part.
+     */
+    @Test
+    @Timeout(30)
+    public void testInterruptedRunLeavesNoManifest() throws Exception {
+        byte[] bytes = Support.randomBytes(450_000, 59);
+        Path src = new Support(tempDir).createFile("interrupted.bin", bytes);
+        Path dest = Files.createDirectory(tempDir.resolve("interrupted"));
+        service.split(src, dest, 100_000, new AtomicBoolean(false));
+        String prefix = prefix(dest);
+        Path fifo = dest.resolve(ChunkNames.name(prefix, 3));
+        Files.delete(fifo);
+        Process mkfifo;
+        try {
+            mkfifo = new ProcessBuilder("mkfifo", fifo.toString()).start();
+        } catch (IOException e) {
+            assumeTrue(false, "no mkfifo");
+            return;
+        }
+        assumeTrue(mkfifo.waitFor() == 0, "no named pipes");
+
+        byte[] modified = bytes.clone();
+        modified[100]++;
+        modified[234_567]++;
+        Files.write(src, modified);
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> run = pool.submit(() -> {
+                service.split(src, dest, 100_000, interrupted);
+                return null;
+            });
+            // opened once part 1 is rewritten, and the part doesn't fit in the pipe until it's read
+            try (InputStream part = Files.newInputStream(fifo)) {
+                interrupted.set(true);
+                part.readAllBytes();
+            }
+            run.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        try (Stream<Path> files = Files.list(dest)) {
+            assertEquals(0, files.filter(f -> f.toString().endsWith("_split.manifest")).count());
+        }
+        assertThrows(JoinException.class, () -> new FileJoinServiceImpl(1, 1_000).verify(dest, prefix));
+
+        Files.delete(fifo);
+        service.split(src, dest, 100_000, new AtomicBoolean(false));
+        assertNotEquals(prefix, prefix(dest));
+        new FileJoinServiceImpl(1, 1_000).verify(dest, prefix(dest));
+    }
+
+    /**
+     * A run with another chunk size isn't reused.
+     */
+    @Test
+    public void testOtherChunkSizeStartsOver() throws SplitException, IOException {
+        Path src = new Support(tempDir).createFile("other.bin", Support.randomBytes(2_500, 53));
+        Path dest = Files.createDirectory(tempDir.resolve("other"));
+        service.split(src, dest, 2_000, new AtomicBoolean(false));
+        service.split(src, dest, 1_000, new AtomicBoolean(false));
+        try (Stream<Path> files = Files.list(dest)) {
+            assertEquals(2, files.filter(f -> f.toString().endsWith("_split.manifest")).count());
+        }
+    }
+
+    /**
+     * The manifest of a content-defined split isn't reused, and says so.
+     */
+    @Test
+    public void testContentDefinedManifestStartsOver() throws Exception {
+        Path src = new Support(tempDir).createFile("cdc.bin", Support.randomBytes(2_500, 54));
+        Path dest = Files.createDirectory(tempDir.resolve("cdc"));
+        new FileSplitterServiceImpl(new FixedBufferSizeStrategy(300), DigestAlgorithm.XXH64, false, null,
+                FileSplitterServiceImpl.Boundaries.CONTENT_DEFINED).split(src, dest, 1_000, new AtomicBoolean(false));
+        String prefix = prefix(dest);
+        assertEquals(FileSplitterServiceImpl.Boundaries.CONTENT_DEFINED,
+                Manifest.read(dest.resolve(prefix + "_split.manifest")).boundaries());
+
+        service.split(src, dest, 1_000, new AtomicBoolean(false));
+        try (Stream<Path> files = Files.list(dest)) {
+            assertEquals(2, files.filter(f -> f.toString().endsWith("_split.manifest")).count());
+        }
+    }
+}
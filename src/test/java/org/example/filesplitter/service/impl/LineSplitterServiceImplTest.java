@@ -0,0 +1,111 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.exception.SplitException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineSplitterServiceImplTest {
+
+    @TempDir
+    static Path tempDir;
+
+    static Path textFile;
+
+    static List<String> lines = new ArrayList<>();
+
+    @BeforeAll
+    static void init() {
+        Random random = new Random(5);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+            String line = i + ":" + "y".repeat(random.nextInt(30)) + "\n";
+            lines.add(line);
+            sb.append(line);
+        }
+        // a last line without a newline
+        lines.add("tail");
+        sb.append("tail");
+        textFile = new Support(tempDir).createFile("test.txt", sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testFailOnScanBufferSizeZero() {
+        assertThrows(IllegalStateException.class, () -> new LineSplitterServiceImpl(0, 10));
+    }
+
+    @Test
+    public void testFailOnLinesPerPartZero() throws IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("zero"));
+        assertThrows(SplitException.class, () -> new LineSplitterServiceImpl(64, 1_000)
+                .splitLines(textFile, dest, 0, new AtomicBoolean(false)));
+    }
+
+    /**
+     * Each part has exactly N lines, except the last one.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 7, 64, 1_000, 5_000})
+    public void testPartsHaveNLines(int linesPerPart) throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("lines" + linesPerPart));
+        new LineSplitterServiceImpl(61, 1_000).splitLines(textFile, dest, linesPerPart, new AtomicBoolean(false));
+
+        List<byte[]> parts = new ArrayList<>(Support.readChunks(dest).values());
+        assertEquals((lines.size() + linesPerPart - 1) / linesPerPart, parts.size());
+        for (int i = 0; i < parts.size(); i++) {
+            String expected = String.join("",
+                    lines.subList(i * linesPerPart, Math.min(lines.size(), (i + 1) * linesPerPart)));
+            assertEquals(expected, new String(parts.get(i), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * A second run reuses the saved offsets instead of counting again.
+     */
+    @Test
+    public void testIndexIsReused() throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("reuse"));
+        LineSplitterServiceImpl service = new LineSplitterServiceImpl(64, 1_000);
+        service.splitLines(textFile, dest, 100, new AtomicBoolean(false));
+        Path index = LineIndex.file(dest, textFile, 100);
+        assertTrue(Files.exists(index));
+
+        LineIndex saved = LineIndex.read(index);
+        assertNotNull(saved);
+        assertEquals(11, saved.offsets().size());
+
+        // replace the offsets, keeping the source size and modification time
+        new LineIndex(Files.size(textFile), Files.getLastModifiedTime(textFile).toMillis(), List.of(0L, 10L))
+                .write(index);
+        Path again = Files.createDirectory(tempDir.resolve("reuse-again"));
+        Files.move(index, LineIndex.file(again, textFile, 100));
+        service.splitLines(textFile, again, 100, new AtomicBoolean(false));
+
+        List<byte[]> parts = new ArrayList<>(Support.readChunks(again).values());
+        assertEquals(2, parts.size());
+        assertEquals(10, parts.get(0).length);
+    }
+
+    @Test
+    public void testEmptyFileHasNoParts() throws SplitException, IOException {
+        Path empty = new Support(tempDir).createFile("empty.txt");
+        Path dest = Files.createDirectory(tempDir.resolve("empty"));
+        new LineSplitterServiceImpl(64, 1_000).splitLines(empty, dest, 10, new AtomicBoolean(false));
+        assertTrue(Support.readChunks(dest).isEmpty());
+    }
+
+}
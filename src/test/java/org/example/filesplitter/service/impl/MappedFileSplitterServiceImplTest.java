@@ -0,0 +1,66 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.exception.SplitException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedFileSplitterServiceImplTest {
+
+    @TempDir
+    static Path tempDir;
+
+    static Path tempFile;
+
+    static final byte[] bytes = Support.randomBytes(100_000, 11);
+
+    @BeforeAll
+    static void init() {
+        tempFile = new Support(tempDir).createFile("test.bin", bytes);
+    }
+
+    @Test
+    public void testFailOnWindowSizeZero() {
+        assertThrows(IllegalStateException.class, () -> new MappedFileSplitterServiceImpl(0));
+    }
+
+    /**
+     * The mapped engine must produce the same chunks as the stream engine, including when windows straddle chunk
+     * boundaries and chunks straddle window boundaries.
+     */
+    @ParameterizedTest
+    @CsvSource({"1000,1000", "4096,3333", "3333,4096", "65536,1000", "1000,250000"})
+    public void testSameOutputAsStreamEngine(int windowSize, int chunkSize) throws SplitException, IOException {
+        Path expected = Files.createDirectory(tempDir.resolve("stream" + windowSize + "_" + chunkSize));
+        new FileSplitterServiceImpl(4096).split(tempFile, expected, chunkSize, new AtomicBoolean(false));
+        Path actual = Files.createDirectory(tempDir.resolve("mapped" + windowSize + "_" + chunkSize));
+        new MappedFileSplitterServiceImpl(windowSize).split(tempFile, actual, chunkSize, new AtomicBoolean(false));
+
+        Support.assertSameChunks(expected, actual);
+    }
+
+    @Test
+    public void testInterruptedWritesNothing() throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("interrupted"));
+        new MappedFileSplitterServiceImpl(4096).split(tempFile, dest, 1000, new AtomicBoolean(true));
+        assertTrue(Support.readChunks(dest).isEmpty());
+    }
+
+    @Test
+    public void testCatchExceptionOnMissingSource() throws IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("missing"));
+        assertThrows(SplitException.class, () -> new MappedFileSplitterServiceImpl(4096)
+                .split(tempDir.resolve("missing.bin"), dest, 10, new AtomicBoolean(false)));
+    }
+
+}
@@ -0,0 +1,106 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.exception.SplitException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ParallelFileSplitterServiceImplTest {
+
+    @TempDir
+    static Path tempDir;
+
+    static Path tempFile;
+
+    static final byte[] bytes = Support.randomBytes(100_000, 7);
+
+    @BeforeAll
+    static void init() {
+        tempFile = new Support(tempDir).createFile("test.bin", bytes);
+    }
+
+    @Test
+    public void testFailOnParallelismZero() {
+        assertThrows(IllegalStateException.class, () -> new ParallelFileSplitterServiceImpl(0, 1000));
+    }
+
+    /**
+     * The parallel engine must produce the same chunks as the serial stream engine.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 3_333, 100_000, 250_000})
+    public void testSameOutputAsStreamEngine(int chunkSize) throws SplitException, IOException {
+        Path expected = Files.createDirectory(tempDir.resolve("stream" + chunkSize));
+        new FileSplitterServiceImpl(4096).split(tempFile, expected, chunkSize, new AtomicBoolean(false));
+        Path actual = Files.createDirectory(tempDir.resolve("parallel" + chunkSize));
+        new ParallelFileSplitterServiceImpl(4, 500).split(tempFile, actual, chunkSize, new AtomicBoolean(false));
+
+        Support.assertSameChunks(expected, actual);
+    }
+
+    @Test
+    public void testInterruptedWritesNothing() throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("interrupted"));
+        new ParallelFileSplitterServiceImpl(4, 500).split(tempFile, dest, 1000, new AtomicBoolean(true));
+        assertTrue(Support.readChunks(dest).isEmpty());
+    }
+
+    @Test
+    public void testCatchExceptionOnMissingDestination() {
+        assertThrows(SplitException.class, () -> new ParallelFileSplitterServiceImpl(4, 500)
+                .split(tempFile, tempDir.resolve("missing"), 1000, new AtomicBoolean(false)));
+    }
+
+    /**
+     * Once a chunk fails the chunks not started yet are skipped: the first chunk blocks on a named pipe while the
+     * other worker fails on the third, so no chunk after the third may be written.
+     */
+    @Test
+    @Timeout(30)
+    public void testFailedChunkStopsTheOthers() throws Exception {
+        Path dest = Files.createDirectory(tempDir.resolve("failed"));
+        String prefix = Support.pinNextPrefix();
+        Path fifo = dest.resolve(ChunkNames.name(prefix, 1));
+        Process mkfifo;
+        try {
+            mkfifo = new ProcessBuilder("mkfifo", fifo.toString()).start();
+        } catch (IOException e) {
+            assumeTrue(false, "no mkfifo");
+            return;
+        }
+        assumeTrue(mkfifo.waitFor() == 0, "no named pipes");
+        Files.createDirectory(dest.resolve(ChunkNames.name(prefix, 3)));
+
+        CompletableFuture<Void> split = CompletableFuture.runAsync(() -> {
+            try {
+                new ParallelFileSplitterServiceImpl(2, 500).split(tempFile, dest, 1000, new AtomicBoolean(false));
+            } catch (SplitException e) {
+                throw new CompletionException(e);
+            }
+        });
+        Thread.sleep(500); // leave the second worker time to run past the third chunk
+        assertEquals(0, Files.readAllBytes(fifo).length);
+
+        CompletionException e = assertThrows(CompletionException.class, split::join);
+        assertTrue(e.getCause() instanceof SplitException);
+        assertTrue(Files.exists(dest.resolve(ChunkNames.name(prefix, 2))));
+        for (long n = 4; n <= 100; n++) {
+            assertFalse(Files.exists(dest.resolve(ChunkNames.name(prefix, n))), "chunk " + n);
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.exception.SplitException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class PipelinedFileSplitterServiceImplTest {
+
+    @TempDir
+    static Path tempDir;
+
+    static Path tempFile;
+
+    static final byte[] bytes = Support.randomBytes(100_000, 13);
+
+    @BeforeAll
+    static void init() {
+        tempFile = new Support(tempDir).createFile("test.bin", bytes);
+    }
+
+    @Test
+    public void testFailOnRingSizeZero() {
+        assertThrows(IllegalStateException.class, () -> new PipelinedFileSplitterServiceImpl(1024, 0, 1));
+    }
+
+    @Test
+    public void testFailOnWritersZero() {
+        assertThrows(IllegalStateException.class, () -> new PipelinedFileSplitterServiceImpl(1024, 2, 0));
+    }
+
+    /**
+     * The pipelined engine must produce the same chunks as the serial stream engine, whatever the ring.
+     */
+    @ParameterizedTest
+    @CsvSource({"1000, 512, 1, 1", "3333, 512, 2, 1", "3333, 4096, 4, 3", "100000, 777, 3, 2", "250000, 65536, 2, 4"})
+    public void testSameOutputAsStreamEngine(long chunkSize, int bufferSize, int ringSize, int writers)
+            throws SplitException, IOException {
+        String name = chunkSize + "-" + bufferSize + "-" + ringSize + "-" + writers;
+        Path expected = Files.createDirectory(tempDir.resolve("stream" + name));
+        new FileSplitterServiceImpl(4096).split(tempFile, expected, chunkSize, new AtomicBoolean(false));
+        Path actual = Files.createDirectory(tempDir.resolve("pipelined" + name));
+        new PipelinedFileSplitterServiceImpl(bufferSize, ringSize, writers)
+                .split(tempFile, actual, chunkSize, new AtomicBoolean(false));
+
+        Support.assertSameChunks(expected, actual);
+    }
+
+    /**
+     * A write failing in a writer thread fails the split and stops the reader: the second chunk goes to /dev/full,
+     * which opens fine but rejects every write, and the reader can't get more than the ring ahead of it.
+     */
+    @Test
+    public void testWriterFailureFailsSplit() throws IOException {
+        Path full = Path.of("/dev/full");
+        assumeTrue(Files.isWritable(full), "no /dev/full");
+        Path dest = Files.createDirectory(tempDir.resolve("failed"));
+        String prefix = Support.pinNextPrefix();
+        try {
+            Files.createSymbolicLink(dest.resolve(ChunkNames.name(prefix, 2)), full);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            assumeTrue(false, "no symbolic links");
+        }
+
+        SplitException e = assertThrows(SplitException.class, () -> new PipelinedFileSplitterServiceImpl(500, 2, 2)
+                .split(tempFile, dest, 1000, new AtomicBoolean(false)));
+        assertInstanceOf(IOException.class, e.getCause());
+        for (long n = 5; n <= 100; n++) {
+            assertFalse(Files.exists(dest.resolve(ChunkNames.name(prefix, n))), "chunk " + n);
+        }
+    }
+
+    @Test
+    public void testInterruptedWritesNothing() throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("interrupted"));
+        new PipelinedFileSplitterServiceImpl(1024, 2, 2).split(tempFile, dest, 1000, new AtomicBoolean(true));
+        assertTrue(Support.readChunks(dest).isEmpty());
+    }
+
+    @Test
+    public void testCatchExceptionOnMissingDestination() {
+        assertThrows(SplitException.class, () -> new PipelinedFileSplitterServiceImpl(1024, 2, 2)
+                .split(tempFile, tempDir.resolve("missing"), 1000, new AtomicBoolean(false)));
+    }
+
+}
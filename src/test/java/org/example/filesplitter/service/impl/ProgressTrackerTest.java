@@ -0,0 +1,89 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.FileSplitterService;
+import org.example.filesplitter.service.SplitProgress;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProgressTrackerTest {
+
+    @TempDir
+    static Path tempDir;
+
+    static Path tempFile;
+
+    static final byte[] bytes = Support.randomBytes(50_000, 23);
+
+    @BeforeAll
+    static void init() {
+        tempFile = new Support(tempDir).createFile("test.bin", bytes);
+    }
+
+    /**
+     * Many updates within the report interval give a single report, the final one.
+     */
+    @Test
+    public void testReportsAreRateLimited() {
+        List<SplitProgress> reports = new ArrayList<>();
+        ProgressTracker tracker = new ProgressTracker(reports::add, 1_000_000);
+        for (int i = 0; i < 1_000; i++) {
+            tracker.add(1_000, 1 + i / 100);
+        }
+        tracker.finish();
+        assertTrue(reports.size() <= 2);
+        SplitProgress last = reports.get(reports.size() - 1);
+        assertEquals(1_000_000, last.bytesDone());
+        assertEquals(10, last.chunk());
+        assertEquals(Duration.ZERO, last.eta());
+    }
+
+    /**
+     * Skipped bytes count as done but not in the rate.
+     */
+    @Test
+    public void testSkippedBytesAreNotInTheRate() {
+        List<SplitProgress> reports = new ArrayList<>();
+        ProgressTracker tracker = new ProgressTracker(reports::add, 2_000);
+        tracker.skip(1_000);
+        tracker.finish();
+        assertEquals(1_000, reports.get(0).bytesDone());
+        assertEquals(0, reports.get(0).averageMegabytesPerSecond());
+        assertNull(reports.get(0).eta());
+    }
+
+    /**
+     * Every engine ends with a report of the whole source, whether it tracks its progress or not.
+     */
+    @Test
+    public void testEnginesReportCompletion() throws SplitException, IOException {
+        int i = 0;
+        for (FileSplitterService engine : List.of(
+                new FileSplitterServiceImpl(1_024),
+                new TransferFileSplitterServiceImpl(1_000),
+                new ParallelFileSplitterServiceImpl(3, 1_000),
+                new MappedFileSplitterServiceImpl(4_096))) {
+            Path dest = Files.createDirectory(tempDir.resolve("engine" + i++));
+            List<SplitProgress> reports = Collections.synchronizedList(new ArrayList<>());
+            engine.split(tempFile, dest, 7_000, new AtomicBoolean(false), reports::add);
+            SplitProgress last = reports.get(reports.size() - 1);
+            assertEquals(bytes.length, last.bytesDone(), engine.getClass().getSimpleName());
+            assertEquals(bytes.length, last.totalBytes());
+            assertEquals(8, last.chunk());
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.exception.SplitException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecordFileSplitterServiceImplTest {
+
+    @TempDir
+    static Path tempDir;
+
+    static Path csvFile;
+
+    static byte[] csv;
+
+    @BeforeAll
+    static void init() {
+        StringBuilder sb = new StringBuilder();
+        Random random = new Random(3);
+        for (int i = 0; i < 2_000; i++) {
+            sb.append(i).append(',').append("x".repeat(random.nextInt(80))).append('\n');
+        }
+        csv = sb.toString().getBytes(StandardCharsets.UTF_8);
+        csvFile = new Support(tempDir).createFile("test.csv", csv);
+    }
+
+    @Test
+    public void testFailOnEmptyDelimiter() {
+        assertThrows(IllegalStateException.class, () -> new RecordFileSplitterServiceImpl(new byte[0], 10, 10));
+    }
+
+    @Test
+    public void testFailOnScanBufferSmallerThanDelimiter() {
+        assertThrows(IllegalStateException.class, () -> new RecordFileSplitterServiceImpl(new byte[]{'\r', '\n'}, 1, 10));
+    }
+
+    /**
+     * Every chunk ends with a newline and together the chunks are the source.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100, 1_000, 4_096, 50_000})
+    public void testChunksEndWithWholeLines(int chunkSize) throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("lines" + chunkSize));
+        new RecordFileSplitterServiceImpl(RecordFileSplitterServiceImpl.NEWLINE, 64, 1_000)
+                .split(csvFile, dest, chunkSize, new AtomicBoolean(false));
+
+        List<byte[]> chunks = new ArrayList<>(Support.readChunks(dest).values());
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (byte[] chunk : chunks) {
+            assertEquals('\n', chunk[chunk.length - 1]);
+            joined.write(chunk);
+        }
+        assertArrayEquals(csv, joined.toByteArray());
+    }
+
+    /**
+     * The chunk end moves to the nearest boundary: back when the previous line end is closer, forward otherwise.
+     */
+    @Test
+    public void testChunkEndMovesToNearestBoundary() throws SplitException, IOException {
+        Path src = new Support(tempDir).createFile("nearest.txt",
+                "aaaaaaaa\nb\ncccccccccccccccccccc\n".getBytes(StandardCharsets.UTF_8));
+        Path dest = Files.createDirectory(tempDir.resolve("nearest"));
+        new RecordFileSplitterServiceImpl(RecordFileSplitterServiceImpl.NEWLINE, 4, 1_000)
+                .split(src, dest, 10, new AtomicBoolean(false));
+
+        List<String> chunks = new ArrayList<>();
+        Support.readChunks(dest).values().forEach(c -> chunks.add(new String(c, StandardCharsets.UTF_8)));
+        // 10 is one byte past the first line end and one before the second: the tie shrinks.
+        // 19 is 8 bytes past "b\n" and 13 before the next line end: the chunk shrinks.
+        assertEquals(List.of("aaaaaaaa\n", "b\n", "cccccccccccccccccccc\n"), chunks);
+    }
+
+    @Test
+    public void testMultiByteDelimiter() throws SplitException, IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            sb.append("row-").append(i).append("\r\n");
+        }
+        byte[] content = sb.toString().getBytes(StandardCharsets.UTF_8);
+        Path src = new Support(tempDir).createFile("crlf.txt", content);
+        Path dest = Files.createDirectory(tempDir.resolve("crlf"));
+        new RecordFileSplitterServiceImpl(new byte[]{'\r', '\n'}, 5, 1_000)
+                .split(src, dest, 333, new AtomicBoolean(false));
+
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (byte[] chunk : Support.readChunks(dest).values()) {
+            assertEquals('\r', chunk[chunk.length - 2]);
+            assertEquals('\n', chunk[chunk.length - 1]);
+            joined.write(chunk);
+        }
+        assertArrayEquals(content, joined.toByteArray());
+    }
+
+    @Test
+    public void testRecordLongerThanChunk() throws SplitException, IOException {
+        Path src = new Support(tempDir).createFile("long.txt",
+                ("x".repeat(100) + "\nshort\n").getBytes(StandardCharsets.UTF_8));
+        Path dest = Files.createDirectory(tempDir.resolve("long"));
+        new RecordFileSplitterServiceImpl(RecordFileSplitterServiceImpl.NEWLINE, 8, 1_000)
+                .split(src, dest, 10, new AtomicBoolean(false));
+
+        List<byte[]> chunks = new ArrayList<>(Support.readChunks(dest).values());
+        assertEquals(2, chunks.size());
+        assertEquals(101, chunks.get(0).length);
+        assertEquals("short\n", new String(chunks.get(1), StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,168 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.ChunkSink;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SinkFileSplitterServiceImplTest {
+
+    @TempDir
+    static Path tempDir;
+
+    static Path tempFile;
+
+    static final byte[] bytes = Support.randomBytes(100_000, 25);
+
+    @BeforeAll
+    static void init() {
+        tempFile = new Support(tempDir).createFile("test.bin", bytes);
+    }
+
+    @Test
+    public void testFailOnParallelismZero() {
+        assertThrows(IllegalStateException.class, () -> new SinkFileSplitterServiceImpl(
+                (dest, prefix) -> new MemoryChunkSink(), 0, 1000));
+    }
+
+    /**
+     * The filesystem sink must produce the same chunks as the stream engine.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 3_333, 100_000, 250_000})
+    public void testSameOutputAsStreamEngine(int chunkSize) throws SplitException, IOException {
+        Path expected = Files.createDirectory(tempDir.resolve("stream" + chunkSize));
+        new FileSplitterServiceImpl(4096).split(tempFile, expected, chunkSize, new AtomicBoolean(false));
+        Path actual = Files.createDirectory(tempDir.resolve("sink" + chunkSize));
+        new SinkFileSplitterServiceImpl((dest, prefix) -> new FileSystemChunkSink(dest), 4, 777)
+                .split(tempFile, actual, chunkSize, new AtomicBoolean(false));
+
+        Support.assertSameChunks(expected, actual);
+    }
+
+    @Test
+    public void testMemorySink() throws SplitException {
+        MemoryChunkSink sink = new MemoryChunkSink();
+        new SinkFileSplitterServiceImpl((dest, prefix) -> sink, 4, 4096)
+                .split(tempFile, tempDir, 30_000, new AtomicBoolean(false));
+
+        Map<Long, byte[]> chunks = new TreeMap<>();
+        sink.chunks().forEach((name, chunk) -> chunks.put(
+                Long.parseLong(name.substring(name.lastIndexOf('_') + 1)), chunk));
+        assertEquals(4, chunks.size());
+        assertArrayEquals(bytes, concat(chunks));
+        assertTrue(Support.readChunks(tempDir).isEmpty());
+    }
+
+    @Test
+    public void testZipSink() throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("zip"));
+        new SinkFileSplitterServiceImpl((d, prefix) -> new ZipChunkSink(d.resolve(prefix + ".zip")), 4, 4096)
+                .split(tempFile, dest, 7_000, new AtomicBoolean(false));
+
+        Path archive;
+        try (Stream<Path> files = Files.list(dest)) {
+            archive = files.reduce((a, b) -> {
+                throw new AssertionError("More than the archive in " + dest);
+            }).orElseThrow();
+        }
+        Map<Long, byte[]> chunks = new TreeMap<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+            for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+                String name = entry.getName();
+                chunks.put(Long.parseLong(name.substring(name.lastIndexOf('_') + 1)), zip.readAllBytes());
+            }
+        }
+        assertEquals(15, chunks.size());
+        assertArrayEquals(bytes, concat(chunks));
+    }
+
+    /**
+     * A failing chunk fails the split, and every chunk opened is either
+     * complete or abandoned, so a sink never holds on to an unfinished one.
+     * How many chunks the other thread opens before the failure is seen
+     * depends on timing, so it isn't checked.
+     */
+    @Test
+    public void testFailureAbandonsChunks() {
+        AtomicInteger opened = new AtomicInteger();
+        AtomicInteger closed = new AtomicInteger();
+        AtomicInteger abandoned = new AtomicInteger();
+        ChunkSink sink = new ChunkSink() {
+            @Override
+            public OutputStream open(String name) {
+                opened.incrementAndGet();
+                return new ByteArrayOutputStream() {
+                    @Override
+                    public void write(byte[] b, int off, int len) {
+                        if (name.endsWith("_split_3")) {
+                            throw new IllegalStateException("Rejected " + name);
+                        }
+                        super.write(b, off, len);
+                    }
+
+                    @Override
+                    public void close() {
+                        closed.incrementAndGet();
+                    }
+                };
+            }
+
+            @Override
+            public void abandon(OutputStream chunk) {
+                abandoned.incrementAndGet();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        SplitException e = assertThrows(SplitException.class, () -> new SinkFileSplitterServiceImpl(
+                (dest, prefix) -> sink, 2, 100).split(tempFile, tempDir, 1_000, new AtomicBoolean(false)));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertTrue(abandoned.get() >= 1);
+        assertEquals(opened.get(), closed.get() + abandoned.get());
+    }
+
+    @Test
+    public void testInterruptedWritesNothing() throws SplitException {
+        MemoryChunkSink sink = new MemoryChunkSink();
+        new SinkFileSplitterServiceImpl((dest, prefix) -> sink, 4, 4096)
+                .split(tempFile, tempDir, 1_000, new AtomicBoolean(true));
+        assertTrue(sink.chunks().isEmpty());
+    }
+
+    @Test
+    public void testCatchExceptionOnMissingDestination() {
+        assertThrows(SplitException.class, () -> new SinkFileSplitterServiceImpl(
+                (dest, prefix) -> new FileSystemChunkSink(dest), 4, 4096)
+                .split(tempFile, tempDir.resolve("missing"), 1000, new AtomicBoolean(false)));
+    }
+
+    static byte[] concat(Map<Long, byte[]> chunks) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        chunks.values().forEach(out::writeBytes);
+        return out.toByteArray();
+    }
+
+}
@@ -0,0 +1,138 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.exception.SplitException;
+import org.example.filesplitter.service.FileSplitterService;
+import org.example.filesplitter.service.SplitMetricsMXBean;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.JMException;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SplitMetricsTest {
+
+    @TempDir
+    static Path tempDir;
+
+    static Path tempFile;
+
+    static final byte[] bytes = Support.randomBytes(10_000, 29);
+
+    @BeforeAll
+    static void init() {
+        tempFile = new Support(tempDir).createFile("test.bin", bytes);
+    }
+
+    /**
+     * The instrumented engines count every byte and chunk, and time every operation.
+     */
+    @Test
+    public void testEnginesRecordSplits() throws SplitException, IOException {
+        int i = 0;
+        for (SplitMetrics metrics : List.of(new SplitMetrics(), new SplitMetrics(), new SplitMetrics())) {
+            FileSplitterService engine = i == 0
+                    ? new FileSplitterServiceImpl(new FixedBufferSizeStrategy(1_024), null, false, metrics)
+                    : i == 1 ? new TransferFileSplitterServiceImpl(1_000, metrics)
+                    : new ParallelFileSplitterServiceImpl(3, 1_000, metrics);
+            Path dest = Files.createDirectory(tempDir.resolve("engine" + i++));
+            engine.split(tempFile, dest, 3_000, new AtomicBoolean(false));
+            assertEquals(1, metrics.getRuns());
+            assertEquals(bytes.length, metrics.getBytesRead());
+            assertEquals(bytes.length, metrics.getBytesWritten());
+            assertEquals(4, metrics.getChunks());
+            // an open and a close per chunk, and at least one write per chunk
+            assertTrue(Arrays.stream(metrics.getLatencyHistogram()).sum() >= 12);
+            assertTrue(metrics.getLastRun().contains("\"chunks\":4"));
+            assertTrue(metrics.getLastRun().startsWith("{\"runs\":1,"));
+        }
+    }
+
+    @Test
+    public void testRecordsEngineRecordsSplits() throws SplitException, IOException {
+        SplitMetrics metrics = new SplitMetrics();
+        Path dest = Files.createDirectory(tempDir.resolve("records"));
+        new RecordFileSplitterServiceImpl(new byte[]{0}, 256, 1_000, metrics)
+                .split(tempFile, dest, 3_000, new AtomicBoolean(false));
+        assertEquals(1, metrics.getRuns());
+        assertEquals(bytes.length, metrics.getBytesWritten());
+        assertEquals(Support.readChunks(dest).size(), metrics.getChunks());
+    }
+
+    /**
+     * The incremental engine reads the whole source to checksum it, but
+     * only writes the chunks that changed.
+     */
+    @Test
+    public void testIncrementalEngineRecordsSplits() throws SplitException, IOException {
+        SplitMetrics metrics = new SplitMetrics();
+        Path dest = Files.createDirectory(tempDir.resolve("incremental"));
+        FileSplitterService engine = new IncrementalFileSplitterServiceImpl(DigestAlgorithm.XXH64, 1_024, 1_000,
+                metrics);
+        engine.split(tempFile, dest, 3_000, new AtomicBoolean(false));
+        assertEquals(2L * bytes.length, metrics.getBytesRead());
+        assertEquals(bytes.length, metrics.getBytesWritten());
+        assertEquals(4, metrics.getChunks());
+
+        metrics.reset();
+        engine.split(tempFile, dest, 3_000, new AtomicBoolean(false));
+        assertEquals(1, metrics.getRuns());
+        assertEquals(bytes.length, metrics.getBytesRead());
+        assertEquals(0, metrics.getBytesWritten());
+        assertEquals(0, metrics.getChunks());
+    }
+
+    /**
+     * Every split is appended to the JSON file, and the totals add up.
+     */
+    @Test
+    public void testJsonFile() throws SplitException, IOException {
+        Path json = tempDir.resolve("metrics.json");
+        SplitMetrics metrics = new SplitMetrics(json);
+        FileSplitterService engine = new TransferFileSplitterServiceImpl(1_000, metrics);
+        Path dest = Files.createDirectory(tempDir.resolve("json"));
+        engine.split(tempFile, dest, 5_000, new AtomicBoolean(false));
+        engine.split(tempFile, dest, 5_000, new AtomicBoolean(false));
+        List<String> lines = Files.readAllLines(json, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"runs\":1,\"bytesRead\":10000,"));
+        assertTrue(metrics.toJson().startsWith("{\"runs\":2,\"bytesRead\":20000,"));
+        metrics.reset();
+        assertEquals(0, metrics.getBytesRead());
+        assertEquals("{}", metrics.getLastRun());
+    }
+
+    /**
+     * The metrics can be read through the platform MBean server.
+     */
+    @Test
+    public void testMXBean() throws SplitException, IOException, JMException {
+        SplitMetrics metrics = new SplitMetrics();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(SplitMetrics.OBJECT_NAME + ",name=test");
+        server.registerMBean(metrics, name);
+        try {
+            Path dest = Files.createDirectory(tempDir.resolve("jmx"));
+            new FileSplitterServiceImpl(new FixedBufferSizeStrategy(1_024), null, false, metrics)
+                    .split(tempFile, dest, 10_000, new AtomicBoolean(false));
+            SplitMetricsMXBean proxy = JMX.newMXBeanProxy(server, name, SplitMetricsMXBean.class);
+            assertEquals(1, proxy.getChunks());
+            assertEquals((long) bytes.length, server.getAttribute(name, "BytesWritten"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
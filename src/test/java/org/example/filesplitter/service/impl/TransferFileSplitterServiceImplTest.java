@@ -0,0 +1,65 @@
+package org.example.filesplitter.service.impl;
+
+import org.example.filesplitter.Support;
+import org.example.filesplitter.exception.SplitException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransferFileSplitterServiceImplTest {
+
+    @TempDir
+    static Path tempDir;
+
+    static Path tempFile;
+
+    static final byte[] bytes = Support.randomBytes(100_000, 42);
+
+    @BeforeAll
+    static void init() {
+        tempFile = new Support(tempDir).createFile("test.bin", bytes);
+    }
+
+    @Test
+    public void testFailOnTransferSizeZero() {
+        assertThrows(IllegalStateException.class, () -> new TransferFileSplitterServiceImpl(0));
+    }
+
+    /**
+     * The transfer engine must produce the same chunks as the stream engine.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 4_096, 33_333, 100_000, 250_000})
+    public void testSameOutputAsStreamEngine(int chunkSize) throws SplitException, IOException {
+        Path expected = Files.createDirectory(tempDir.resolve("stream" + chunkSize));
+        new FileSplitterServiceImpl(4096).split(tempFile, expected, chunkSize, new AtomicBoolean(false));
+        Path actual = Files.createDirectory(tempDir.resolve("transfer" + chunkSize));
+        new TransferFileSplitterServiceImpl(1000).split(tempFile, actual, chunkSize, new AtomicBoolean(false));
+
+        Support.assertSameChunks(expected, actual);
+    }
+
+    @Test
+    public void testInterruptedWritesNothing() throws SplitException, IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("interrupted"));
+        new TransferFileSplitterServiceImpl(1000).split(tempFile, dest, 1000, new AtomicBoolean(true));
+        assertTrue(Support.readChunks(dest).isEmpty());
+    }
+
+    @Test
+    public void testCatchExceptionOnMissingSource() throws IOException {
+        Path dest = Files.createDirectory(tempDir.resolve("missing"));
+        assertThrows(SplitException.class, () -> new TransferFileSplitterServiceImpl(1000)
+                .split(tempDir.resolve("missing.bin"), dest, 10, new AtomicBoolean(false)));
+    }
+
+}